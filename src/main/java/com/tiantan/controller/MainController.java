@@ -1,8 +1,12 @@
 package com.tiantan.controller;
 
+import com.tiantan.model.algorithm.AllPairsTable;
+import com.tiantan.model.algorithm.ContractionHierarchy;
 import com.tiantan.model.data.ScenicSpot;
 import com.tiantan.model.data.SpotList;
 import com.tiantan.model.data.UserPreference;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
 import com.tiantan.model.graph.ScenicGraph;
 import com.tiantan.util.Constants;
 import com.tiantan.util.FileUtil;
@@ -31,6 +35,7 @@ import java.net.URL;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 主界面控制器
@@ -49,6 +54,9 @@ public class MainController implements Initializable {
     // 模型数据
     private SpotList spotList;
     private ScenicGraph scenicGraph;
+    private volatile AllPairsTable distanceTable;          // 基础权重的全源最短路径表，后台计算完成前为null
+    private volatile AllPairsTable crowdAwareDistanceTable; // 考虑拥挤因素的全源最短路径表，后台计算完成前为null
+    private volatile ContractionHierarchy contractionHierarchy; // 基础权重的收缩层次，后台加载或构建完成前为null
     private UserPreference userPreference;
     private Properties settings;
     
@@ -191,6 +199,30 @@ public class MainController implements Initializable {
             showStatus(LocaleUtil.getString(Constants.ERROR_DATA_LOAD));
         }
         
+        // 在后台加载收缩层次，文件不存在或与当前图不一致时重新构建并保存
+        CompletableFuture.runAsync(() -> {
+            CompactGraph snapshot = scenicGraph.freeze();
+            ContractionHierarchy hierarchy = FileUtil.loadContractionHierarchy(snapshot, Edge::getWeight);
+            if (hierarchy == null) {
+                hierarchy = ContractionHierarchy.build(snapshot, Edge::getWeight);
+                FileUtil.saveContractionHierarchy(hierarchy);
+            }
+            contractionHierarchy = hierarchy;
+        }).exceptionally(e -> {
+            logger.error("准备收缩层次失败", e);
+            return null;
+        });
+        
+        // 在后台预计算景点间最短路径表，计算完成前路线规划按需求解
+        CompletableFuture.runAsync(() -> {
+            distanceTable = new AllPairsTable(scenicGraph, Edge::getWeight);
+            crowdAwareDistanceTable = new AllPairsTable(scenicGraph, Edge::getEffectiveWeight);
+            logger.info("最短路径表计算完成");
+        }).exceptionally(e -> {
+            logger.error("计算最短路径表失败", e);
+            return null;
+        });
+        
         // 初始化地图
         mapController.initializeMap(spotList, scenicGraph);
         
@@ -282,6 +314,24 @@ public void switchLanguage(boolean isEnglish) {
         return scenicGraph;
     }
     
+    /**
+     * 获取全源最短路径表
+     * @param avoidCrowds 是否考虑拥挤因素
+     * @return 最短路径表，后台计算尚未完成时返回null
+     */
+    public AllPairsTable getDistanceTable(boolean avoidCrowds) {
+        return avoidCrowds ? crowdAwareDistanceTable : distanceTable;
+    }
+    
+    /**
+     * 获取基础权重的收缩层次
+     * @return 收缩层次，后台准备尚未完成或景区图的边、基础权重已变化时返回null
+     */
+    public ContractionHierarchy getContractionHierarchy() {
+        ContractionHierarchy hierarchy = contractionHierarchy;
+        return hierarchy != null && hierarchy.matches(scenicGraph.freeze(), Edge::getWeight) ? hierarchy : null;
+    }
+    
     public UserPreference getUserPreference() {
         return userPreference;
     }
@@ -1,7 +1,7 @@
 package com.tiantan.controller;
 
+import com.tiantan.model.algorithm.DynamicShortestPathTree;
 import com.tiantan.model.algorithm.MST;
-import com.tiantan.model.algorithm.ShortestPath;
 import com.tiantan.model.data.ScenicSpot;
 import com.tiantan.model.data.SpotList;
 import com.tiantan.model.graph.Edge;
@@ -9,6 +9,7 @@ import com.tiantan.model.graph.ScenicGraph;
 import com.tiantan.model.graph.Vertex;
 import com.tiantan.util.Constants;
 import com.tiantan.util.LocaleUtil;
+import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.fxml.FXML;
@@ -40,17 +41,18 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.function.Function;
 
 /**
  * 地图控制器
  */
 public class MapController implements Initializable {
     private static final Logger logger = LoggerFactory.getLogger(MapController.class);
+    private static final int EAST_GATE_ID = 9; // 东门ID，选中景点时显示从这里出发的路径
     
     // FXML元素
     @FXML private AnchorPane mapContainer;
@@ -80,6 +82,8 @@ public class MapController implements Initializable {
     private MainController mainController;
     private SpotList spotList;
     private ScenicGraph scenicGraph;
+    private DynamicShortestPathTree eastGateTree;           // 基础权重下从东门出发的最短路径树
+    private DynamicShortestPathTree crowdAwareEastGateTree; // 考虑拥挤因素的最短路径树
     
     // 地图状态
     private final DoubleProperty zoomLevel = new SimpleDoubleProperty(Constants.MAP_DEFAULT_ZOOM);
@@ -87,6 +91,7 @@ public class MapController implements Initializable {
     private ScenicSpot selectedSpot;
     private Map<Integer, Circle> spotCircles = new HashMap<>();
     private List<Line> pathLines = new ArrayList<>();
+    private List<ScenicSpot> shownPath = Collections.emptyList(); // 当前显示的从东门出发的路径
     private Map<Integer, Label> spotLabels = new HashMap<>();
     
     @Override
@@ -121,6 +126,16 @@ public class MapController implements Initializable {
         this.spotList = spotList;
         this.scenicGraph = scenicGraph;
         
+        // 维护从东门出发的最短路径树，拥挤状态变化时只修复受影响的部分
+        if (eastGateTree != null) {
+            eastGateTree.dispose();
+            crowdAwareEastGateTree.dispose();
+        }
+        eastGateTree = new DynamicShortestPathTree(scenicGraph, Edge::getWeight, EAST_GATE_ID);
+        crowdAwareEastGateTree = new DynamicShortestPathTree(scenicGraph, Edge::getEffectiveWeight, EAST_GATE_ID);
+        eastGateTree.addTreeChangeListener(this::onEastGateTreeChanged);
+        crowdAwareEastGateTree.addTreeChangeListener(this::onEastGateTreeChanged);
+        
         // 更新景点显示
         updateSpotDisplay();
         
@@ -502,8 +517,8 @@ private void createEmptyMap() {
         // 清除现有路径
         hidePaths();
         
-        // 基于最小生成树显示主要路径
-        List<Edge> mstEdges = MST.kruskal(scenicGraph, Edge::getWeight);
+        // 基于最小生成树显示主要路径，大规模路网上并行计算
+        List<Edge> mstEdges = MST.boruvka(scenicGraph, Edge::getWeight);
         for (Edge edge : mstEdges) {
             ScenicSpot from = edge.getFrom().getSpot();
             ScenicSpot to = edge.getTo().getSpot();
@@ -532,6 +547,7 @@ private void createEmptyMap() {
             mapPane.getChildren().remove(line);
         }
         pathLines.clear();
+        shownPath = Collections.emptyList();
     }
     
     /**
@@ -602,22 +618,9 @@ private void createEmptyMap() {
         // 清除现有路径
         hidePaths();
         
-        // 使用默认的起点（东门）
-        int startId = 9; // 东门ID
-        
-        // 定义权重函数
-        Function<Edge, Double> weightFunction;
-        if (avoidCrowdsCheckBox.isSelected()) {
-            // 避开拥挤区域
-            weightFunction = Edge::getEffectiveWeight;
-        } else {
-            // 使用默认权重
-            weightFunction = Edge::getWeight;
-        }
-        
-        // 计算最短路径
-        Map<Integer, Integer> predecessor = ShortestPath.dijkstra(scenicGraph, startId, weightFunction);
-        List<ScenicSpot> shortestPath = ShortestPath.constructPath(scenicGraph, predecessor, selectedSpot.getId());
+        // 从东门出发的最短路径树中直接取出路径
+        List<ScenicSpot> shortestPath = currentEastGateTree().path(selectedSpot.getId());
+        shownPath = shortestPath;
         
         // 绘制路径
         if (shortestPath.size() > 1) {
@@ -641,6 +644,34 @@ private void createEmptyMap() {
         }
     }
     
+    /**
+     * 获取与"避开拥挤"选项对应的东门最短路径树
+     * @return 最短路径树
+     */
+    private DynamicShortestPathTree currentEastGateTree() {
+        return avoidCrowdsCheckBox.isSelected() ? crowdAwareEastGateTree : eastGateTree;
+    }
+    
+    /**
+     * 东门最短路径树变化时，只在地图上正显示东门路径且路径上的景点受影响时重绘
+     * 通知可能来自传感器线程，重绘放到JavaFX应用线程执行
+     * @param tree 发生变化的最短路径树
+     * @param changedSpotIds 距离或前驱发生变化的景点ID
+     */
+    private void onEastGateTreeChanged(DynamicShortestPathTree tree, int[] changedSpotIds) {
+        Platform.runLater(() -> {
+            if (shownPath.isEmpty() || tree != currentEastGateTree()) {
+                return;
+            }
+            for (int id : changedSpotIds) {
+                if (shownPath.stream().anyMatch(spot -> spot.getId() == id)) {
+                    showPathToSelectedSpot();
+                    return;
+                }
+            }
+        });
+    }
+    
     /**
      * 将地图中心点设为指定景点
      * @param spot 景点
@@ -1,17 +1,26 @@
 package com.tiantan.controller;
 
+import com.tiantan.model.algorithm.AllPairsTable;
+import com.tiantan.model.algorithm.ConstrainedRouter;
+import com.tiantan.model.algorithm.ContractionHierarchy;
+import com.tiantan.model.algorithm.DistanceMatrix;
+import com.tiantan.model.algorithm.HeldKarp;
 import com.tiantan.model.algorithm.MST;
-import com.tiantan.model.algorithm.ShortestPath;
+import com.tiantan.model.algorithm.OrienteeringPlanner;
+import com.tiantan.model.algorithm.RouteConstraints;
+import com.tiantan.model.algorithm.TourImprover;
 import com.tiantan.model.data.Route;
 import com.tiantan.model.data.RouteStop;
 import com.tiantan.model.data.RouteType;
 import com.tiantan.model.data.ScenicSpot;
 import com.tiantan.model.data.SpotList;
+import com.tiantan.model.data.UserPreference;
 import com.tiantan.model.graph.Edge;
 import com.tiantan.model.graph.ScenicGraph;
 import com.tiantan.model.graph.Vertex;
 import com.tiantan.util.Constants;
 import com.tiantan.util.LocaleUtil;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -25,7 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.net.URL;
 import java.time.Duration;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -319,25 +328,105 @@ public class RouteController implements Initializable {
         boolean accessibleOnly = accessibleOnlyCheckBox.isSelected();
         RouteType routeType = routeTypeComboBox.getValue();
         
-        // 定义权重函数
-        Function<Edge, Double> weightFunction;
-        if (avoidCrowds) {
-            weightFunction = Edge::getEffectiveWeight;
-        } else {
-            weightFunction = Edge::getWeight;
+        // 候选景点：起点、终点以及其余满足无障碍要求的景点
+        List<ScenicSpot> candidates = new ArrayList<>();
+        candidates.add(startSpot);
+        if (!endSpot.equals(startSpot)) {
+            candidates.add(endSpot);
+        }
+        for (int i = 0; i < spotList.size(); i++) {
+            ScenicSpot spot = spotList.get(i);
+            if (!spot.equals(startSpot) && !spot.equals(endSpot)
+                    && (!accessibleOnly || spot.isAccessible())) {
+                candidates.add(spot);
+            }
         }
         
-        // 计算最短路径
-        Map<Integer, Integer> predecessor = ShortestPath.dijkstra(
-            scenicGraph, startSpot.getId(), weightFunction);
-        List<ScenicSpot> pathSpots = ShortestPath.constructPath(
-            scenicGraph, predecessor, endSpot.getId());
-        
-        if (pathSpots.isEmpty()) {
-            showAlert(Alert.AlertType.ERROR, 
-                    LocaleUtil.getString("route.error.noPath"),
-                    LocaleUtil.getString("route.error.cannotFindPath"));
-            return;
+        // 偏好得分和游览时间在界面线程上取好，距离矩阵和路线规划放到后台执行，避免界面卡顿
+        UserPreference preference = mainController.getUserPreference();
+        double metersPerMinute = preference.getWalkingMetersPerMinute();
+        int n = candidates.size();
+        double[] visitTime = new double[n];
+        double[] prize = new double[n];
+        for (int i = 0; i < n; i++) {
+            visitTime[i] = candidates.get(i).getVisitTime();
+            prize[i] = preference.calculateSpotScore(candidates.get(i));
+        }
+        int endIndex = endSpot.equals(startSpot) ? 0 : 1;
+        
+        findRouteButton.setDisable(true);
+        CompletableFuture.supplyAsync(() -> planRoute(candidates, visitTime, prize, metersPerMinute,
+                        endIndex, timeLimit, avoidCrowds, accessibleOnly))
+                .whenComplete((plan, error) -> Platform.runLater(() -> {
+                    findRouteButton.setDisable(false);
+                    if (error != null) {
+                        logger.error("路线规划失败", error);
+                    }
+                    if (error != null || plan == null) {
+                        showAlert(Alert.AlertType.ERROR,
+                                LocaleUtil.getString("route.error.noPath"),
+                                LocaleUtil.getString("route.error.cannotFindPath"));
+                    } else {
+                        applyPlannedRoute(startSpot, endSpot, candidates, plan, routeType, accessibleOnly);
+                    }
+                }));
+    }
+    
+    /**
+     * 在时间预算内选取并排序景点，使偏好得分之和最大（在后台线程执行）
+     * 路程时间取最短路径长度除以步行速度；要求无障碍时在搜索中避开台阶路段和无障碍设施缺失的景点
+     * @param candidates 候选景点，起点在首位，终点与起点不同时在第二位
+     * @param visitTime 候选景点的游览时间
+     * @param prize 候选景点的偏好得分
+     * @param metersPerMinute 步行速度（米/分钟）
+     * @param endIndex 终点在候选景点中的位置
+     * @param timeLimit 时间预算（分钟）
+     * @param avoidCrowds 是否考虑拥挤因素
+     * @param accessibleOnly 是否只走无障碍路线
+     * @return 候选景点下标的访问顺序，起点无法到达终点时返回null
+     */
+    private int[] planRoute(List<ScenicSpot> candidates, double[] visitTime, double[] prize, double metersPerMinute,
+                            int endIndex, int timeLimit, boolean avoidCrowds, boolean accessibleOnly) {
+        int n = candidates.size();
+        double[] distance;
+        if (accessibleOnly) {
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = candidates.get(i).getId();
+            }
+            ConstrainedRouter router = new ConstrainedRouter(scenicGraph.freeze(),
+                    avoidCrowds ? Edge::getEffectiveWeight : Edge::getWeight, RouteConstraints.wheelchair());
+            distance = router.distanceMatrix(ids);
+        } else {
+            distance = shortestDistances(candidates, avoidCrowds);
+        }
+        double[] travelTime = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    travelTime[i * n + j] = distance[i * n + j] / metersPerMinute;
+                }
+            }
+        }
+        if (Double.isInfinite(travelTime[endIndex])) {
+            return null;
+        }
+        OrienteeringPlanner planner = new OrienteeringPlanner(travelTime, visitTime, prize);
+        return planner.plan(0, endIndex, timeLimit, Constants.ROUTE_PLANNING_TIME_LIMIT_MS);
+    }
+    
+    /**
+     * 按规划结果生成当前路线并刷新界面
+     */
+    private void applyPlannedRoute(ScenicSpot startSpot, ScenicSpot endSpot, List<ScenicSpot> candidates,
+                                   int[] plan, RouteType routeType, boolean accessibleOnly) {
+        List<ScenicSpot> pathSpots = new ArrayList<>(plan.length);
+        for (int i = 0; i < plan.length; i++) {
+            // 起点与终点相同时不重复添加
+            if (i == plan.length - 1 && i > 0 && plan[i] == plan[0]) {
+                break;
+            }
+            pathSpots.add(candidates.get(plan[i]));
         }
         
         // 创建新路线
@@ -354,28 +443,12 @@ public class RouteController implements Initializable {
             !accessibleOnly // 如果要求无障碍，则检查路径上的所有景点
         );
         
-        // 将路径上的景点添加到路线中
+        // 将规划出的景点添加到路线中
         routeStops.clear();
-        int totalTime = 0;
-        
         for (ScenicSpot spot : pathSpots) {
-            // 检查无障碍要求
-            if (accessibleOnly && !spot.isAccessible()) {
-                continue;
-            }
-            
-            // 添加景点到路线
             RouteStop stop = new RouteStop(spot);
             routeStops.add(stop);
             currentRoute.addStop(stop);
-            
-            // 累计时间
-            totalTime += spot.getVisitTime();
-            
-            // 如果总时间超过限制，停止添加
-            if (totalTime > timeLimit) {
-                break;
-            }
         }
         
         // 更新路线信息
@@ -527,12 +600,33 @@ public class RouteController implements Initializable {
             .map(RouteStop::getSpot)
             .collect(Collectors.toList());
         
-        // 创建子图
-        ScenicGraph subGraph = createSubGraphForSpots(spots);
-        
-        // 使用近似TSP算法优化路线
-        List<ScenicSpot> optimizedPath = MST.approximateTSP(
-            subGraph, spots.get(0).getId(), Edge::getWeight);
+        List<ScenicSpot> optimizedPath;
+        if (spots.size() <= Constants.TSP_EXACT_MAX_STOPS) {
+            // 景点数量较少时用Held-Karp求精确的最优顺序（起点固定，终点任意）
+            int n = spots.size();
+            double[] distance = buildDistanceMatrix(spots);
+            int[] order = HeldKarp.solve(distance, n, 0, false);
+            optimizedPath = new ArrayList<>(n);
+            for (int index : order) {
+                optimizedPath.add(spots.get(index));
+            }
+        } else {
+            // 距离矩阵只算一次，子图与局部搜索共用：
+            // 先在子图上用近似TSP算法构造初始路线，再用局部搜索改进
+            double[] distance = buildDistanceMatrix(spots);
+            ScenicGraph subGraph = createSubGraphForSpots(spots, distance);
+            List<ScenicSpot> baseline = MST.approximateTSP(
+                subGraph, spots.get(0).getId(), Edge::getWeight);
+            optimizedPath = baseline;
+            if (baseline.size() == spots.size()) {
+                TourImprover.Result result = TourImprover.standard()
+                    .improve(baseline, reorderMatrix(distance, spots, baseline), false);
+                optimizedPath = result.getTour();
+                logger.info("路线局部优化: MST基准 {}米 -> {}米, 缩短 {}%",
+                        Math.round(result.getInitialCost()), Math.round(result.getFinalCost()),
+                        Math.round(result.getImprovementRatio() * 100));
+            }
+        }
         
         if (optimizedPath.size() < spots.size()) {
             showAlert(Alert.AlertType.WARNING, 
@@ -634,9 +728,10 @@ public class RouteController implements Initializable {
     /**
      * 为指定景点集合创建子图
      * @param spots 景点列表
+     * @param distance 由 {@link #buildDistanceMatrix(List)} 得到的行优先距离矩阵，与 spots 顺序一致
      * @return 包含这些景点的子图
      */
-    private ScenicGraph createSubGraphForSpots(List<ScenicSpot> spots) {
+    private ScenicGraph createSubGraphForSpots(List<ScenicSpot> spots, double[] distance) {
         ScenicGraph subGraph = new ScenicGraph(false);
         
         // 添加顶点
@@ -644,19 +739,14 @@ public class RouteController implements Initializable {
             subGraph.addVertex(spot);
         }
         
-        // 添加边
-        for (ScenicSpot from : spots) {
-            for (ScenicSpot to : spots) {
+        // 添加边，权重取原图中两景点间的最短路径长度（不可达时矩阵中已是直线距离）
+        int n = spots.size();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                ScenicSpot from = spots.get(i);
+                ScenicSpot to = spots.get(j);
                 if (!from.equals(to)) {
-                    // 查找原图中的边
-                    Edge edge = scenicGraph.getVertex(from.getId()).getEdgeTo(to.getId());
-                    if (edge != null) {
-                        subGraph.addEdge(from.getId(), to.getId(), edge.getWeight(), edge.getType());
-                    } else {
-                        // 如果原图中没有直接连接，可以添加一个权重较大的边
-                        double distance = from.distanceTo(to);
-                        subGraph.addEdge(from.getId(), to.getId(), distance, com.tiantan.model.graph.EdgeType.WALKING);
-                    }
+                    subGraph.addEdge(from.getId(), to.getId(), distance[i * n + j], com.tiantan.model.graph.EdgeType.WALKING);
                 }
             }
         }
@@ -664,6 +754,86 @@ public class RouteController implements Initializable {
         return subGraph;
     }
     
+    /**
+     * 构建景点间的距离矩阵
+     * @param spots 景点列表
+     * @return 行优先的距离矩阵，取原图中的最短路径长度，不可达时退化为直线距离
+     */
+    private double[] buildDistanceMatrix(List<ScenicSpot> spots) {
+        int n = spots.size();
+        double[] matrix = shortestDistances(spots, false);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    matrix[i * n + j] = 0;
+                } else if (Double.isInfinite(matrix[i * n + j])) {
+                    matrix[i * n + j] = spots.get(i).distanceTo(spots.get(j));
+                }
+            }
+        }
+        return matrix;
+    }
+    
+    /**
+     * 按新的景点顺序重排距离矩阵，不重新计算最短路径
+     * @param matrix 按 spots 顺序排列的行优先距离矩阵
+     * @param spots 矩阵原来的景点顺序
+     * @param order 新的景点顺序，须是 spots 的一个排列
+     * @return 按 order 顺序排列的行优先距离矩阵
+     */
+    private double[] reorderMatrix(double[] matrix, List<ScenicSpot> spots, List<ScenicSpot> order) {
+        int n = spots.size();
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            position.put(spots.get(i).getId(), i);
+        }
+        int[] source = new int[n];
+        for (int i = 0; i < n; i++) {
+            source[i] = position.get(order.get(i).getId());
+        }
+        double[] reordered = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                reordered[i * n + j] = matrix[source[i] * n + source[j]];
+            }
+        }
+        return reordered;
+    }
+    
+    /**
+     * 求景点两两之间的最短路径长度
+     * 全源最短路径表已在后台算好且保存了整张表时直接查表；否则不考虑拥挤时在仍有效的收缩层次上用RPHAST计算，
+     * 其余情况在当前图上对这些景点做一次多源计算
+     * @param spots 景点列表
+     * @param avoidCrowds 是否考虑拥挤因素
+     * @return 行优先的距离矩阵，不可达时为正无穷
+     */
+    private double[] shortestDistances(List<ScenicSpot> spots, boolean avoidCrowds) {
+        int n = spots.size();
+        double[] matrix = new double[n * n];
+        AllPairsTable table = mainController.getDistanceTable(avoidCrowds);
+        if (table != null && table.isMaterialized()) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    matrix[i * n + j] = table.distance(spots.get(i).getId(), spots.get(j).getId());
+                }
+            }
+            return matrix;
+        }
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = spots.get(i).getId();
+        }
+        ContractionHierarchy hierarchy = avoidCrowds ? null : mainController.getContractionHierarchy();
+        if (hierarchy != null) {
+            DistanceMatrix.compute(hierarchy, ids, ids, matrix);
+            return matrix;
+        }
+        DistanceMatrix.compute(scenicGraph.freeze(), ids, ids,
+                avoidCrowds ? Edge::getEffectiveWeight : Edge::getWeight, matrix);
+        return matrix;
+    }
+    
     /**
      * 生成路线ID
      * @return 新路线ID
@@ -679,13 +849,7 @@ public class RouteController implements Initializable {
      * @return 景点对象，如果不存在返回null
      */
     private ScenicSpot findSpotById(int id) {
-        for (int i = 0; i < spotList.size(); i++) {
-            ScenicSpot spot = spotList.get(i);
-            if (spot.getId() == id) {
-                return spot;
-            }
-        }
-        return null;
+        return spotList.getById(id);
     }
     
     /**
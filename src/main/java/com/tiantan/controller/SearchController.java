@@ -1,8 +1,10 @@
 package com.tiantan.controller;
 
-import com.tiantan.model.algorithm.SearchUtil;
 import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.data.SpotColumns;
+import com.tiantan.model.data.SpotFuzzyIndex;
 import com.tiantan.model.data.SpotList;
+import com.tiantan.model.data.SpotSearchIndex;
 import com.tiantan.util.Constants;
 import com.tiantan.util.LocaleUtil;
 import javafx.beans.property.SimpleStringProperty;
@@ -22,9 +24,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URL;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.ResourceBundle;
-import java.util.function.Predicate;
 
 /**
  * 搜索控制器
@@ -49,6 +52,8 @@ public class SearchController implements Initializable {
     
     private MainController mainController;
     private SpotList spotList;
+    private SpotSearchIndex searchIndex;   // 景点全文倒排索引，随景点列表增量更新
+    private SpotFuzzyIndex fuzzyIndex;     // 景点名称模糊索引，随景点列表增量更新
     private ObservableList<ScenicSpot> searchResults = FXCollections.observableArrayList();
     
     @Override
@@ -77,6 +82,14 @@ public class SearchController implements Initializable {
      */
     public void initializeSearch(SpotList spotList) {
         this.spotList = spotList;
+        if (searchIndex != null) {
+            searchIndex.dispose();
+        }
+        searchIndex = new SpotSearchIndex(spotList);
+        if (fuzzyIndex != null) {
+            fuzzyIndex.dispose();
+        }
+        fuzzyIndex = new SpotFuzzyIndex(spotList);
         
         // 加载所有景点到结果表格中
         searchResults.clear();
@@ -171,40 +184,26 @@ public class SearchController implements Initializable {
         boolean fuzzySearch = fuzzySearchCheckBox.isSelected();
         boolean isEnglish = mainController.getUserPreference().isEnglish();
         
-        // 创建搜索条件
-        Predicate<ScenicSpot> searchPredicate = spot -> {
-            // 名称匹配
-            boolean nameMatch;
-            if (fuzzySearch) {
-                // 模糊匹配
-                String spotName = spot.getName(isEnglish);
-                nameMatch = searchText.isEmpty() || 
-                           SearchUtil.levenshteinDistance(searchText.toLowerCase(), 
-                                                       spotName.toLowerCase()) <= Constants.SEARCH_FUZZY_THRESHOLD;
-            } else {
-                // 精确匹配（包含）
-                String spotName = spot.getName(isEnglish);
-                nameMatch = searchText.isEmpty() || 
-                           spotName.toLowerCase().contains(searchText.toLowerCase());
-            }
-            
-            // 分类匹配
-            boolean categoryMatch = selectedCategory.equals(LocaleUtil.getString("search.allCategories")) || 
-                                  spot.getCategory().equals(selectedCategory);
-            
-            // 无障碍匹配
-            boolean accessibleMatch = !accessibleOnly || spot.isAccessible();
-            
-            return nameMatch && categoryMatch && accessibleMatch;
-        };
-        
-        // 使用线性表的搜索功能
-        SpotList filteredList = spotList.search(searchPredicate);
+        boolean allCategories = selectedCategory.equals(LocaleUtil.getString("search.allCategories"));
         
-        // 更新结果列表
         searchResults.clear();
-        for (int i = 0; i < filteredList.size(); i++) {
-            searchResults.add(filteredList.get(i));
+        if (!fuzzySearch || searchText.isEmpty()) {
+            // 列存储位图求出分类和无障碍条件的交集，再与倒排索引的短语查询结果求交；
+            // 关键词只在当前语言的名称中匹配，结果按景点列表的顺序排列
+            SpotColumns columns = spotList.columns();
+            BitSet rows = allCategories ? columns.all() : columns.category(selectedCategory);
+            if (accessibleOnly) {
+                rows.and(columns.accessible());
+            }
+            if (!searchText.isEmpty()) {
+                rows.and(columns.rowsOf(searchIndex.search(searchText, SpotSearchIndex.MatchMode.PHRASE,
+                        EnumSet.of(SpotSearchIndex.Field.name(isEnglish)))));
+            }
+            searchResults.addAll(columns.spots(rows));
+        } else {
+            // 模糊匹配：前缀树上逐行计算编辑距离并剪枝，结果按距离和热门程度排序
+            searchResults.addAll(fuzzyIndex.search(searchText, Constants.SEARCH_FUZZY_THRESHOLD,
+                    Constants.SEARCH_MAX_RESULTS, isEnglish, allCategories ? null : selectedCategory, accessibleOnly));
         }
         
         // 更新结果计数
@@ -289,7 +288,7 @@ public class SearchController implements Initializable {
      * @return 找到的景点，如果未找到返回null
      */
     public ScenicSpot findSpotById(int spotId) {
-        return spotList.binarySearchById(spotId);
+        return spotList.getById(spotId);
     }
     
     /**
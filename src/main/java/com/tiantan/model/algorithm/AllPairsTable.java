@@ -0,0 +1,313 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeChangeListener;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 全源最短路径表
+ * 以行优先的扁平数组保存所有景点对之间的距离、前驱和下一跳，
+ * 每个起点对应一行，由并行的Dijkstra任务独立计算。
+ * 查询路径只需沿前驱回溯，耗时与路径长度成正比，不再执行搜索。
+ * 表会监听边权重和拥挤状态的变化，只把可能受影响的行标记为过期并在下次访问时重算；
+ * 发现顶点或边的增删时整张表作废并在后台线程重建，重建完成前每次查询在最新快照上运行一次双向搜索，
+ * 通知边变化的写线程不会被整表计算阻塞。
+ * 表占用 O(n²) 空间，适用于景点级别的图：景点数超过 {@link Constants#ALL_PAIRS_MAX_SPOTS} 时不分配表，
+ * 查询同样改为双向搜索，批量求距离请改用 {@link DistanceMatrix}。
+ * 整表计算耗时较长，不要在界面线程上构造。
+ */
+public class AllPairsTable implements EdgeChangeListener {
+    // 后台重建线程，所有实例共享
+    private static final ExecutorService REBUILD_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "all-pairs-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScenicGraph graph;                       // 景区图
+    private final ToDoubleFunction<Edge> weightFunction;   // 权重计算函数
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private CompactGraph snapshot;                         // 最新的紧凑快照
+    private Rows rows;                                     // 整张表，未分配或等待后台重建时为null
+
+    /**
+     * 与某一结构对应的整张表
+     */
+    private final class Rows {
+        final int n;                                   // 顶点数量
+        final double[] distance;                       // [s*n+t] -> 最短距离
+        final int[] predecessor;                       // [s*n+t] -> t 在以 s 为根的最短路径树中的前驱
+        final int[] nextHop;                           // [s*n+t] -> 从 s 出发前往 t 的第一跳
+        final BitSet staleRows = new BitSet();         // 需要重算的行
+        CompactGraph snapshot;                         // 重算过期行所用的快照，与表的结构相同
+
+        Rows(CompactGraph snapshot) {
+            this.snapshot = snapshot;
+            this.n = snapshot.getVertexCount();
+            this.distance = new double[n * n];
+            this.predecessor = new int[n * n];
+            this.nextHop = new int[n * n];
+        }
+
+        /**
+         * 计算以 source 为起点的一行，不同行写入互不重叠的数组区间，可并行执行
+         */
+        void computeRow(int source) {
+            DijkstraEngine engine = DijkstraEngine.local();
+            engine.run(snapshot, source, weightFunction);
+
+            int row = source * n;
+            Arrays.fill(distance, row, row + n, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecessor, row, row + n, -1);
+            Arrays.fill(nextHop, row, row + n, -1);
+
+            // 按确定顺序处理，保证前驱的下一跳先于自身求出
+            for (int i = 0; i < engine.getSettledCount(); i++) {
+                int v = engine.settledVertex(i);
+                int pred = engine.predecessor(v);
+                distance[row + v] = engine.distance(v);
+                predecessor[row + v] = pred;
+                if (v == source) {
+                    nextHop[row + v] = v;
+                } else {
+                    nextHop[row + v] = pred == source ? v : nextHop[row + pred];
+                }
+            }
+        }
+
+        /**
+         * 确保指定行是最新的
+         */
+        void ensureFresh(int row) {
+            if (staleRows.get(row)) {
+                computeRow(row);
+                staleRows.clear(row);
+            }
+        }
+    }
+
+    /**
+     * 构造函数，立即计算整张表并开始监听边状态变化
+     * @param graph 景区图
+     * @param weightFunction 权重计算函数
+     */
+    public AllPairsTable(ScenicGraph graph, ToDoubleFunction<Edge> weightFunction) {
+        this.graph = graph;
+        this.weightFunction = weightFunction;
+        rebuild();
+        graph.addEdgeChangeListener(this);
+    }
+
+    /**
+     * 在调用线程上按图的当前结构重新计算整张表
+     */
+    public synchronized void rebuild() {
+        snapshot = graph.freeze();
+        rows = compute(snapshot);
+    }
+
+    /**
+     * 在快照上并行计算整张表，景点数超过上限时返回null
+     */
+    private Rows compute(CompactGraph target) {
+        if (target.getVertexCount() > Constants.ALL_PAIRS_MAX_SPOTS) {
+            return null;
+        }
+        Rows table = new Rows(target);
+        IntStream.range(0, table.n).parallel().forEach(table::computeRow);
+        return table;
+    }
+
+    /**
+     * 安排后台重建，已安排时不重复提交
+     */
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            REBUILD_EXECUTOR.execute(this::rebuildInBackground);
+        }
+    }
+
+    /**
+     * 后台重建：不持有锁计算整张表，完成后只在结构未再变化时发布；
+     * 结构又变化时监听器已安排了下一次重建，本次结果直接丢弃
+     */
+    private void rebuildInBackground() {
+        rebuildScheduled.set(false);
+        CompactGraph target = graph.freeze();
+        Rows table = compute(target);
+        synchronized (this) {
+            if (!target.sameStructure(snapshot)) {
+                return;
+            }
+            if (table != null && snapshot.getVersion() > target.getVersion()) {
+                // 计算期间边状态又有变化，整表标记过期，在最新快照上按需重算
+                table.snapshot = snapshot;
+                table.staleRows.set(0, table.n);
+            }
+            rows = table;
+        }
+    }
+
+    /**
+     * 是否有可直接查询的整张表
+     * @return 景点数不超过上限且没有等待中的重建时返回true；否则每次查询都要运行一次双向搜索
+     */
+    public synchronized boolean isMaterialized() {
+        return rows != null;
+    }
+
+    /**
+     * 停止监听边状态变化
+     */
+    public void dispose() {
+        graph.removeEdgeChangeListener(this);
+    }
+
+    /**
+     * 立即并行重算所有过期的行
+     */
+    public synchronized void refresh() {
+        if (rows == null) {
+            return;
+        }
+        Rows table = rows;
+        int[] stale = table.staleRows.stream().toArray();
+        IntStream.of(stale).parallel().forEach(table::computeRow);
+        table.staleRows.clear();
+    }
+
+    /**
+     * 边状态变化时只将可能受影响的行标记为过期：
+     * 该边位于行的最短路径树上（权重增加可能使路径变长），
+     * 或经由该边可以得到更短的距离（权重减少）
+     */
+    @Override
+    public synchronized void edgeChanged(Edge edge) {
+        // 过期的行在新版本快照上重算；结构已变化时下标不再对应，整张表作废并在后台重建
+        CompactGraph latest = graph.freeze();
+        boolean sameStructure = latest.sameStructure(snapshot);
+        snapshot = latest;
+        if (!sameStructure) {
+            rows = null;
+            scheduleRebuild();
+            return;
+        }
+        if (rows == null) {
+            return;
+        }
+        rows.snapshot = latest;
+
+        int from = snapshot.indexOf(edge.getFrom().getSpot().getId());
+        int to = snapshot.indexOf(edge.getTo().getSpot().getId());
+        if (from < 0 || to < 0) {
+            return;
+        }
+        int n = rows.n;
+        double newWeight = weightFunction.applyAsDouble(edge);
+        for (int s = 0; s < n; s++) {
+            int row = s * n;
+            if (rows.predecessor[row + to] == from || rows.distance[row + from] + newWeight < rows.distance[row + to]) {
+                rows.staleRows.set(s);
+            }
+        }
+    }
+
+    /**
+     * 获取最新的紧凑快照
+     * @return 紧凑快照
+     */
+    public synchronized CompactGraph getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 获取两个景点间的最短距离
+     * @param fromId 起点景点ID
+     * @param toId 终点景点ID
+     * @return 最短距离，不可达或景点不存在时为正无穷
+     */
+    public synchronized double distance(int fromId, int toId) {
+        int from = snapshot.indexOf(fromId);
+        int to = snapshot.indexOf(toId);
+        if (from < 0 || to < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (rows == null) {
+            return search(from, to).getDistance();
+        }
+        rows.ensureFresh(from);
+        return rows.distance[from * rows.n + to];
+    }
+
+    /**
+     * 获取从起点前往终点的第一跳景点
+     * @param fromId 起点景点ID
+     * @param toId 终点景点ID
+     * @return 第一跳景点，不可达时返回null；起点与终点相同时返回起点
+     */
+    public synchronized ScenicSpot nextHop(int fromId, int toId) {
+        int from = snapshot.indexOf(fromId);
+        int to = snapshot.indexOf(toId);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        if (rows == null) {
+            List<ScenicSpot> path = search(from, to).getPath();
+            return path.isEmpty() ? null : path.get(Math.min(1, path.size() - 1));
+        }
+        rows.ensureFresh(from);
+        int hop = rows.nextHop[from * rows.n + to];
+        return hop < 0 ? null : snapshot.spotOf(hop);
+    }
+
+    /**
+     * 获取两个景点间的最短路径
+     * @param fromId 起点景点ID
+     * @param toId 终点景点ID
+     * @return 路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public synchronized List<ScenicSpot> path(int fromId, int toId) {
+        int from = snapshot.indexOf(fromId);
+        int to = snapshot.indexOf(toId);
+        if (from < 0 || to < 0) {
+            return Collections.emptyList();
+        }
+        if (rows == null) {
+            return search(from, to).getPath();
+        }
+        rows.ensureFresh(from);
+        int row = from * rows.n;
+        if (Double.isInfinite(rows.distance[row + to])) {
+            return Collections.emptyList();
+        }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = to; at >= 0; at = rows.predecessor[row + at]) {
+            path.add(snapshot.spotOf(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * 没有整张表时在最新快照上运行一次双向搜索，两侧搜索证明最优后停止
+     */
+    private BidirectionalDijkstra search(int from, int to) {
+        BidirectionalDijkstra search = BidirectionalDijkstra.local();
+        search.run(snapshot, from, to, weightFunction);
+        return search;
+    }
+}
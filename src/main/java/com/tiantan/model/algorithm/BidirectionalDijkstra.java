@@ -0,0 +1,218 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 双向Dijkstra算法 - 用于点到点最短路径查询
+ * 正向搜索沿出边从起点扩展，反向搜索沿入边从终点扩展，
+ * 当两侧堆顶距离之和不小于已发现的最短路径长度时即可证明最优并停止。
+ * 暂存数组按线程复用，实例不是线程安全的，请通过 {@link #local()} 获取。
+ */
+public class BidirectionalDijkstra {
+    private static final ThreadLocal<BidirectionalDijkstra> LOCAL =
+            ThreadLocal.withInitial(BidirectionalDijkstra::new);
+
+    private CompactGraph graph;          // 最近一次计算所用的图
+    private double[] forwardDistance;    // 正向搜索距离
+    private double[] backwardDistance;   // 反向搜索距离
+    private int[] forwardPredecessor;    // 正向最短路径树中的前驱
+    private int[] backwardSuccessor;     // 反向最短路径树中的后继
+    private int[] forwardStamp;          // 正向搜索触及轮次
+    private int[] backwardStamp;         // 反向搜索触及轮次
+    private int epoch;                   // 当前轮次
+    private final IndexedMinHeap forwardHeap;
+    private final IndexedMinHeap backwardHeap;
+    private int meetingVertex = -1;      // 最短路径上正向一侧的相遇顶点
+    private int meetingSuccessor = -1;   // 最短路径上相遇顶点的下一个顶点（反向一侧）
+    private double bestDistance;         // 当前已知最短路径长度
+
+    /**
+     * 构造函数
+     */
+    public BidirectionalDijkstra() {
+        forwardDistance = new double[0];
+        backwardDistance = new double[0];
+        forwardPredecessor = new int[0];
+        backwardSuccessor = new int[0];
+        forwardStamp = new int[0];
+        backwardStamp = new int[0];
+        forwardHeap = new IndexedMinHeap(0);
+        backwardHeap = new IndexedMinHeap(0);
+    }
+
+    /**
+     * 获取当前线程专属的实例
+     * @return 实例
+     */
+    public static BidirectionalDijkstra local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 计算从起点到终点的最短路径长度
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标
+     * @param weightFunction 权重计算函数
+     * @return 最短路径长度，不可达时为正无穷
+     */
+    public double run(CompactGraph graph, int source, int target, ToDoubleFunction<Edge> weightFunction) {
+        prepare(graph);
+
+        forwardStamp[source] = epoch;
+        forwardDistance[source] = 0.0;
+        forwardPredecessor[source] = -1;
+        forwardHeap.offer(source, 0.0);
+        backwardStamp[target] = epoch;
+        backwardDistance[target] = 0.0;
+        backwardSuccessor[target] = -1;
+        backwardHeap.offer(target, 0.0);
+
+        if (source == target) {
+            bestDistance = 0.0;
+            meetingVertex = source;
+            meetingSuccessor = -1;
+        }
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            // 两侧堆顶之和不小于当前最优值时，不存在更短的路径
+            if (forwardHeap.peekKey() + backwardHeap.peekKey() >= bestDistance) {
+                break;
+            }
+            // 优先扩展规模较小的一侧
+            if (forwardHeap.size() <= backwardHeap.size()) {
+                expandForward(weightFunction);
+            } else {
+                expandBackward(weightFunction);
+            }
+        }
+
+        forwardHeap.clear();
+        backwardHeap.clear();
+        return bestDistance;
+    }
+
+    /**
+     * 扩展正向搜索的一个顶点
+     */
+    private void expandForward(ToDoubleFunction<Edge> weightFunction) {
+        int current = forwardHeap.poll();
+        double currentDistance = forwardDistance[current];
+        for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+            int neighbor = graph.target(e);
+            double newDistance = currentDistance + weightFunction.applyAsDouble(graph.edge(e));
+            if (backwardStamp[neighbor] == epoch) {
+                updateBest(newDistance + backwardDistance[neighbor], current, neighbor);
+            }
+            if (forwardStamp[neighbor] != epoch) {
+                forwardStamp[neighbor] = epoch;
+            } else if (newDistance >= forwardDistance[neighbor]) {
+                continue;
+            }
+            forwardDistance[neighbor] = newDistance;
+            forwardPredecessor[neighbor] = current;
+            forwardHeap.offer(neighbor, newDistance);
+        }
+    }
+
+    /**
+     * 扩展反向搜索的一个顶点
+     */
+    private void expandBackward(ToDoubleFunction<Edge> weightFunction) {
+        int current = backwardHeap.poll();
+        double currentDistance = backwardDistance[current];
+        for (int r = graph.reverseEdgeStart(current); r < graph.reverseEdgeEnd(current); r++) {
+            int e = graph.reverseSlot(r);
+            int neighbor = graph.source(e);
+            double newDistance = currentDistance + weightFunction.applyAsDouble(graph.edge(e));
+            if (forwardStamp[neighbor] == epoch) {
+                updateBest(newDistance + forwardDistance[neighbor], neighbor, current);
+            }
+            if (backwardStamp[neighbor] != epoch) {
+                backwardStamp[neighbor] = epoch;
+            } else if (newDistance >= backwardDistance[neighbor]) {
+                continue;
+            }
+            backwardDistance[neighbor] = newDistance;
+            backwardSuccessor[neighbor] = current;
+            backwardHeap.offer(neighbor, newDistance);
+        }
+    }
+
+    /**
+     * 通过连接两侧搜索树的边 (from, to) 更新最优值
+     * 路径由 from 的正向前驱链、该边以及 to 的反向后继链拼接而成；
+     * 之后两侧树只会缩短这两段链，因此重建出的路径长度不会超过记录的最优值
+     */
+    private void updateBest(double candidate, int from, int to) {
+        if (candidate < bestDistance) {
+            bestDistance = candidate;
+            meetingVertex = from;
+            meetingSuccessor = to;
+        }
+    }
+
+    /**
+     * 重置暂存数组
+     */
+    private void prepare(CompactGraph graph) {
+        int n = graph.getVertexCount();
+        if (forwardDistance.length < n) {
+            forwardDistance = new double[n];
+            backwardDistance = new double[n];
+            forwardPredecessor = new int[n];
+            backwardSuccessor = new int[n];
+            forwardStamp = new int[n];
+            backwardStamp = new int[n];
+            epoch = 0;
+        }
+        forwardHeap.ensureCapacity(n);
+        backwardHeap.ensureCapacity(n);
+        forwardHeap.clear();
+        backwardHeap.clear();
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(forwardStamp, 0);
+            Arrays.fill(backwardStamp, 0);
+            epoch = 1;
+        }
+        this.graph = graph;
+        this.bestDistance = Double.POSITIVE_INFINITY;
+        this.meetingVertex = -1;
+        this.meetingSuccessor = -1;
+    }
+
+    /**
+     * 获取最近一次计算得到的最短路径长度
+     * @return 路径长度，不可达时为正无穷
+     */
+    public double getDistance() {
+        return bestDistance;
+    }
+
+    /**
+     * 获取最近一次计算得到的最短路径
+     * @return 路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public List<ScenicSpot> getPath() {
+        if (meetingVertex < 0) {
+            return Collections.emptyList();
+        }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = meetingVertex; at >= 0; at = forwardPredecessor[at]) {
+            path.add(graph.spotOf(at));
+        }
+        Collections.reverse(path);
+        for (int at = meetingSuccessor; at >= 0; at = backwardSuccessor[at]) {
+            path.add(graph.spotOf(at));
+        }
+        return path;
+    }
+}
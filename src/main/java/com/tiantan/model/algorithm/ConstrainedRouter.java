@@ -0,0 +1,134 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 带约束的最短路径计算
+ * 在搜索过程中施加 {@link RouteConstraints}：不允许的路径类型通过快照的过滤视图排除，
+ * 无障碍设施缺失的景点作为不可途经的顶点，软约束折算进预先计算的边权重。
+ * 因此得到的路径本身就满足约束，而不是先求路径再删去不合要求的景点。
+ * 创建时按当前边状态计算一次权重，之后的查询只读，可以被多个线程同时使用。
+ */
+public class ConstrainedRouter {
+    private final CompactGraph graph;    // 按路径类型过滤后的视图
+    private final double[] weights;      // 视图边槽位 -> 含惩罚的权重
+    private final BitSet noTransit;      // 不可途经的顶点，无此约束时为null
+
+    /**
+     * 构造函数
+     * @param graph 紧凑图快照，过滤视图会缓存在快照上供后续复用
+     * @param weightFunction 基础权重计算函数
+     * @param constraints 约束条件
+     */
+    public ConstrainedRouter(CompactGraph graph, ToDoubleFunction<Edge> weightFunction, RouteConstraints constraints) {
+        this.graph = graph.restrictTo(constraints.getAllowedTypeMask());
+
+        int n = this.graph.getVertexCount();
+        boolean[] inaccessible = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            inaccessible[v] = !this.graph.spotOf(v).isAccessible();
+        }
+
+        int m = this.graph.getEdgeCount();
+        this.weights = new double[m];
+        double spotPenalty = constraints.getInaccessibleSpotPenalty();
+        for (int e = 0; e < m; e++) {
+            double weight = weightFunction.applyAsDouble(this.graph.edge(e))
+                    * constraints.getTypeFactor(this.graph.edgeType(e));
+            if (inaccessible[this.graph.target(e)]) {
+                weight += spotPenalty;
+            }
+            weights[e] = weight;
+        }
+
+        if (constraints.isAccessibleSpotsOnly()) {
+            noTransit = new BitSet(n);
+            for (int v = 0; v < n; v++) {
+                if (inaccessible[v]) {
+                    noTransit.set(v);
+                }
+            }
+        } else {
+            noTransit = null;
+        }
+    }
+
+    /**
+     * 计算满足约束的最短距离
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return 含软约束惩罚的最短代价，不可达或景点不存在时为正无穷
+     */
+    public double distance(int sourceId, int targetId) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.run(graph, source, target, weights, noTransit);
+        return engine.distance(target);
+    }
+
+    /**
+     * 计算满足约束的最短路径
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return 路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public List<ScenicSpot> shortestPath(int sourceId, int targetId) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.run(graph, source, target, weights, noTransit);
+        if (!engine.isReached(target)) {
+            return Collections.emptyList();
+        }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = target; at >= 0; at = engine.predecessor(at)) {
+            path.add(graph.spotOf(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * 并行计算一组景点两两之间满足约束的最短距离
+     * @param spotIds 景点ID
+     * @return 行优先的 k×k 距离矩阵，不可达或景点不存在时为正无穷
+     */
+    public double[] distanceMatrix(int[] spotIds) {
+        int k = spotIds.length;
+        int[] index = new int[k];
+        for (int i = 0; i < k; i++) {
+            index[i] = graph.indexOf(spotIds[i]);
+        }
+        double[] matrix = new double[k * k];
+        IntStream.range(0, k).parallel().forEach(i -> {
+            if (index[i] < 0) {
+                Arrays.fill(matrix, i * k, (i + 1) * k, Double.POSITIVE_INFINITY);
+                matrix[i * k + i] = 0.0;
+                return;
+            }
+            DijkstraEngine engine = DijkstraEngine.local();
+            engine.run(graph, index[i], -1, weights, noTransit);
+            for (int j = 0; j < k; j++) {
+                matrix[i * k + j] = index[j] < 0 ? Double.POSITIVE_INFINITY : engine.distance(index[j]);
+            }
+        });
+        return matrix;
+    }
+}
@@ -0,0 +1,685 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.util.IntList;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 收缩层次(Contraction Hierarchies)预处理与查询
+ * 预处理按边差(edge difference)启发式依次收缩顶点，并通过有限的见证搜索(witness search)
+ * 判断是否需要添加捷径边；查询时只沿"向上"的边做双向搜索，
+ * 搜索空间通常只有几百个顶点，再把捷径递归展开为原图中的景点序列。
+ * 层次结构基于构建时的权重，权重变化后需要重新构建；可序列化以避免启动时重复预处理，
+ * 文件中记录构建时景点、边和权重的指纹，加载时按当前图和权重函数重新计算并核对，不一致时拒绝加载。
+ */
+public class ContractionHierarchy {
+    private static final int FILE_MAGIC = 0x54544348;    // 文件标识 "TTCH"
+    private static final int FILE_VERSION = 2;           // 文件格式版本
+    private static final int WITNESS_SETTLE_LIMIT = 500; // 见证搜索最多确定的顶点数
+
+    private final CompactGraph graph;    // 原图快照
+    private final long fingerprint;      // 构建时景点、边和权重的指纹
+    private final int n;                 // 顶点数量
+    private final int[] rank;            // 顶点下标 -> 收缩次序
+    private final int arcCount;          // 弧数量（原始边与捷径）
+    private final int[] arcFrom;         // 弧起点
+    private final int[] arcTo;           // 弧终点
+    private final double[] arcWeight;    // 弧权重
+    private final int[] arcFirst;        // 捷径的前半段弧，原始边为-1
+    private final int[] arcSecond;       // 捷径的后半段弧，原始边为-1
+    private final int[] upOffsets;       // 向上弧：按起点分组，终点次序更高
+    private final int[] upArcs;
+    private final int[] downOffsets;     // 向下弧：按终点分组，起点次序更高，供反向搜索使用
+    private final int[] downArcs;
+    private final ThreadLocal<QueryState> queryState;
+
+    private ContractionHierarchy(CompactGraph graph, long fingerprint, int[] rank, int arcCount, int[] arcFrom,
+                                 int[] arcTo, double[] arcWeight, int[] arcFirst, int[] arcSecond) {
+        this.graph = graph;
+        this.fingerprint = fingerprint;
+        this.n = graph.getVertexCount();
+        this.rank = rank;
+        this.arcCount = arcCount;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcWeight = arcWeight;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+
+        // 按次序把弧划分为向上弧和向下弧，分别构建CSR
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upOffsets[arcFrom[a] + 1]++;
+            } else {
+                downOffsets[arcTo[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upArcs = new int[upOffsets[n]];
+        this.downArcs = new int[downOffsets[n]];
+        int[] upFill = Arrays.copyOf(upOffsets, n);
+        int[] downFill = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upArcs[upFill[arcFrom[a]]++] = a;
+            } else {
+                downArcs[downFill[arcTo[a]]++] = a;
+            }
+        }
+        this.queryState = ThreadLocal.withInitial(() -> new QueryState(n));
+    }
+
+    /**
+     * 构建收缩层次
+     * @param graph 紧凑图快照
+     * @param weightFunction 权重计算函数
+     * @return 收缩层次
+     */
+    public static ContractionHierarchy build(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
+        return new Builder(graph, weightFunction).build();
+    }
+
+    /**
+     * 基于景区图的当前状态构建收缩层次
+     * @param graph 景区图
+     * @param weightFunction 权重计算函数
+     * @return 收缩层次
+     */
+    public static ContractionHierarchy build(ScenicGraph graph, Function<Edge, Double> weightFunction) {
+        return build(graph.freeze(), weightFunction::apply);
+    }
+
+    /**
+     * 获取构建所用的图快照
+     * @return 紧凑图快照
+     */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 计算景点、边结构和各边权重的指纹，两者相同时可以复用同一个收缩层次
+     * @param graph 紧凑图快照
+     * @param weightFunction 权重计算函数
+     * @return 指纹
+     */
+    public static long fingerprint(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
+        long hash = mix(graph.getVertexCount());
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            hash = mix(hash + graph.idOf(v));
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                hash = mix(hash + graph.target(e));
+                hash = mix(hash + Double.doubleToLongBits(weightFunction.applyAsDouble(graph.edge(e))));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 是否仍与图的当前状态一致，即景点、边结构和各边权重都与构建时相同
+     * @param graph 紧凑图快照
+     * @param weightFunction 构建时使用的权重计算函数
+     * @return 一致时返回true
+     */
+    public boolean matches(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
+        return fingerprint == fingerprint(graph, weightFunction);
+    }
+
+    /**
+     * SplitMix64的终结函数
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 获取弧数量（含捷径）
+     * @return 弧数量
+     */
+    public int getArcCount() {
+        return arcCount;
+    }
+
+    // 以下访问器供同一包内的批量查询(如 DistanceMatrix)直接遍历层次结构
+
+    int rank(int vertex) {
+        return rank[vertex];
+    }
+
+    int upStart(int vertex) {
+        return upOffsets[vertex];
+    }
+
+    int upEnd(int vertex) {
+        return upOffsets[vertex + 1];
+    }
+
+    int upArc(int position) {
+        return upArcs[position];
+    }
+
+    int downStart(int vertex) {
+        return downOffsets[vertex];
+    }
+
+    int downEnd(int vertex) {
+        return downOffsets[vertex + 1];
+    }
+
+    int downArc(int position) {
+        return downArcs[position];
+    }
+
+    int arcFrom(int arc) {
+        return arcFrom[arc];
+    }
+
+    int arcTo(int arc) {
+        return arcTo[arc];
+    }
+
+    double arcWeight(int arc) {
+        return arcWeight[arc];
+    }
+
+    /**
+     * 查询两个景点间的最短距离
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return 最短距离，不可达或景点不存在时为正无穷
+     */
+    public double distance(int sourceId, int targetId) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return queryState.get().run(source, target);
+    }
+
+    /**
+     * 查询两个景点间的最短路径
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return 路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public List<ScenicSpot> shortestPath(int sourceId, int targetId) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        QueryState state = queryState.get();
+        if (Double.isInfinite(state.run(source, target))) {
+            return Collections.emptyList();
+        }
+
+        // 收集起点到相遇点、相遇点到终点的弧
+        IntList arcs = new IntList();
+        for (int v = state.meeting; v != source; v = arcFrom[state.forwardArc[v]]) {
+            arcs.add(state.forwardArc[v]);
+        }
+        for (int i = 0, j = arcs.size() - 1; i < j; i++, j--) {
+            int tmp = arcs.get(i);
+            arcs.set(i, arcs.get(j));
+            arcs.set(j, tmp);
+        }
+        for (int v = state.meeting; v != target; v = arcTo[state.backwardArc[v]]) {
+            arcs.add(state.backwardArc[v]);
+        }
+
+        // 展开捷径
+        List<ScenicSpot> path = new ArrayList<>();
+        path.add(graph.spotOf(source));
+        IntList stack = new IntList();
+        for (int i = 0; i < arcs.size(); i++) {
+            stack.push(arcs.get(i));
+            while (!stack.isEmpty()) {
+                int a = stack.pop();
+                if (arcFirst[a] < 0) {
+                    path.add(graph.spotOf(arcTo[a]));
+                } else {
+                    stack.push(arcSecond[a]);
+                    stack.push(arcFirst[a]);
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 每个线程独立的查询暂存
+     */
+    private final class QueryState {
+        private final double[] forwardDistance;
+        private final double[] backwardDistance;
+        private final int[] forwardArc;      // 正向搜索中到达顶点的弧
+        private final int[] backwardArc;     // 反向搜索中离开顶点的弧
+        private final int[] forwardStamp;
+        private final int[] backwardStamp;
+        private final IndexedMinHeap forwardHeap;
+        private final IndexedMinHeap backwardHeap;
+        private int epoch;
+        private int meeting;
+
+        QueryState(int n) {
+            forwardDistance = new double[n];
+            backwardDistance = new double[n];
+            forwardArc = new int[n];
+            backwardArc = new int[n];
+            forwardStamp = new int[n];
+            backwardStamp = new int[n];
+            forwardHeap = new IndexedMinHeap(n);
+            backwardHeap = new IndexedMinHeap(n);
+        }
+
+        /**
+         * 双向向上搜索，任一侧堆顶不小于当前最优值时该侧停止
+         */
+        double run(int source, int target) {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(forwardStamp, 0);
+                Arrays.fill(backwardStamp, 0);
+                epoch = 1;
+            }
+            double best = Double.POSITIVE_INFINITY;
+            meeting = -1;
+
+            forwardStamp[source] = epoch;
+            forwardDistance[source] = 0.0;
+            forwardArc[source] = -1;
+            forwardHeap.offer(source, 0.0);
+            backwardStamp[target] = epoch;
+            backwardDistance[target] = 0.0;
+            backwardArc[target] = -1;
+            backwardHeap.offer(target, 0.0);
+
+            while (true) {
+                boolean forwardActive = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+                boolean backwardActive = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+                if (!forwardActive && !backwardActive) {
+                    break;
+                }
+                if (forwardActive && (!backwardActive || forwardHeap.size() <= backwardHeap.size())) {
+                    int u = forwardHeap.poll();
+                    double du = forwardDistance[u];
+                    if (backwardStamp[u] == epoch && du + backwardDistance[u] < best) {
+                        best = du + backwardDistance[u];
+                        meeting = u;
+                    }
+                    for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                        int a = upArcs[i];
+                        int x = arcTo[a];
+                        double dx = du + arcWeight[a];
+                        if (forwardStamp[x] != epoch || dx < forwardDistance[x]) {
+                            forwardStamp[x] = epoch;
+                            forwardDistance[x] = dx;
+                            forwardArc[x] = a;
+                            forwardHeap.offer(x, dx);
+                        }
+                    }
+                } else {
+                    int u = backwardHeap.poll();
+                    double du = backwardDistance[u];
+                    if (forwardStamp[u] == epoch && du + forwardDistance[u] < best) {
+                        best = du + forwardDistance[u];
+                        meeting = u;
+                    }
+                    for (int i = downOffsets[u]; i < downOffsets[u + 1]; i++) {
+                        int a = downArcs[i];
+                        int x = arcFrom[a];
+                        double dx = du + arcWeight[a];
+                        if (backwardStamp[x] != epoch || dx < backwardDistance[x]) {
+                            backwardStamp[x] = epoch;
+                            backwardDistance[x] = dx;
+                            backwardArc[x] = a;
+                            backwardHeap.offer(x, dx);
+                        }
+                    }
+                }
+            }
+
+            forwardHeap.clear();
+            backwardHeap.clear();
+            return best;
+        }
+    }
+
+    /**
+     * 将收缩层次写入输出流
+     * @param out 输出流
+     * @throws IOException 写入失败时抛出
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeLong(fingerprint);
+        out.writeInt(n);
+        for (int v = 0; v < n; v++) {
+            out.writeInt(graph.idOf(v));
+            out.writeInt(rank[v]);
+        }
+        out.writeInt(arcCount);
+        for (int a = 0; a < arcCount; a++) {
+            out.writeInt(arcFrom[a]);
+            out.writeInt(arcTo[a]);
+            out.writeDouble(arcWeight[a]);
+            out.writeInt(arcFirst[a]);
+            out.writeInt(arcSecond[a]);
+        }
+    }
+
+    /**
+     * 从输入流读取收缩层次
+     * @param in 输入流
+     * @param graph 与构建时结构相同的紧凑图快照
+     * @param weightFunction 构建时使用的权重计算函数
+     * @return 收缩层次
+     * @throws IOException 读取失败，或数据与当前的图、权重不匹配时抛出
+     */
+    public static ContractionHierarchy readFrom(DataInput in, CompactGraph graph,
+                                                ToDoubleFunction<Edge> weightFunction) throws IOException {
+        if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+            throw new IOException("收缩层次文件格式不正确");
+        }
+        long fingerprint = in.readLong();
+        if (fingerprint != fingerprint(graph, weightFunction)) {
+            throw new IOException("收缩层次与景区图的边或权重不一致，需要重新构建");
+        }
+        int n = in.readInt();
+        if (n != graph.getVertexCount()) {
+            throw new IOException("收缩层次与景区图的顶点数量不一致");
+        }
+        int[] rank = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (in.readInt() != graph.idOf(v)) {
+                throw new IOException("收缩层次与景区图的景点不一致");
+            }
+            rank[v] = in.readInt();
+        }
+        int arcCount = in.readInt();
+        int[] arcFrom = new int[arcCount];
+        int[] arcTo = new int[arcCount];
+        double[] arcWeight = new double[arcCount];
+        int[] arcFirst = new int[arcCount];
+        int[] arcSecond = new int[arcCount];
+        for (int a = 0; a < arcCount; a++) {
+            arcFrom[a] = in.readInt();
+            arcTo[a] = in.readInt();
+            arcWeight[a] = in.readDouble();
+            arcFirst[a] = in.readInt();
+            arcSecond[a] = in.readInt();
+        }
+        return new ContractionHierarchy(graph, fingerprint, rank, arcCount, arcFrom, arcTo,
+                arcWeight, arcFirst, arcSecond);
+    }
+
+    /**
+     * 收缩层次构建器
+     */
+    private static final class Builder {
+        private final CompactGraph graph;
+        private final long fingerprint;
+        private final int n;
+
+        // 全部弧（只增不减）
+        private int arcCount;
+        private int[] arcFrom;
+        private int[] arcTo;
+        private double[] arcWeight;
+        private int[] arcFirst;
+        private int[] arcSecond;
+
+        // 尚未收缩部分的叠加图
+        private final IntList[] outArcs;
+        private final IntList[] inArcs;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] rank;
+
+        // 见证搜索暂存
+        private final double[] witnessDistance;
+        private final int[] witnessStamp;
+        private int witnessEpoch;
+        private final IndexedMinHeap witnessHeap;
+
+        Builder(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
+            this.graph = graph;
+            this.fingerprint = fingerprint(graph, weightFunction);
+            this.n = graph.getVertexCount();
+            int capacity = Math.max(16, graph.getEdgeCount() * 2);
+            arcFrom = new int[capacity];
+            arcTo = new int[capacity];
+            arcWeight = new double[capacity];
+            arcFirst = new int[capacity];
+            arcSecond = new int[capacity];
+            outArcs = new IntList[n];
+            inArcs = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                outArcs[v] = new IntList();
+                inArcs[v] = new IntList();
+            }
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            rank = new int[n];
+            witnessDistance = new double[n];
+            witnessStamp = new int[n];
+            witnessHeap = new IndexedMinHeap(n);
+
+            // 原始边，平行边只保留权重最小的一条，忽略自环
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                int u = graph.source(e);
+                int v = graph.target(e);
+                if (u != v) {
+                    addOrImproveArc(u, v, weightFunction.applyAsDouble(graph.edge(e)), -1, -1);
+                }
+            }
+        }
+
+        ContractionHierarchy build() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.offer(v, priority(v));
+            }
+
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // 惰性更新：优先级变差且不再最小时重新入队
+                double current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.offer(v, current);
+                    continue;
+                }
+
+                contract(v, true);
+                contracted[v] = true;
+                rank[v] = order++;
+                detach(v, queue);
+            }
+
+            return new ContractionHierarchy(graph, fingerprint, rank, arcCount, arcFrom, arcTo,
+                    arcWeight, arcFirst, arcSecond);
+        }
+
+        /**
+         * 顶点优先级：边差 + 已收缩邻居数
+         */
+        private double priority(int v) {
+            int shortcuts = contract(v, false);
+            return shortcuts - outArcs[v].size() - inArcs[v].size() + contractedNeighbors[v];
+        }
+
+        /**
+         * 模拟或执行顶点收缩
+         * @return 需要添加的捷径数量
+         */
+        private int contract(int v, boolean apply) {
+            int shortcuts = 0;
+            IntList in = inArcs[v];
+            IntList out = outArcs[v];
+            for (int i = 0; i < in.size(); i++) {
+                int inArc = in.get(i);
+                int u = arcFrom[inArc];
+                double maxOut = 0.0;
+                for (int j = 0; j < out.size(); j++) {
+                    int outArc = out.get(j);
+                    if (arcTo[outArc] != u) {
+                        maxOut = Math.max(maxOut, arcWeight[outArc]);
+                    }
+                }
+                witnessSearch(u, v, arcWeight[inArc] + maxOut);
+
+                for (int j = 0; j < out.size(); j++) {
+                    int outArc = out.get(j);
+                    int x = arcTo[outArc];
+                    if (x == u) {
+                        continue;
+                    }
+                    double via = arcWeight[inArc] + arcWeight[outArc];
+                    if (witnessStamp[x] != witnessEpoch || witnessDistance[x] > via) {
+                        shortcuts++;
+                        if (apply) {
+                            addOrImproveArc(u, x, via, inArc, outArc);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * 从 source 出发、不经过 excluded 的有限Dijkstra搜索
+         */
+        private void witnessSearch(int source, int excluded, double maxDistance) {
+            if (++witnessEpoch == Integer.MAX_VALUE) {
+                Arrays.fill(witnessStamp, 0);
+                witnessEpoch = 1;
+            }
+            witnessHeap.clear();
+            witnessStamp[source] = witnessEpoch;
+            witnessDistance[source] = 0.0;
+            witnessHeap.offer(source, 0.0);
+
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (witnessHeap.peekKey() > maxDistance) {
+                    break;
+                }
+                int u = witnessHeap.poll();
+                settled++;
+                IntList out = outArcs[u];
+                for (int i = 0; i < out.size(); i++) {
+                    int a = out.get(i);
+                    int x = arcTo[a];
+                    if (x == excluded) {
+                        continue;
+                    }
+                    double dx = witnessDistance[u] + arcWeight[a];
+                    if (witnessStamp[x] != witnessEpoch || dx < witnessDistance[x]) {
+                        witnessStamp[x] = witnessEpoch;
+                        witnessDistance[x] = dx;
+                        witnessHeap.offer(x, dx);
+                    }
+                }
+            }
+            witnessHeap.clear();
+        }
+
+        /**
+         * 从叠加图中移除已收缩顶点的弧，并更新邻居的优先级
+         */
+        private void detach(int v, IndexedMinHeap queue) {
+            IntList in = inArcs[v];
+            for (int i = 0; i < in.size(); i++) {
+                int u = arcFrom[in.get(i)];
+                removeArc(outArcs[u], in.get(i));
+                contractedNeighbors[u]++;
+            }
+            IntList out = outArcs[v];
+            for (int i = 0; i < out.size(); i++) {
+                int x = arcTo[out.get(i)];
+                removeArc(inArcs[x], out.get(i));
+                contractedNeighbors[x]++;
+            }
+            for (int i = 0; i < in.size(); i++) {
+                int u = arcFrom[in.get(i)];
+                if (queue.contains(u)) {
+                    queue.update(u, priority(u));
+                }
+            }
+            for (int i = 0; i < out.size(); i++) {
+                int x = arcTo[out.get(i)];
+                if (queue.contains(x)) {
+                    queue.update(x, priority(x));
+                }
+            }
+            in.clear();
+            out.clear();
+        }
+
+        private void removeArc(IntList list, int arc) {
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == arc) {
+                    list.swapRemove(i);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 添加弧；叠加图中已有同向弧时只在新权重更小时替换
+         */
+        private void addOrImproveArc(int from, int to, double weight, int first, int second) {
+            IntList out = outArcs[from];
+            for (int i = 0; i < out.size(); i++) {
+                int a = out.get(i);
+                if (arcTo[a] == to) {
+                    if (weight < arcWeight[a]) {
+                        arcWeight[a] = weight;
+                        arcFirst[a] = first;
+                        arcSecond[a] = second;
+                    }
+                    return;
+                }
+            }
+
+            if (arcCount == arcFrom.length) {
+                int capacity = arcCount * 2;
+                arcFrom = Arrays.copyOf(arcFrom, capacity);
+                arcTo = Arrays.copyOf(arcTo, capacity);
+                arcWeight = Arrays.copyOf(arcWeight, capacity);
+                arcFirst = Arrays.copyOf(arcFirst, capacity);
+                arcSecond = Arrays.copyOf(arcSecond, capacity);
+            }
+            int a = arcCount++;
+            arcFrom[a] = from;
+            arcTo[a] = to;
+            arcWeight[a] = weight;
+            arcFirst[a] = first;
+            arcSecond[a] = second;
+            out.add(a);
+            inArcs[to].add(a);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.TimeDependentWeight;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 可复用的Dijkstra计算引擎
+ * 基于紧凑图快照的稠密顶点下标，使用索引四叉堆实现降键操作；
+ * 距离、前驱等暂存数组按线程复用，并通过轮次标记(epoch)实现 O(1) 重置，
+ * 因此在容量稳定后每次查询都不会产生对象分配。
+ * 引擎实例不是线程安全的，请通过 {@link #local()} 获取当前线程专属的实例。
+ */
+public class DijkstraEngine {
+    private static final ThreadLocal<DijkstraEngine> LOCAL = ThreadLocal.withInitial(DijkstraEngine::new);
+
+    private CompactGraph graph;       // 最近一次计算所用的图
+    private double[] distance;        // 顶点下标 -> 最短距离
+    private int[] predecessor;        // 顶点下标 -> 前驱顶点下标
+    private int[] predecessorEdge;    // 顶点下标 -> 到达该顶点的边槽位
+    private int[] stamp;              // 顶点下标 -> 最后一次被触及的轮次
+    private int[] closed;             // 顶点下标 -> 最后一次被确定的轮次（A*）
+    private double[] estimate;        // 顶点下标 -> 到终点的启发值，首次触及时计算（A*）
+    private int[] settledOrder;       // 按确定顺序记录的顶点下标
+    private int settledCount;         // 已确定最短距离的顶点数量
+    private int epoch;                // 当前轮次
+    private int source = -1;          // 最近一次计算的起点下标
+    private final IndexedMinHeap heap;
+
+    /**
+     * 构造函数
+     */
+    public DijkstraEngine() {
+        distance = new double[0];
+        predecessor = new int[0];
+        predecessorEdge = new int[0];
+        stamp = new int[0];
+        closed = new int[0];
+        estimate = new double[0];
+        settledOrder = new int[0];
+        heap = new IndexedMinHeap(0);
+    }
+
+    /**
+     * 获取当前线程专属的引擎实例
+     * @return 引擎实例
+     */
+    public static DijkstraEngine local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 计算从起点到所有顶点的最短路径
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param weightFunction 权重计算函数
+     */
+    public void run(CompactGraph graph, int source, ToDoubleFunction<Edge> weightFunction) {
+        run(graph, source, -1, weightFunction);
+    }
+
+    /**
+     * 计算从起点出发的最短路径，终点确定后立即停止
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标，为-1时计算到所有顶点
+     * @param weightFunction 权重计算函数
+     */
+    public void run(CompactGraph graph, int source, int target, ToDoubleFunction<Edge> weightFunction) {
+        prepare(graph, source);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settledCount++] = current;
+            if (current == target) {
+                break;
+            }
+
+            double currentDistance = distance[current];
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDistance = currentDistance + weightFunction.applyAsDouble(graph.edge(e));
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (newDistance >= distance[neighbor]) {
+                    // 已确定的顶点距离不会再变小，同样会在这里被跳过
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, newDistance);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * 使用预先计算的边槽位权重计算最短路径，终点确定后立即停止
+     * 适合权重计算代价较高、需要在搜索前一次性算好的场合
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标，为-1时计算到所有顶点
+     * @param weights 边槽位 -> 权重
+     */
+    public void run(CompactGraph graph, int source, int target, double[] weights) {
+        run(graph, source, target, weights, null);
+    }
+
+    /**
+     * 使用预先计算的边槽位权重计算最短路径，并禁止途经指定顶点
+     * 被禁止的顶点仍可作为起点或路径终点，只是不会从它继续向外扩展
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标，为-1时计算到所有顶点
+     * @param weights 边槽位 -> 权重
+     * @param noTransit 不可途经的顶点下标集合，为null时不限制
+     */
+    public void run(CompactGraph graph, int source, int target, double[] weights, BitSet noTransit) {
+        prepare(graph, source);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settledCount++] = current;
+            if (current == target) {
+                break;
+            }
+            if (noTransit != null && current != source && noTransit.get(current)) {
+                continue;
+            }
+
+            double currentDistance = distance[current];
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDistance = currentDistance + weights[e];
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (newDistance >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, newDistance);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * 使用预先计算的边槽位权重计算最短路径，所有目标顶点都确定后立即停止
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param weights 边槽位 -> 权重
+     * @param targets 目标顶点下标集合
+     * @param targetCount 目标顶点数量，即 targets 中置位的个数
+     */
+    public void runToTargets(CompactGraph graph, int source, double[] weights, BitSet targets, int targetCount) {
+        prepare(graph, source);
+
+        int remaining = targetCount;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settledCount++] = current;
+            if (targets.get(current) && --remaining == 0) {
+                break;
+            }
+
+            double currentDistance = distance[current];
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDistance = currentDistance + weights[e];
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (newDistance >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, newDistance);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * A*搜索起点到终点的最短路径，终点确定后立即停止
+     * 与 {@link #run(CompactGraph, int, int, ToDoubleFunction)} 相同，只对实际松弛的边调用权重函数，
+     * 暂存数组按轮次复用，查询代价只与触及的顶点有关，与图的规模无关。
+     * 每个顶点的启发值在首次触及时计算一次；启发式一致时每个顶点只扩展一次，
+     * 仅可采纳而不一致时，已确定的顶点找到更短路径会重新入堆，结果仍是最短路径。
+     * 计算完成后 {@link #distance(int)} 为起点到顶点的距离，只对终点保证最短
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标
+     * @param weightFunction 权重计算函数
+     * @param heuristic 顶点下标 -> 到终点距离的下界
+     */
+    public void runAStar(CompactGraph graph, int source, int target, ToDoubleFunction<Edge> weightFunction,
+                         IntToDoubleFunction heuristic) {
+        prepare(graph, source);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            if (closed[current] != epoch) {
+                closed[current] = epoch;
+                settledOrder[settledCount++] = current;
+            }
+            if (current == target) {
+                break;
+            }
+
+            double currentDistance = distance[current];
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDistance = currentDistance + weightFunction.applyAsDouble(graph.edge(e));
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                    estimate[neighbor] = heuristic.applyAsDouble(neighbor);
+                } else if (newDistance >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, newDistance + estimate[neighbor]);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * 沿入边反向计算所有顶点到终点的最短路径
+     * 计算完成后 {@link #distance(int)} 为顶点到终点的距离，
+     * {@link #predecessor(int)} 为顶点前往终点的下一个顶点，{@link #predecessorEdge(int)} 为对应的边槽位
+     * @param graph 紧凑图快照
+     * @param target 终点下标
+     * @param weightFunction 权重计算函数
+     */
+    public void runReverse(CompactGraph graph, int target, ToDoubleFunction<Edge> weightFunction) {
+        prepare(graph, target);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settledCount++] = current;
+
+            double currentDistance = distance[current];
+            for (int r = graph.reverseEdgeStart(current); r < graph.reverseEdgeEnd(current); r++) {
+                int e = graph.reverseSlot(r);
+                int neighbor = graph.source(e);
+                double newDistance = currentDistance + weightFunction.applyAsDouble(graph.edge(e));
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (newDistance >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, newDistance);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * 计算时间依赖的最早到达时间，终点确定后立即停止
+     * 计算完成后 {@link #distance(int)} 为到达顶点的时刻（秒），而不是路程长度。
+     * 权重满足先进先出时，最早到达某顶点后再出发总是最优的，因此标号确定后不必再更新，
+     * 与普通Dijkstra一样每个顶点只扩展一次；每次松弛只做一次基本类型的函数调用，不分配对象。
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标，为-1时计算到所有顶点
+     * @param departure 出发时刻（当天秒数）
+     * @param weight 时间依赖权重
+     */
+    public void runTimeDependent(CompactGraph graph, int source, int target, double departure,
+                                 TimeDependentWeight weight) {
+        prepare(graph, source, departure);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledOrder[settledCount++] = current;
+            if (current == target) {
+                break;
+            }
+
+            double currentTime = distance[current];
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double arrival = currentTime + weight.travelTime(graph.edge(e), currentTime);
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (arrival >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = arrival;
+                predecessor[neighbor] = current;
+                predecessorEdge[neighbor] = e;
+                heap.offer(neighbor, arrival);
+            }
+        }
+        heap.clear();
+    }
+
+    /**
+     * 重置暂存数组并放入起点
+     */
+    private void prepare(CompactGraph graph, int source) {
+        prepare(graph, source, 0.0);
+    }
+
+    /**
+     * 重置暂存数组并以给定初始标号放入起点
+     */
+    private void prepare(CompactGraph graph, int source, double initial) {
+        int n = graph.getVertexCount();
+        if (distance.length < n) {
+            distance = new double[n];
+            predecessor = new int[n];
+            predecessorEdge = new int[n];
+            stamp = new int[n];
+            closed = new int[n];
+            estimate = new double[n];
+            settledOrder = new int[n];
+            epoch = 0;
+        }
+        heap.ensureCapacity(n);
+        heap.clear();
+
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closed, 0);
+            epoch = 1;
+        }
+        this.graph = graph;
+        this.source = source;
+        this.settledCount = 0;
+
+        stamp[source] = epoch;
+        distance[source] = initial;
+        predecessor[source] = -1;
+        predecessorEdge[source] = -1;
+        heap.offer(source, initial);
+    }
+
+    /**
+     * 获取最近一次计算所用的图
+     * @return 紧凑图快照
+     */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 获取最近一次计算的起点下标
+     * @return 起点下标
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * 顶点是否已被搜索触及
+     * @param vertex 顶点下标
+     * @return 如果已触及返回true
+     */
+    public boolean isReached(int vertex) {
+        return stamp[vertex] == epoch;
+    }
+
+    /**
+     * 获取顶点的最短距离
+     * @param vertex 顶点下标
+     * @return 最短距离，未触及时为正无穷
+     */
+    public double distance(int vertex) {
+        return stamp[vertex] == epoch ? distance[vertex] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * 获取顶点在最短路径树中的前驱
+     * @param vertex 顶点下标
+     * @return 前驱顶点下标，起点或未触及时为-1
+     */
+    public int predecessor(int vertex) {
+        return stamp[vertex] == epoch ? predecessor[vertex] : -1;
+    }
+
+    /**
+     * 获取到达顶点的树边槽位
+     * @param vertex 顶点下标
+     * @return 边槽位，起点或未触及时为-1
+     */
+    public int predecessorEdge(int vertex) {
+        return stamp[vertex] == epoch ? predecessorEdge[vertex] : -1;
+    }
+
+    /**
+     * 获取已确定最短距离的顶点数量
+     * @return 顶点数量
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * 按确定顺序获取顶点，距离单调不减
+     * @param i 顺序号
+     * @return 顶点下标
+     */
+    public int settledVertex(int i) {
+        return settledOrder[i];
+    }
+}
@@ -0,0 +1,241 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.ScenicGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 多对多距离矩阵的批量计算
+ * 结果按行优先写入调用方提供的扁平数组，out[i*targets.length+j] 为第 i 个起点到第 j 个终点的最短距离，
+ * 不可达或景点不存在时为正无穷。各起点之间互不依赖，在公共 ForkJoinPool 上并行计算。
+ * <ul>
+ *   <li>基于收缩层次时采用RPHAST：先从所有终点沿向下弧反向收集相关顶点，按次序排好一次；
+ *       每个起点只需一次向上搜索，再在这个受限子图上按次序线性扫描即可得到到所有终点的距离。</li>
+ *   <li>基于快照时对每个起点运行Dijkstra，所有终点确定后立即停止；边权重只计算一次，供全部起点共用。</li>
+ * </ul>
+ */
+public class DistanceMatrix {
+    private static final ThreadLocal<SweepState> SWEEP_STATE = ThreadLocal.withInitial(SweepState::new);
+
+    private DistanceMatrix() {
+    }
+
+    /**
+     * 基于紧凑快照计算距离矩阵
+     * @param graph 紧凑图快照
+     * @param sourceIds 起点景点ID
+     * @param targetIds 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @param out 结果数组，长度至少为 sourceIds.length * targetIds.length
+     */
+    public static void compute(CompactGraph graph, int[] sourceIds, int[] targetIds,
+                               ToDoubleFunction<Edge> weightFunction, double[] out) {
+        checkOutput(sourceIds, targetIds, out);
+        int k = targetIds.length;
+        int[] targets = new int[k];
+        BitSet targetSet = new BitSet(graph.getVertexCount());
+        for (int j = 0; j < k; j++) {
+            targets[j] = graph.indexOf(targetIds[j]);
+            if (targets[j] >= 0) {
+                targetSet.set(targets[j]);
+            }
+        }
+        int targetCount = targetSet.cardinality();
+        double[] weights = graph.weights(weightFunction);
+
+        IntStream.range(0, sourceIds.length).parallel().forEach(i -> {
+            int row = i * k;
+            int source = graph.indexOf(sourceIds[i]);
+            if (source < 0 || targetCount == 0) {
+                Arrays.fill(out, row, row + k, Double.POSITIVE_INFINITY);
+                return;
+            }
+            DijkstraEngine engine = DijkstraEngine.local();
+            engine.runToTargets(graph, source, weights, targetSet, targetCount);
+            for (int j = 0; j < k; j++) {
+                out[row + j] = targets[j] < 0 ? Double.POSITIVE_INFINITY : engine.distance(targets[j]);
+            }
+        });
+    }
+
+    /**
+     * 基于景区图的当前状态计算距离矩阵
+     * @param graph 景区图
+     * @param sourceIds 起点景点ID
+     * @param targetIds 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @param out 结果数组，长度至少为 sourceIds.length * targetIds.length
+     */
+    public static void compute(ScenicGraph graph, int[] sourceIds, int[] targetIds,
+                               Function<Edge, Double> weightFunction, double[] out) {
+        compute(graph.freeze(), sourceIds, targetIds, weightFunction::apply, out);
+    }
+
+    /**
+     * 基于收缩层次用RPHAST计算距离矩阵，权重为构建层次时所用的权重
+     * @param hierarchy 收缩层次
+     * @param sourceIds 起点景点ID
+     * @param targetIds 终点景点ID
+     * @param out 结果数组，长度至少为 sourceIds.length * targetIds.length
+     */
+    public static void compute(ContractionHierarchy hierarchy, int[] sourceIds, int[] targetIds, double[] out) {
+        checkOutput(sourceIds, targetIds, out);
+        CompactGraph graph = hierarchy.getGraph();
+        int n = graph.getVertexCount();
+        int k = targetIds.length;
+
+        // 从终点沿向下弧反向收集相关顶点：只有它们可能位于"向上再向下"路径的向下段上
+        int[] localIndex = new int[n];
+        Arrays.fill(localIndex, -1);
+        boolean[] selected = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        int[] targets = new int[k];
+        for (int j = 0; j < k; j++) {
+            targets[j] = graph.indexOf(targetIds[j]);
+            if (targets[j] >= 0 && !selected[targets[j]]) {
+                selected[targets[j]] = true;
+                stack[top++] = targets[j];
+            }
+        }
+        int selectedCount = 0;
+        while (top > 0) {
+            int v = stack[--top];
+            selectedCount++;
+            for (int i = hierarchy.downStart(v); i < hierarchy.downEnd(v); i++) {
+                int u = hierarchy.arcFrom(hierarchy.downArc(i));
+                if (!selected[u]) {
+                    selected[u] = true;
+                    stack[top++] = u;
+                }
+            }
+        }
+
+        // 按次序从高到低排列相关顶点，并把指向它们的向下弧整理为"拉取"形式的CSR
+        int[] byRank = new int[n];
+        for (int v = 0; v < n; v++) {
+            byRank[hierarchy.rank(v)] = v;
+        }
+        int[] order = new int[selectedCount];
+        for (int r = n - 1, c = 0; r >= 0; r--) {
+            int v = byRank[r];
+            if (selected[v]) {
+                localIndex[v] = c;
+                order[c++] = v;
+            }
+        }
+        int[] pullOffsets = new int[selectedCount + 1];
+        for (int c = 0; c < selectedCount; c++) {
+            int v = order[c];
+            pullOffsets[c + 1] = pullOffsets[c] + hierarchy.downEnd(v) - hierarchy.downStart(v);
+        }
+        int[] pullFrom = new int[pullOffsets[selectedCount]];
+        double[] pullWeight = new double[pullOffsets[selectedCount]];
+        for (int c = 0, p = 0; c < selectedCount; c++) {
+            int v = order[c];
+            for (int i = hierarchy.downStart(v); i < hierarchy.downEnd(v); i++, p++) {
+                int a = hierarchy.downArc(i);
+                pullFrom[p] = localIndex[hierarchy.arcFrom(a)];   // 次序更高，已在前面扫描过
+                pullWeight[p] = hierarchy.arcWeight(a);
+            }
+        }
+        int[] targetLocal = new int[k];
+        for (int j = 0; j < k; j++) {
+            targetLocal[j] = targets[j] < 0 ? -1 : localIndex[targets[j]];
+        }
+
+        int count = selectedCount;
+        IntStream.range(0, sourceIds.length).parallel().forEach(i -> {
+            int row = i * k;
+            int source = graph.indexOf(sourceIds[i]);
+            if (source < 0) {
+                Arrays.fill(out, row, row + k, Double.POSITIVE_INFINITY);
+                return;
+            }
+            SweepState state = SWEEP_STATE.get();
+            state.upward(hierarchy, n, source);
+            double[] sweep = state.sweep(count);
+            for (int c = 0; c < count; c++) {
+                int v = order[c];
+                double best = state.upDistance(v);
+                for (int p = pullOffsets[c]; p < pullOffsets[c + 1]; p++) {
+                    double candidate = sweep[pullFrom[p]] + pullWeight[p];
+                    if (candidate < best) {
+                        best = candidate;
+                    }
+                }
+                sweep[c] = best;
+            }
+            for (int j = 0; j < k; j++) {
+                out[row + j] = targetLocal[j] < 0 ? Double.POSITIVE_INFINITY : sweep[targetLocal[j]];
+            }
+        });
+    }
+
+    private static void checkOutput(int[] sourceIds, int[] targetIds, double[] out) {
+        if (out.length < (long) sourceIds.length * targetIds.length) {
+            throw new IllegalArgumentException("结果数组长度不足: " + out.length);
+        }
+    }
+
+    /**
+     * RPHAST每个线程的暂存：向上搜索的距离与轮次标记、线性扫描数组
+     */
+    private static final class SweepState {
+        private double[] upDistance = new double[0];
+        private int[] stamp = new int[0];
+        private int epoch;
+        private double[] sweep = new double[0];
+        private final IndexedMinHeap heap = new IndexedMinHeap(0);
+
+        /**
+         * 从起点沿向上弧完整搜索，得到扫描的初始距离
+         */
+        void upward(ContractionHierarchy hierarchy, int n, int source) {
+            if (upDistance.length < n) {
+                upDistance = new double[n];
+                stamp = new int[n];
+                epoch = 0;
+            }
+            heap.ensureCapacity(n);
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            stamp[source] = epoch;
+            upDistance[source] = 0.0;
+            heap.offer(source, 0.0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                double du = upDistance[u];
+                for (int i = hierarchy.upStart(u); i < hierarchy.upEnd(u); i++) {
+                    int a = hierarchy.upArc(i);
+                    int x = hierarchy.arcTo(a);
+                    double dx = du + hierarchy.arcWeight(a);
+                    if (stamp[x] != epoch || dx < upDistance[x]) {
+                        stamp[x] = epoch;
+                        upDistance[x] = dx;
+                        heap.offer(x, dx);
+                    }
+                }
+            }
+        }
+
+        double upDistance(int vertex) {
+            return stamp[vertex] == epoch ? upDistance[vertex] : Double.POSITIVE_INFINITY;
+        }
+
+        double[] sweep(int size) {
+            if (sweep.length < size) {
+                sweep = new double[size];
+            }
+            return sweep;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeChangeListener;
+import com.tiantan.model.graph.ScenicGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 动态单源最短路径树
+ * 维护从一个枢纽景点（如东门）出发的最短路径树，边权重或拥挤状态变化时按Ramalingam-Reps方法增量修复：
+ * 树边权重增加时只重置以其终点为根的子树，先用子树外的入边为子树内的景点给出上界，
+ * 再在子树内执行Dijkstra；权重减少且能缩短距离时从该边终点开始向外传播。
+ * 两种情况的耗时都只与受影响的景点及其邻边成正比，不再从头重算整棵树。
+ * 顶点或边的增删会使快照结构变化，此时整体重建。
+ * 每次修复后向监听器报告距离或前驱发生变化的景点。
+ */
+public class DynamicShortestPathTree implements EdgeChangeListener {
+    private final ScenicGraph graph;                       // 景区图
+    private final ToDoubleFunction<Edge> weightFunction;   // 权重计算函数
+    private final int sourceId;                            // 枢纽景点ID
+    private final List<ShortestPathTreeListener> listeners = new CopyOnWriteArrayList<>();
+    private CompactGraph snapshot;                         // 当前树所对应的紧凑快照
+    private int n;                                         // 顶点数量
+    private int source;                                    // 枢纽顶点下标，不在图中为-1
+    private double[] weights;                              // 边槽位 -> 树所依据的权重
+    private double[] distance;                             // 顶点 -> 最短距离
+    private int[] parentSlot;                              // 顶点 -> 树中入边槽位，根和不可达为-1
+    private IndexedMinHeap heap;                           // 修复时使用的优先队列
+    private final BitSet affected = new BitSet();          // 本次修复中被重置的子树
+    private final BitSet touched = new BitSet();           // 本次修复中写过的顶点
+    private double[] oldDistance;                          // 顶点首次写入前的距离
+    private int[] oldParentSlot;                           // 顶点首次写入前的树边
+    private int[] queue;                                   // 收集子树用的队列
+
+    /**
+     * 构造函数，立即计算最短路径树并开始监听边状态变化
+     * @param graph 景区图
+     * @param weightFunction 权重计算函数，权重不能为负
+     * @param sourceId 枢纽景点ID
+     */
+    public DynamicShortestPathTree(ScenicGraph graph, ToDoubleFunction<Edge> weightFunction, int sourceId) {
+        this.graph = graph;
+        this.weightFunction = weightFunction;
+        this.sourceId = sourceId;
+        rebuild();
+        graph.addEdgeChangeListener(this);
+    }
+
+    /**
+     * 停止监听边状态变化
+     */
+    public void dispose() {
+        graph.removeEdgeChangeListener(this);
+    }
+
+    /**
+     * 添加树变化监听器
+     * @param listener 监听器
+     */
+    public void addTreeChangeListener(ShortestPathTreeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除树变化监听器
+     * @param listener 监听器
+     */
+    public void removeTreeChangeListener(ShortestPathTreeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 按图的当前结构重新计算整棵树，并报告所有变化的景点
+     */
+    public void rebuild() {
+        notifyListeners(rebuildTree());
+    }
+
+    /**
+     * 边状态变化时只修复受影响的部分，然后在锁外通知监听器
+     */
+    @Override
+    public void edgeChanged(Edge edge) {
+        notifyListeners(repair(edge));
+    }
+
+    private synchronized int[] rebuildTree() {
+        CompactGraph previous = snapshot;
+        double[] previousDistance = distance;
+        int[] previousParent = parentSlot;
+
+        snapshot = graph.freeze();
+        n = snapshot.getVertexCount();
+        source = snapshot.indexOf(sourceId);
+        weights = snapshot.weights(weightFunction);
+        distance = new double[n];
+        parentSlot = new int[n];
+        oldDistance = new double[n];
+        oldParentSlot = new int[n];
+        queue = new int[n];
+        heap = new IndexedMinHeap(n);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(parentSlot, -1);
+        if (source >= 0) {
+            distance[source] = 0.0;
+            heap.offer(source, 0.0);
+            propagate();
+        }
+
+        // 首次计算时没有旧树；之后按景点ID比较新旧树
+        BitSet changed = new BitSet(n);
+        for (int v = 0; v < n; v++) {
+            int old = previous == null ? -1 : previous.indexOf(snapshot.idOf(v));
+            if (old < 0) {
+                changed.set(v);
+            } else {
+                int oldParent = previousParent[old] < 0 ? -1 : previous.idOf(previous.source(previousParent[old]));
+                int newParent = parentSlot[v] < 0 ? -1 : snapshot.idOf(snapshot.source(parentSlot[v]));
+                if (previousDistance[old] != distance[v] || oldParent != newParent) {
+                    changed.set(v);
+                }
+            }
+        }
+        return toIds(changed);
+    }
+
+    private synchronized int[] repair(Edge edge) {
+        // 结构已变化时下标不再对应，只能整体重建
+        CompactGraph latest = graph.freeze();
+        if (!latest.sameStructure(snapshot)) {
+            return rebuildTree();
+        }
+        snapshot = latest;
+
+        int from = snapshot.indexOf(edge.getFrom().getSpot().getId());
+        int to = snapshot.indexOf(edge.getTo().getSpot().getId());
+        if (from < 0 || to < 0) {
+            return new int[0];
+        }
+
+        // 同一对景点之间可能有多条平行边，逐条比较新旧权重
+        touched.clear();
+        affected.clear();
+        heap.clear();
+        for (int e = snapshot.edgeStart(from); e < snapshot.edgeEnd(from); e++) {
+            if (snapshot.target(e) != to) {
+                continue;
+            }
+            double oldWeight = weights[e];
+            double newWeight = weightFunction.applyAsDouble(snapshot.edge(e));
+            weights[e] = newWeight;
+            if (newWeight > oldWeight && parentSlot[to] == e) {
+                invalidateSubtree(to);
+            } else if (newWeight < oldWeight && distance[from] + newWeight < distance[to]) {
+                relax(to, e, distance[from] + newWeight);
+            }
+        }
+        reseedAffected();
+        propagate();
+
+        BitSet changed = new BitSet(n);
+        for (int v = touched.nextSetBit(0); v >= 0; v = touched.nextSetBit(v + 1)) {
+            if (oldDistance[v] != distance[v] || oldParentSlot[v] != parentSlot[v]) {
+                changed.set(v);
+            }
+        }
+        return toIds(changed);
+    }
+
+    /**
+     * 把以 root 为根的子树标记为受影响，并把其中景点的距离重置为不可达
+     */
+    private void invalidateSubtree(int root) {
+        if (affected.get(root)) {
+            return;
+        }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        affected.set(root);
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = snapshot.edgeStart(v); e < snapshot.edgeEnd(v); e++) {
+                int child = snapshot.target(e);
+                if (parentSlot[child] == e && !affected.get(child)) {
+                    affected.set(child);
+                    queue[tail++] = child;
+                }
+            }
+            remember(v);
+            distance[v] = Double.POSITIVE_INFINITY;
+            parentSlot[v] = -1;
+        }
+    }
+
+    /**
+     * 为受影响的景点寻找来自子树外的最佳入边，作为子树内Dijkstra的初始上界
+     */
+    private void reseedAffected() {
+        for (int v = affected.nextSetBit(0); v >= 0; v = affected.nextSetBit(v + 1)) {
+            for (int p = snapshot.reverseEdgeStart(v); p < snapshot.reverseEdgeEnd(v); p++) {
+                int e = snapshot.reverseSlot(p);
+                int u = snapshot.source(e);
+                if (!affected.get(u) && distance[u] + weights[e] < distance[v]) {
+                    relax(v, e, distance[u] + weights[e]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从堆中的景点开始执行Dijkstra，直到没有距离可以缩短
+     */
+    private void propagate() {
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            double du = distance[u];
+            for (int e = snapshot.edgeStart(u); e < snapshot.edgeEnd(u); e++) {
+                int v = snapshot.target(e);
+                double candidate = du + weights[e];
+                if (candidate < distance[v]) {
+                    relax(v, e, candidate);
+                }
+            }
+        }
+    }
+
+    private void relax(int v, int slot, double newDistance) {
+        remember(v);
+        distance[v] = newDistance;
+        parentSlot[v] = slot;
+        heap.offer(v, newDistance);
+    }
+
+    /**
+     * 记录顶点在本次修复中首次被写入前的状态
+     */
+    private void remember(int v) {
+        if (!touched.get(v)) {
+            touched.set(v);
+            oldDistance[v] = distance[v];
+            oldParentSlot[v] = parentSlot[v];
+        }
+    }
+
+    private int[] toIds(BitSet vertices) {
+        int[] ids = new int[vertices.cardinality()];
+        int i = 0;
+        for (int v = vertices.nextSetBit(0); v >= 0; v = vertices.nextSetBit(v + 1)) {
+            ids[i++] = snapshot.idOf(v);
+        }
+        return ids;
+    }
+
+    private void notifyListeners(int[] changedSpotIds) {
+        if (changedSpotIds.length == 0) {
+            return;
+        }
+        for (ShortestPathTreeListener listener : listeners) {
+            listener.treeChanged(this, changedSpotIds);
+        }
+    }
+
+    /**
+     * 获取枢纽景点ID
+     * @return 枢纽景点ID
+     */
+    public int getSourceId() {
+        return sourceId;
+    }
+
+    /**
+     * 获取树所对应的紧凑快照
+     * @return 紧凑快照
+     */
+    public synchronized CompactGraph getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 获取从枢纽到指定景点的最短距离
+     * @param spotId 景点ID
+     * @return 最短距离，不可达或景点不存在时为正无穷
+     */
+    public synchronized double distance(int spotId) {
+        int v = snapshot.indexOf(spotId);
+        return v < 0 ? Double.POSITIVE_INFINITY : distance[v];
+    }
+
+    /**
+     * 获取指定景点在最短路径树中的前驱
+     * @param spotId 景点ID
+     * @return 前驱景点，枢纽本身、不可达或景点不存在时返回null
+     */
+    public synchronized ScenicSpot parentOf(int spotId) {
+        int v = snapshot.indexOf(spotId);
+        if (v < 0 || parentSlot[v] < 0) {
+            return null;
+        }
+        return snapshot.spotOf(snapshot.source(parentSlot[v]));
+    }
+
+    /**
+     * 获取从枢纽到指定景点的最短路径
+     * @param spotId 景点ID
+     * @return 路径上的景点列表，从枢纽到该景点；不可达时为空列表
+     */
+    public synchronized List<ScenicSpot> path(int spotId) {
+        int v = snapshot.indexOf(spotId);
+        if (v < 0 || Double.isInfinite(distance[v])) {
+            return Collections.emptyList();
+        }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int x = v; x >= 0; x = parentSlot[x] < 0 ? -1 : snapshot.source(parentSlot[x])) {
+            path.add(snapshot.spotOf(x));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
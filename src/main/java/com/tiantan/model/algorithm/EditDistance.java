@@ -0,0 +1,240 @@
+package com.tiantan.model.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * 位并行编辑距离（Myers/Hyyrö算法）
+ * 把较短的串作为模式串，动态规划表一列的纵向差值（+1/0/-1）编码为两个位向量，
+ * 每读入文本串的一个字符，用几次位运算和一次加法推进整列。模式串不超过64个字符时只用一个long，
+ * 更长时按64行分块，块之间传递底行的横向差值。
+ * 指定最大距离k时：两串长度差超过k直接返回；距离表对角线以下超过k行的块尚不影响结果，
+ * 只在带宽（Ukkonen带）到达时才开始计算；末行的值减去剩余列数仍超过k时提前结束。
+ * 字符按UTF-16码元比较，中文和英文名称同样适用。每个线程复用一份暂存区，只在模式串变长时扩容，
+ * 计算过程中不分配对象
+ */
+public class EditDistance {
+    private static final int MIN_TABLE_CAPACITY = 128;  // 字符掩码表的最小容量
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private EditDistance() {
+    }
+
+    /**
+     * 计算编辑距离
+     * @param a 字符串
+     * @param b 字符串
+     * @return 编辑距离
+     */
+    public static int distance(CharSequence a, CharSequence b) {
+        return distance(a, b, Math.max(a.length(), b.length()));
+    }
+
+    /**
+     * 计算不超过上限的编辑距离
+     * @param a 字符串
+     * @param b 字符串
+     * @param maxDistance 最大距离
+     * @return 编辑距离，超过maxDistance时返回maxDistance + 1
+     */
+    public static int distance(CharSequence a, CharSequence b, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("最大编辑距离不能为负数: " + maxDistance);
+        }
+        CharSequence pattern = a.length() <= b.length() ? a : b;
+        CharSequence text = pattern == a ? b : a;
+        int m = pattern.length();
+        int n = text.length();
+        if (n - m > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (m == 0) {
+            return n;
+        }
+        Scratch scratch = SCRATCH.get();
+        return m <= 64
+                ? singleWord(scratch, pattern, text, maxDistance)
+                : blocked(scratch, pattern, text, maxDistance);
+    }
+
+    /**
+     * 判断编辑距离是否不超过上限
+     * @param a 字符串
+     * @param b 字符串
+     * @param maxDistance 最大距离
+     * @return 是否不超过
+     */
+    public static boolean within(CharSequence a, CharSequence b, int maxDistance) {
+        return distance(a, b, maxDistance) <= maxDistance;
+    }
+
+    /**
+     * 模式串只占一个字（m <= 64）
+     */
+    private static int singleWord(Scratch scratch, CharSequence pattern, CharSequence text, int k) {
+        int m = pattern.length();
+        int n = text.length();
+        scratch.prepare(pattern, 1);
+        long pv = -1L;
+        long mv = 0L;
+        long last = 1L << (m - 1);
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            long eq = scratch.mask(text.charAt(j), 0);
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // 第0行D[0][j] = j，横向差值恒为+1
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (score - (n - 1 - j) > k) {
+                return k + 1;
+            }
+        }
+        return score <= k ? score : k + 1;
+    }
+
+    /**
+     * 模式串分为多个64行的块；第b块在第j列只有b * 64 <= j + k时才参与计算，
+     * 参与前的各行按上一块底行逐行加1估计，估计值不小于真实值，而真实值不超过k的格子都能精确算出
+     */
+    private static int blocked(Scratch scratch, CharSequence pattern, CharSequence text, int k) {
+        int m = pattern.length();
+        int n = text.length();
+        int blocks = (m + 63) >>> 6;
+        scratch.prepare(pattern, blocks);
+        long[] pv = scratch.pv;
+        long[] mv = scratch.mv;
+        int[] score = scratch.score;
+        long lastHigh = 1L << ((m - 1) & 63);
+        pv[0] = -1L;
+        mv[0] = 0L;
+        score[0] = Math.min(m, 64);
+        int active = 0;
+        for (int j = 0; j < n; j++) {
+            while (active + 1 < blocks && (active + 1) * 64 <= j + 1 + k) {
+                active++;
+                pv[active] = -1L;
+                mv[active] = 0L;
+                score[active] = score[active - 1] + Math.min(64, m - active * 64);
+            }
+            char c = text.charAt(j);
+            int hin = 1;
+            for (int b = 0; b <= active; b++) {
+                long eq = scratch.mask(c, b);
+                long p = pv[b];
+                long q = mv[b];
+                long xv = eq | q;
+                if (hin < 0) {
+                    eq |= 1L;
+                }
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = q | ~(xh | p);
+                long mh = p & xh;
+                long high = b == blocks - 1 ? lastHigh : Long.MIN_VALUE;
+                int hout = (ph & high) != 0 ? 1 : (mh & high) != 0 ? -1 : 0;
+                ph <<= 1;
+                mh <<= 1;
+                if (hin < 0) {
+                    mh |= 1L;
+                } else if (hin > 0) {
+                    ph |= 1L;
+                }
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                score[b] += hout;
+                hin = hout;
+            }
+            if (active == blocks - 1 && score[active] - (n - 1 - j) > k) {
+                return k + 1;
+            }
+        }
+        int result = score[blocks - 1];
+        return result <= k ? result : k + 1;
+    }
+
+    /**
+     * 每个线程一份的暂存区：模式串字符 -> 各块掩码的开放寻址表，以及分块时各块的位向量和底行值。
+     * 表项用版本号标记是否属于当前模式串，换模式串时不必清空整张表
+     */
+    private static final class Scratch {
+        private char[] keys = new char[MIN_TABLE_CAPACITY];     // 槽位 -> 字符
+        private int[] stamps = new int[MIN_TABLE_CAPACITY];     // 槽位 -> 写入时的版本号
+        private long[] masks = new long[MIN_TABLE_CAPACITY];    // 槽位 * 块数 + 块号 -> 该字符在块内出现的行
+        private int stamp;                                      // 当前版本号
+        private int shift = Integer.SIZE - 7;                   // 哈希值右移位数，容量为2^(32 - shift)
+        private int blocks;                                     // 当前模式串的块数
+        long[] pv = new long[2];                                // 块号 -> 纵向差值为+1的行
+        long[] mv = new long[2];                                // 块号 -> 纵向差值为-1的行
+        int[] score = new int[2];                               // 块号 -> 块底行的当前值
+
+        /**
+         * 载入模式串，建立各字符的掩码
+         */
+        void prepare(CharSequence pattern, int blockCount) {
+            int m = pattern.length();
+            int capacity = MIN_TABLE_CAPACITY;
+            while (capacity < m * 2) {
+                capacity <<= 1;
+            }
+            if (capacity > keys.length) {
+                keys = new char[capacity];
+                stamps = new int[capacity];
+                stamp = 0;
+            } else {
+                capacity = keys.length;
+            }
+            if (masks.length < capacity * blockCount) {
+                masks = new long[capacity * blockCount];
+            }
+            if (pv.length < blockCount) {
+                pv = new long[blockCount];
+                mv = new long[blockCount];
+                score = new int[blockCount];
+            }
+            shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+            blocks = blockCount;
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            int tableMask = capacity - 1;
+            for (int i = 0; i < m; i++) {
+                char c = pattern.charAt(i);
+                int slot = (c * 0x9E3779B9) >>> shift;
+                while (stamps[slot] == stamp && keys[slot] != c) {
+                    slot = (slot + 1) & tableMask;
+                }
+                if (stamps[slot] != stamp) {
+                    stamps[slot] = stamp;
+                    keys[slot] = c;
+                    Arrays.fill(masks, slot * blockCount, slot * blockCount + blockCount, 0L);
+                }
+                masks[slot * blockCount + (i >>> 6)] |= 1L << (i & 63);
+            }
+        }
+
+        /**
+         * 字符在指定块内出现的行，不在模式串中时为0
+         */
+        long mask(char c, int block) {
+            int tableMask = keys.length - 1;
+            int slot = (c * 0x9E3779B9) >>> shift;
+            while (stamps[slot] == stamp) {
+                if (keys[slot] == c) {
+                    return masks[slot * blocks + block];
+                }
+                slot = (slot + 1) & tableMask;
+            }
+            return 0L;
+        }
+    }
+}
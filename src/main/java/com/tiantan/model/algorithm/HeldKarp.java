@@ -0,0 +1,158 @@
+package com.tiantan.model.algorithm;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Held-Karp状态压缩动态规划 - 小规模旅行商问题的精确解
+ * dp[mask][j] 表示从起点出发、恰好经过 mask 中的城市且停在 j 的最短代价，
+ * 按 mask 中城市数量逐层计算；同一层内不同终点 j 之间互不依赖，因此按 j 并行。
+ * 时间复杂度 O(2^n · n²)，空间复杂度 O(2^n · n)，适合不超过约20个城市的路线。
+ * 距离矩阵允许不对称，不可达的城市对可用正无穷表示。
+ */
+public class HeldKarp {
+    /**
+     * 支持的最大城市数量（含起点），超过后表格内存过大
+     */
+    public static final int MAX_CITIES = 20;
+
+    private static final int PARALLEL_THRESHOLD = 12;   // 非起点城市达到该数量时并行计算
+
+    /**
+     * 计算从起点出发、经过所有城市的最优访问顺序
+     * @param distance 行优先的 n×n 距离矩阵，distance[i*n+j] 为城市 i 到 j 的代价
+     * @param n 城市数量
+     * @param start 起点城市
+     * @param returnToStart 是否需要回到起点（闭合回路），否则终点任意
+     * @return 城市访问顺序，以起点开头；闭合回路时不重复列出起点
+     */
+    public static int[] solve(double[] distance, int n, int start, boolean returnToStart) {
+        if (n <= 0 || n > MAX_CITIES) {
+            throw new IllegalArgumentException("城市数量超出精确求解范围: " + n);
+        }
+        if (distance.length < n * n) {
+            throw new IllegalArgumentException("距离矩阵尺寸不足: " + distance.length);
+        }
+        if (start < 0 || start >= n) {
+            throw new IndexOutOfBoundsException("起点越界: " + start);
+        }
+        if (n == 1) {
+            return new int[]{start};
+        }
+
+        // 非起点城市重新编号为 0..m-1
+        int m = n - 1;
+        int[] city = new int[m];
+        for (int i = 0, c = 0; i < n; i++) {
+            if (i != start) {
+                city[c++] = i;
+            }
+        }
+
+        int full = (1 << m) - 1;
+        double[][] dp = new double[1 << m][m];
+        byte[][] parent = new byte[1 << m][m];
+        for (double[] row : dp) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int j = 0; j < m; j++) {
+            dp[1 << j][j] = distance[start * n + city[j]];
+            parent[1 << j][j] = -1;
+        }
+
+        // 按城市数量分组的子集
+        int[][] layers = subsetsBySize(m);
+        for (int size = 2; size <= m; size++) {
+            int[] masks = layers[size];
+            IntStream lastCities = IntStream.range(0, m);
+            if (m >= PARALLEL_THRESHOLD) {
+                lastCities = lastCities.parallel();
+            }
+            lastCities.forEach(j -> {
+                int bit = 1 << j;
+                for (int mask : masks) {
+                    if ((mask & bit) == 0) {
+                        continue;
+                    }
+                    int previous = mask ^ bit;
+                    double[] previousRow = dp[previous];
+                    double best = Double.POSITIVE_INFINITY;
+                    int bestK = Integer.numberOfTrailingZeros(previous);   // 全部不可达时仍保留合法的父指针
+                    for (int k = 0; k < m; k++) {
+                        if ((previous & (1 << k)) != 0) {
+                            double cost = previousRow[k] + distance[city[k] * n + city[j]];
+                            if (cost < best) {
+                                best = cost;
+                                bestK = k;
+                            }
+                        }
+                    }
+                    dp[mask][j] = best;
+                    parent[mask][j] = (byte) bestK;
+                }
+            });
+        }
+
+        // 选择最优终点
+        double best = Double.POSITIVE_INFINITY;
+        int last = 0;
+        for (int j = 0; j < m; j++) {
+            double cost = dp[full][j] + (returnToStart ? distance[city[j] * n + start] : 0.0);
+            if (cost < best) {
+                best = cost;
+                last = j;
+            }
+        }
+
+        // 沿父指针回溯
+        int[] order = new int[n];
+        order[0] = start;
+        int mask = full;
+        for (int position = n - 1, j = last; position >= 1; position--) {
+            order[position] = city[j];
+            int previous = parent[mask][j];
+            mask ^= 1 << j;
+            j = previous;
+        }
+        return order;
+    }
+
+    /**
+     * 计算访问顺序的总代价
+     * @param distance 行优先的 n×n 距离矩阵
+     * @param n 城市数量
+     * @param order 访问顺序
+     * @param returnToStart 是否计入回到起点的代价
+     * @return 总代价
+     */
+    public static double cost(double[] distance, int n, int[] order, boolean returnToStart) {
+        double total = 0.0;
+        for (int i = 0; i + 1 < order.length; i++) {
+            total += distance[order[i] * n + order[i + 1]];
+        }
+        if (returnToStart && order.length > 1) {
+            total += distance[order[order.length - 1] * n + order[0]];
+        }
+        return total;
+    }
+
+    /**
+     * 将 m 位的所有子集按包含的元素数量分组
+     */
+    private static int[][] subsetsBySize(int m) {
+        int[] counts = new int[m + 1];
+        for (int mask = 0; mask < (1 << m); mask++) {
+            counts[Integer.bitCount(mask)]++;
+        }
+        int[][] layers = new int[m + 1][];
+        for (int size = 0; size <= m; size++) {
+            layers[size] = new int[counts[size]];
+        }
+        int[] fill = new int[m + 1];
+        for (int mask = 0; mask < (1 << m); mask++) {
+            int size = Integer.bitCount(mask);
+            layers[size][fill[size]++] = mask;
+        }
+        return layers;
+    }
+}
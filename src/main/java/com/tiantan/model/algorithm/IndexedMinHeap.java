@@ -0,0 +1,222 @@
+package com.tiantan.model.algorithm;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * 索引四叉最小堆
+ * 元素为 0..capacity-1 的整数下标，支持按下标降低键值(decrease-key)，
+ * 所有存储均为基本类型数组，入堆、出堆和降键操作不产生任何对象分配。
+ */
+public class IndexedMinHeap {
+    private static final int ARITY = 4;   // 每个节点的子节点数
+
+    private int[] heap;         // 堆数组，存放元素下标
+    private int[] position;     // 元素下标 -> 在堆数组中的位置，不在堆中为-1
+    private double[] keys;      // 元素下标 -> 键值
+    private int size;           // 当前元素数量
+
+    /**
+     * 构造函数
+     * @param capacity 元素下标上限（不包含）
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * 确保可容纳的元素下标上限，扩容时会清空堆
+     * @param capacity 元素下标上限（不包含）
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > position.length) {
+            heap = new int[capacity];
+            position = new int[capacity];
+            keys = new double[capacity];
+            Arrays.fill(position, -1);
+            size = 0;
+        }
+    }
+
+    /**
+     * 清空堆，耗时与当前元素数量成正比
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * 堆是否为空
+     * @return 如果为空返回true
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 获取元素数量
+     * @return 元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 元素是否在堆中
+     * @param element 元素下标
+     * @return 如果在堆中返回true
+     */
+    public boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    /**
+     * 获取元素当前键值
+     * @param element 元素下标
+     * @return 键值，元素不在堆中时结果无意义
+     */
+    public double keyOf(int element) {
+        return keys[element];
+    }
+
+    /**
+     * 插入元素，若元素已在堆中且新键值更小则降低其键值
+     * @param element 元素下标
+     * @param key 键值
+     * @return 如果插入或降键成功返回true
+     */
+    public boolean offer(int element, double key) {
+        int pos = position[element];
+        if (pos < 0) {
+            keys[element] = key;
+            heap[size] = element;
+            position[element] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(pos);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 修改已在堆中元素的键值，可增大也可减小；元素不在堆中时插入
+     * @param element 元素下标
+     * @param key 新键值
+     */
+    public void update(int element, double key) {
+        int pos = position[element];
+        if (pos < 0) {
+            offer(element, key);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(pos);
+        } else {
+            keys[element] = key;
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * 获取最小键值
+     * @return 堆顶键值
+     */
+    public double peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * 获取堆顶元素但不移除
+     * @return 堆顶元素下标
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    /**
+     * 移除并返回键值最小的元素
+     * @return 堆顶元素下标
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * 上浮
+     */
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / ARITY;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+
+    /**
+     * 下沉
+     */
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (true) {
+            int firstChild = pos * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minPos = firstChild;
+            double minKey = keys[heap[firstChild]];
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                double childKey = keys[heap[c]];
+                if (childKey < minKey) {
+                    minKey = childKey;
+                    minPos = c;
+                }
+            }
+            if (minKey >= key) {
+                break;
+            }
+            int child = heap[minPos];
+            heap[pos] = child;
+            position[child] = pos;
+            pos = minPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+}
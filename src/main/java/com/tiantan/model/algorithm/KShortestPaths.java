@@ -0,0 +1,307 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.ScenicGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * K条最短简单路径 - Yen算法（带Lawler优化）的惰性迭代器
+ * 按代价从小到大依次产生起点到终点的无环路径，每次调用 {@link #next()} 才计算下一条，
+ * 只需对上一条路径的各个偏离点做受限Dijkstra搜索，开销与已产生的路径数成正比，
+ * 而不是像穷举所有路径那样随图规模指数增长。
+ * 路径按顶点序列区分，两点间的平行边只取权重最小的一条。
+ */
+public class KShortestPaths implements Iterator<List<ScenicSpot>> {
+    private final CompactGraph graph;    // 紧凑图快照
+    private final double[] weights;      // 边槽位 -> 权重
+    private final int source;            // 起点下标
+    private final int target;            // 终点下标
+    private final int maxPaths;          // 最多产生的路径数
+    private final double maxCost;        // 路径代价上限
+
+    private final List<Candidate> found = new ArrayList<>();              // 已产生的路径
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+    private final Set<Candidate> seen = new HashSet<>();                  // 已进入候选的路径，用于去重
+    private Candidate pending;           // 已计算但尚未返回的下一条路径
+    private boolean exhausted;           // 是否已无更多路径
+    private double lastCost = Double.NaN;
+
+    // 受限Dijkstra的暂存
+    private final double[] distance;
+    private final int[] predecessor;
+    private final int[] stamp;
+    private final int[] blockedVertex;   // 轮次标记：根路径上的顶点不可经过
+    private final int[] blockedNext;     // 轮次标记：偏离点不可直接前往的顶点
+    private int epoch;
+    private final IndexedMinHeap heap;
+
+    /**
+     * 路径候选，按代价排序，按顶点序列判等
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final int[] vertices;    // 顶点下标序列
+        final double[] prefix;   // prefix[i] 为从起点到 vertices[i] 的代价
+        final int deviation;     // 与父路径开始不同的位置
+
+        Candidate(int[] vertices, double[] prefix, int deviation) {
+            this.vertices = vertices;
+            this.prefix = prefix;
+            this.deviation = deviation;
+        }
+
+        double cost() {
+            return prefix[prefix.length - 1];
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Double.compare(cost(), other.cost());
+            return result != 0 ? result : Integer.compare(vertices.length, other.vertices.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Candidate && Arrays.equals(vertices, ((Candidate) o).vertices);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(vertices);
+        }
+    }
+
+    /**
+     * 构造函数
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunction 权重计算函数，权重须非负
+     * @param maxPaths 最多产生的路径数，不限制时传入 Integer.MAX_VALUE
+     * @param maxCost 路径代价上限（包含），不限制时传入 Double.POSITIVE_INFINITY
+     */
+    public KShortestPaths(CompactGraph graph, int sourceId, int targetId, ToDoubleFunction<Edge> weightFunction,
+                          int maxPaths, double maxCost) {
+        if (maxPaths < 0) {
+            throw new IllegalArgumentException("路径数量上限不能为负数: " + maxPaths);
+        }
+        this.graph = graph;
+        this.weights = graph.weights(weightFunction);
+        this.source = graph.indexOf(sourceId);
+        this.target = graph.indexOf(targetId);
+        this.maxPaths = maxPaths;
+        this.maxCost = maxCost;
+
+        int n = graph.getVertexCount();
+        distance = new double[n];
+        predecessor = new int[n];
+        stamp = new int[n];
+        blockedVertex = new int[n];
+        blockedNext = new int[n];
+        heap = new IndexedMinHeap(n);
+
+        if (source < 0 || target < 0 || maxPaths == 0) {
+            exhausted = true;
+        } else {
+            Candidate first = spurPath(null, 0);
+            if (first != null) {
+                candidates.add(first);
+                seen.add(first);
+            }
+        }
+    }
+
+    /**
+     * 创建基于景区图当前状态的迭代器
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @param maxPaths 最多产生的路径数
+     * @param maxCost 路径代价上限（包含）
+     * @return 按代价递增的路径迭代器
+     */
+    public static KShortestPaths of(ScenicGraph graph, int sourceId, int targetId,
+                                    Function<Edge, Double> weightFunction, int maxPaths, double maxCost) {
+        return new KShortestPaths(graph.freeze(), sourceId, targetId, weightFunction::apply, maxPaths, maxCost);
+    }
+
+    /**
+     * 创建不限数量和代价的迭代器
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @return 按代价递增的路径迭代器
+     */
+    public static KShortestPaths of(ScenicGraph graph, int sourceId, int targetId,
+                                    Function<Edge, Double> weightFunction) {
+        return of(graph, sourceId, targetId, weightFunction, Integer.MAX_VALUE, Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !exhausted) {
+            pending = advance();
+            exhausted = pending == null;
+        }
+        return pending != null;
+    }
+
+    @Override
+    public List<ScenicSpot> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Candidate path = pending;
+        pending = null;
+        lastCost = path.cost();
+        List<ScenicSpot> result = new ArrayList<>(path.vertices.length);
+        for (int v : path.vertices) {
+            result.add(graph.spotOf(v));
+        }
+        return result;
+    }
+
+    /**
+     * 获取最近一次 {@link #next()} 返回路径的代价
+     * @return 路径代价，尚未返回路径时为NaN
+     */
+    public double getLastCost() {
+        return lastCost;
+    }
+
+    /**
+     * 取出下一条路径，并以它为父路径生成新的候选
+     */
+    private Candidate advance() {
+        if (found.size() >= maxPaths || candidates.isEmpty()) {
+            return null;
+        }
+        Candidate best = candidates.poll();
+        if (best.cost() > maxCost) {
+            candidates.clear();
+            return null;
+        }
+        found.add(best);
+
+        // Lawler优化：偏离点之前的前缀与父路径相同，那些位置的候选已由父路径生成过
+        if (found.size() < maxPaths) {
+            for (int i = best.deviation; i < best.vertices.length - 1; i++) {
+                Candidate candidate = spurPath(best, i);
+                if (candidate != null && candidate.cost() <= maxCost && seen.add(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 以 parent 的前 spurIndex+1 个顶点为根路径，求从偏离点到终点的最短延伸
+     * @param parent 父路径，为null时求第一条最短路径
+     * @param spurIndex 偏离点在父路径中的位置
+     * @return 新候选，不存在时返回null
+     */
+    private Candidate spurPath(Candidate parent, int spurIndex) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(blockedVertex, 0);
+            Arrays.fill(blockedNext, 0);
+            epoch = 1;
+        }
+
+        int spur = source;
+        double rootCost = 0.0;
+        if (parent != null) {
+            spur = parent.vertices[spurIndex];
+            rootCost = parent.prefix[spurIndex];
+            for (int i = 0; i < spurIndex; i++) {
+                blockedVertex[parent.vertices[i]] = epoch;
+            }
+            // 已产生的路径中与根路径相同的，不能再沿同一条边离开偏离点
+            for (Candidate path : found) {
+                if (path.vertices.length > spurIndex + 1 && samePrefix(path, parent, spurIndex)) {
+                    blockedNext[path.vertices[spurIndex + 1]] = epoch;
+                }
+            }
+        }
+
+        // 受限Dijkstra：从偏离点出发，避开根路径顶点和被禁止的首条边
+        heap.clear();
+        stamp[spur] = epoch;
+        distance[spur] = 0.0;
+        predecessor[spur] = -1;
+        heap.offer(spur, 0.0);
+        boolean reached = false;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            if (current == target) {
+                reached = true;
+                break;
+            }
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                if (blockedVertex[neighbor] == epoch || (current == spur && blockedNext[neighbor] == epoch)) {
+                    continue;
+                }
+                double newDistance = distance[current] + weights[e];
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                } else if (newDistance >= distance[neighbor]) {
+                    continue;
+                }
+                distance[neighbor] = newDistance;
+                predecessor[neighbor] = current;
+                heap.offer(neighbor, newDistance);
+            }
+        }
+        heap.clear();
+        if (!reached) {
+            return null;
+        }
+
+        // 拼接根路径与延伸路径
+        int spurLength = 0;
+        for (int at = target; at >= 0; at = predecessor[at]) {
+            spurLength++;
+        }
+        int length = spurIndex + spurLength;
+        int[] vertices = new int[length];
+        double[] prefix = new double[length];
+        if (parent != null) {
+            System.arraycopy(parent.vertices, 0, vertices, 0, spurIndex);
+            System.arraycopy(parent.prefix, 0, prefix, 0, spurIndex);
+        }
+        int position = length - 1;
+        for (int at = target; at >= 0; at = predecessor[at]) {
+            vertices[position] = at;
+            prefix[position] = rootCost + distance[at];
+            position--;
+        }
+        return new Candidate(vertices, prefix, spurIndex);
+    }
+
+    /**
+     * 两条路径的前 length+1 个顶点是否相同
+     */
+    private static boolean samePrefix(Candidate a, Candidate b, int length) {
+        for (int i = 0; i <= length; i++) {
+            if (a.vertices[i] != b.vertices[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,434 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeChangeListener;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * ALT启发式（A*、地标、三角不等式）
+ * 预先计算每个地标到所有顶点、所有顶点到每个地标的最短距离，
+ * 由三角不等式得到 d(v,t) ≥ max(d(L,t) - d(L,v), d(v,L) - d(t,L))，作为A*的可采纳下界。
+ * 与欧氏启发式不同，该下界基于实际权重，拥挤加权和接驳车边不会削弱它。
+ * 边权重变化后距离表在后台线程重算。{@link #heuristic()} 和 {@link #spotHeuristic()} 在创建时取定一张距离表，
+ * 整次查询都用它估计，后台换表不会让同一次查询中的启发值前后不一致；因此每次查询都应重新获取启发式函数。
+ * 创建时距离表已过期则整次查询返回0（退化为Dijkstra，仍然正确）：过期的表只在边权重只增不减时仍是下界，
+ * 权重变小后它可能高估剩余代价。顶点或边的增删需要调用 {@link #rebuild()} 重新选取地标。
+ * 本类以库的形式提供，界面中的点到点路径目前由东门最短路径树和全源最短路径表给出，不经过A*；
+ * 需要时创建实例，每次查询把 {@link #heuristic()} 或 {@link #spotHeuristic()} 传给 {@link ShortestPath#aStar}。
+ */
+public class LandmarkHeuristic implements EdgeChangeListener {
+    /**
+     * 地标选取策略
+     */
+    public enum Selection {
+        FARTHEST,   // 最远点：依次选取距已选地标最远的顶点
+        AVOID       // 回避：选取当前下界最差的最短路径子树中的叶子
+    }
+
+    // 后台重算线程，所有实例共享
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "landmark-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScenicGraph graph;                       // 景区图
+    private final ToDoubleFunction<Edge> weightFunction;   // 权重计算函数
+    private final int landmarkCount;                       // 期望的地标数量
+    private final Selection selection;                     // 地标选取策略
+    private final AtomicLong version = new AtomicLong();   // 边状态变化计数
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private int[] landmarkIds;                             // 已选地标的景点ID
+    private volatile Table table;                          // 当前距离表
+
+    /**
+     * 某一时刻的地标距离表，创建后不再修改
+     */
+    private static final class Table {
+        final CompactGraph snapshot;
+        final int k;                  // 地标数量
+        final double[] fromLandmark;  // [i*n+v] -> d(L_i, v)
+        final double[] toLandmark;    // [i*n+v] -> d(v, L_i)
+        final long version;           // 计算时的边状态版本
+
+        Table(CompactGraph snapshot, int k, double[] fromLandmark, double[] toLandmark, long version) {
+            this.snapshot = snapshot;
+            this.k = k;
+            this.fromLandmark = fromLandmark;
+            this.toLandmark = toLandmark;
+            this.version = version;
+        }
+    }
+
+    /**
+     * 构造函数，立即选取地标并计算距离表，然后开始监听边状态变化
+     * @param graph 景区图
+     * @param weightFunction 权重计算函数
+     * @param landmarkCount 地标数量
+     * @param selection 地标选取策略
+     */
+    public LandmarkHeuristic(ScenicGraph graph, ToDoubleFunction<Edge> weightFunction,
+                             int landmarkCount, Selection selection) {
+        if (landmarkCount <= 0) {
+            throw new IllegalArgumentException("地标数量必须为正数: " + landmarkCount);
+        }
+        this.graph = graph;
+        this.weightFunction = weightFunction;
+        this.landmarkCount = landmarkCount;
+        this.selection = selection;
+        rebuild();
+        graph.addEdgeChangeListener(this);
+    }
+
+    /**
+     * 按图的当前结构重新选取地标并计算距离表
+     */
+    public synchronized void rebuild() {
+        long currentVersion = version.get();
+        CompactGraph snapshot = graph.freeze();
+        int[] landmarks = selection == Selection.AVOID
+                ? selectAvoid(snapshot)
+                : selectFarthest(snapshot);
+        landmarkIds = new int[landmarks.length];
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarkIds[i] = snapshot.idOf(landmarks[i]);
+        }
+        table = computeTable(snapshot, landmarks, currentVersion);
+    }
+
+    /**
+     * 停止监听边状态变化
+     */
+    public void dispose() {
+        graph.removeEdgeChangeListener(this);
+    }
+
+    /**
+     * 边状态变化后距离表失效，并安排后台重算
+     */
+    @Override
+    public void edgeChanged(Edge edge) {
+        version.incrementAndGet();
+        if (refreshScheduled.compareAndSet(false, true)) {
+            REFRESH_EXECUTOR.execute(this::refresh);
+        }
+    }
+
+    /**
+     * 后台重算：沿用已选地标，只更新距离；计算期间若再次发生变化则继续重算
+     */
+    private void refresh() {
+        while (true) {
+            refreshScheduled.set(false);
+            long currentVersion = version.get();
+            synchronized (this) {
+                CompactGraph snapshot = graph.freeze();
+                int[] landmarks = new int[landmarkIds.length];
+                int k = 0;
+                for (int id : landmarkIds) {
+                    int index = snapshot.indexOf(id);
+                    if (index >= 0) {
+                        landmarks[k++] = index;
+                    }
+                }
+                table = computeTable(snapshot, Arrays.copyOf(landmarks, k), currentVersion);
+            }
+            if (version.get() == currentVersion || !refreshScheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 距离表是否因边状态变化而过期
+     * @return 如果过期返回true
+     */
+    public boolean isStale() {
+        return table.version != version.get();
+    }
+
+    /**
+     * 获取已选地标的景点ID
+     * @return 景点ID数组
+     */
+    public synchronized int[] getLandmarkIds() {
+        return landmarkIds.clone();
+    }
+
+    /**
+     * 计算两个景点间最短距离的下界，每次调用都读取当前距离表；
+     * A*查询请使用 {@link #heuristic()} 或 {@link #spotHeuristic()}，保证整次查询用同一张表
+     * @param fromId 当前景点ID
+     * @param toId 终点景点ID
+     * @return 距离下界，距离表过期或景点未知时为0
+     */
+    public double estimate(int fromId, int toId) {
+        Table current = currentTable();
+        return current == null ? 0.0 : estimate(current, fromId, toId);
+    }
+
+    /**
+     * 获取可用于 {@link ShortestPath#aStar(ScenicGraph, int, int, java.util.function.Function, BiFunction)} 的启发式函数
+     * 创建时取定当前距离表，供一次查询使用
+     * @return 启发式函数
+     */
+    public BiFunction<Vertex, Vertex, Double> heuristic() {
+        Table current = currentTable();
+        if (current == null) {
+            return (from, to) -> 0.0;
+        }
+        return (from, to) -> estimate(current, from.getSpot().getId(), to.getSpot().getId());
+    }
+
+    /**
+     * 获取可用于紧凑图A*的启发式函数
+     * 创建时取定当前距离表，供一次查询使用
+     * @return 启发式函数
+     */
+    public BiFunction<ScenicSpot, ScenicSpot, Double> spotHeuristic() {
+        Table current = currentTable();
+        if (current == null) {
+            return (from, to) -> 0.0;
+        }
+        return (from, to) -> estimate(current, from.getId(), to.getId());
+    }
+
+    /**
+     * 获取未过期的距离表，已过期时返回null
+     */
+    private Table currentTable() {
+        Table current = table;
+        return current.version == version.get() ? current : null;
+    }
+
+    /**
+     * 用指定距离表计算下界
+     */
+    private static double estimate(Table current, int fromId, int toId) {
+        int v = current.snapshot.indexOf(fromId);
+        int t = current.snapshot.indexOf(toId);
+        if (v < 0 || t < 0 || v == t) {
+            return 0.0;
+        }
+        int n = current.snapshot.getVertexCount();
+        double bound = 0.0;
+        for (int i = 0; i < current.k; i++) {
+            int row = i * n;
+            double lt = current.fromLandmark[row + t];
+            double lv = current.fromLandmark[row + v];
+            if (lt < Double.POSITIVE_INFINITY && lv < Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, lt - lv);
+            }
+            double vl = current.toLandmark[row + v];
+            double tl = current.toLandmark[row + t];
+            if (vl < Double.POSITIVE_INFINITY && tl < Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, vl - tl);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * 对每个地标计算正向和反向距离，各地标之间并行
+     */
+    private Table computeTable(CompactGraph snapshot, int[] landmarks, long tableVersion) {
+        int n = snapshot.getVertexCount();
+        int k = landmarks.length;
+        double[] fromLandmark = new double[k * n];
+        double[] toLandmark = new double[k * n];
+        IntStream.range(0, k).parallel().forEach(i -> {
+            DijkstraEngine engine = DijkstraEngine.local();
+            engine.run(snapshot, landmarks[i], weightFunction);
+            for (int v = 0; v < n; v++) {
+                fromLandmark[i * n + v] = engine.distance(v);
+            }
+            // 无向图中往返两条边的拥挤状态可能不同，因此反向距离总是单独计算
+            engine.runReverse(snapshot, landmarks[i], weightFunction);
+            for (int v = 0; v < n; v++) {
+                toLandmark[i * n + v] = engine.distance(v);
+            }
+        });
+        return new Table(snapshot, k, fromLandmark, toLandmark, tableVersion);
+    }
+
+    /**
+     * 最远点选取：第一个地标取距顶点0最远的顶点，之后每次取距已选地标最近距离最大的顶点；
+     * 同时考虑往返两个方向，不可达顶点视为无限远，从而优先覆盖其他连通分量
+     */
+    private int[] selectFarthest(CompactGraph snapshot) {
+        int n = snapshot.getVertexCount();
+        int k = Math.min(landmarkCount, n);
+        int[] landmarks = new int[k];
+        if (k == 0) {
+            return landmarks;
+        }
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        DijkstraEngine engine = DijkstraEngine.local();
+
+        engine.run(snapshot, 0, weightFunction);
+        landmarks[0] = farthest(engine, n, null);
+        for (int i = 0; i < k; i++) {
+            if (i > 0) {
+                landmarks[i] = farthest(null, n, nearest);
+            }
+            engine.run(snapshot, landmarks[i], weightFunction);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], engine.distance(v));
+            }
+            engine.runReverse(snapshot, landmarks[i], weightFunction);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], engine.distance(v));
+            }
+            nearest[landmarks[i]] = -1.0;
+        }
+        return landmarks;
+    }
+
+    /**
+     * 选取得分最高的顶点，得分为搜索距离（engine不为空时）或与已选地标的最近距离
+     */
+    private static int farthest(DijkstraEngine engine, int n, double[] nearest) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            double score = engine != null ? engine.distance(v) : nearest[v];
+            if (score > bestScore) {
+                bestScore = score;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 回避选取：以一个根构建最短路径树，顶点权值为 d(r,v) 与当前下界之差，
+     * 子树规模为不含地标的子树中权值之和；从规模最大的顶点出发沿规模最大的子节点下行到叶子，
+     * 该叶子即为下界最差区域的"背后"，作为新地标
+     */
+    private int[] selectAvoid(CompactGraph snapshot) {
+        int n = snapshot.getVertexCount();
+        int k = Math.min(landmarkCount, n);
+        int[] landmarks = new int[k];
+        boolean[] isLandmark = new boolean[n];
+        double[] fromLandmark = new double[k * n];
+        double[] toLandmark = new double[k * n];
+        double[] size = new double[n];
+        int[] childOffsets = new int[n + 1];
+        int[] children = new int[n];
+        DijkstraEngine engine = DijkstraEngine.local();
+        Random random = new Random(n);
+
+        for (int i = 0; i < k; i++) {
+            // 根随机选取，种子固定以保证结果可复现
+            int root = random.nextInt(n);
+            engine.run(snapshot, root, weightFunction);
+
+            // 顶点权值：真实距离与地标下界之差
+            for (int v = 0; v < n; v++) {
+                double d = engine.distance(v);
+                if (d == Double.POSITIVE_INFINITY) {
+                    size[v] = 0.0;
+                    continue;
+                }
+                double bound = 0.0;
+                for (int j = 0; j < i; j++) {
+                    double lv = fromLandmark[j * n + v];
+                    double lr = fromLandmark[j * n + root];
+                    if (lv < Double.POSITIVE_INFINITY && lr < Double.POSITIVE_INFINITY) {
+                        bound = Math.max(bound, lv - lr);
+                    }
+                    double rl = toLandmark[j * n + root];
+                    double vl = toLandmark[j * n + v];
+                    if (rl < Double.POSITIVE_INFINITY && vl < Double.POSITIVE_INFINITY) {
+                        bound = Math.max(bound, rl - vl);
+                    }
+                }
+                size[v] = d - bound;
+            }
+
+            // 按确定顺序的逆序累加子树规模，含地标的子树规模记为0
+            boolean[] hasLandmark = new boolean[n];
+            for (int s = engine.getSettledCount() - 1; s >= 0; s--) {
+                int v = engine.settledVertex(s);
+                if (isLandmark[v]) {
+                    hasLandmark[v] = true;
+                }
+                if (hasLandmark[v]) {
+                    size[v] = 0.0;
+                }
+                int parent = engine.predecessor(v);
+                if (parent >= 0) {
+                    hasLandmark[parent] |= hasLandmark[v];
+                    size[parent] += size[v];
+                }
+            }
+
+            // 构建最短路径树的子节点表
+            Arrays.fill(childOffsets, 0);
+            for (int s = 0; s < engine.getSettledCount(); s++) {
+                int parent = engine.predecessor(engine.settledVertex(s));
+                if (parent >= 0) {
+                    childOffsets[parent + 1]++;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                childOffsets[v + 1] += childOffsets[v];
+            }
+            int[] fill = Arrays.copyOf(childOffsets, n);
+            for (int s = 0; s < engine.getSettledCount(); s++) {
+                int v = engine.settledVertex(s);
+                int parent = engine.predecessor(v);
+                if (parent >= 0) {
+                    children[fill[parent]++] = v;
+                }
+            }
+
+            // 从规模最大的顶点下行到叶子
+            int current = -1;
+            for (int v = 0; v < n; v++) {
+                if (!isLandmark[v] && (current < 0 || size[v] > size[current])) {
+                    current = v;
+                }
+            }
+            while (true) {
+                int next = -1;
+                for (int c = childOffsets[current]; c < childOffsets[current + 1]; c++) {
+                    int child = children[c];
+                    if (size[child] > 0 && (next < 0 || size[child] > size[next])) {
+                        next = child;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                current = next;
+            }
+
+            landmarks[i] = current;
+            isLandmark[current] = true;
+            engine.run(snapshot, current, weightFunction);
+            for (int v = 0; v < n; v++) {
+                fromLandmark[i * n + v] = engine.distance(v);
+            }
+            engine.runReverse(snapshot, current, weightFunction);
+            for (int v = 0; v < n; v++) {
+                toLandmark[i * n + v] = engine.distance(v);
+            }
+        }
+        return landmarks;
+    }
+}
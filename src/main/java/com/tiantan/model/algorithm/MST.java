@@ -1,129 +1,268 @@
 package com.tiantan.model.algorithm;
 
 import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
 import com.tiantan.model.graph.Edge;
 import com.tiantan.model.graph.ScenicGraph;
-import com.tiantan.model.graph.Vertex;
+import com.tiantan.util.ConcurrentDisjointSet;
+import com.tiantan.util.DisjointSet;
+import com.tiantan.util.IntList;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 /**
  * 最小生成树算法实现类
  */
 public class MST {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;   // 边槽位或顶点达到该数量时并行计算
     
     /**
      * Kruskal算法实现最小生成树
+     * 在景区图最新发布的快照上计算，不受并发的边状态更新影响
      * 
      * @param graph 景区图
      * @param weightFunction 权重计算函数
-     * @return 最小生成树的边集合
+     * @return 最小生成树的边集合（快照中的只读边）
      */
     public static List<Edge> kruskal(ScenicGraph graph, Function<Edge, Double> weightFunction) {
+        return kruskal(graph.freeze(), weightFunction::apply);
+    }
+    
+    /**
+     * Prim算法实现最小生成树
+     * 在景区图最新发布的快照上计算，不受并发的边状态更新影响
+     * 
+     * @param graph 景区图
+     * @param startId 起始顶点ID
+     * @param weightFunction 权重计算函数
+     * @return 最小生成树的边集合（快照中的只读边）
+     */
+    public static List<Edge> prim(ScenicGraph graph, int startId, Function<Edge, Double> weightFunction) {
+        return prim(graph.freeze(), startId, weightFunction::apply);
+    }
+    
+    /**
+     * 基于紧凑快照的Kruskal算法
+     * 边权重只求值一次，按权重对边槽位做稳定的基数排序（不装箱、不调用比较器），
+     * 再用按大小合并、路径减半的并查集依次接受连接不同连通分量的边。
+     * 
+     * @param graph 紧凑图快照
+     * @param weightFunction 权重计算函数
+     * @return 最小生成树的边集合
+     */
+    public static List<Edge> kruskal(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
         List<Edge> mst = new ArrayList<>();
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        double[] weights = graph.weights(weightFunction);
         
-        // 获取所有边并按权重排序
-        List<Edge> allEdges = new ArrayList<>(graph.getEdges());
-        allEdges.sort(Comparator.comparing(weightFunction));
+        // 收集候选边槽位及其排序键，自环不可能进入生成树
+        int[] order = new int[m];
+        long[] keys = new long[m];
+        int count = 0;
+        for (int e = 0; e < m; e++) {
+            if (graph.source(e) == graph.target(e)) {
+                continue;
+            }
+            order[count] = e;
+            keys[count] = sortableBits(weights[e]);
+            count++;
+        }
+        radixSort(keys, order, count);
         
-        // 初始化并查集
-        Map<Integer, Integer> parent = new HashMap<>();
-        for (Vertex vertex : graph.getVertices()) {
-            int id = vertex.getSpot().getId();
-            parent.put(id, id); // 每个顶点初始是自己的代表元素
+        DisjointSet components = new DisjointSet(n);
+        for (int i = 0; i < count && mst.size() < n - 1; i++) {
+            int e = order[i];
+            if (components.union(graph.source(e), graph.target(e))) {
+                mst.add(graph.edge(e));
+            }
         }
         
-        // 处理每条边
-        for (Edge edge : allEdges) {
-            int fromId = edge.getFrom().getSpot().getId();
-            int toId = edge.getTo().getSpot().getId();
-            
-            // 如果两个顶点不在同一个集合中，则添加这条边
-            if (find(parent, fromId) != find(parent, toId)) {
-                mst.add(edge);
-                union(parent, fromId, toId);
+        return mst;
+    }
+    
+    /**
+     * 把double映射为按有符号long比较时保持原大小顺序的位模式
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+    
+    /**
+     * 按键对前 count 个元素做稳定的LSD基数排序，每轮处理16位；
+     * 所有键在某一轮取值相同时跳过该轮（景区路网的权重通常只在低位不同）
+     */
+    private static void radixSort(long[] keys, int[] values, int count) {
+        long[] keyBuffer = new long[count];
+        int[] valueBuffer = new int[count];
+        int[] buckets = new int[1 << 16];
+        for (int shift = 0; shift < 64; shift += 16) {
+            // 最高一轮翻转符号位，使负数排在前面
+            long flip = shift == 48 ? 0x8000L : 0L;
+            Arrays.fill(buckets, 0);
+            for (int i = 0; i < count; i++) {
+                buckets[(int) (((keys[i] >>> shift) & 0xFFFF) ^ flip)]++;
             }
-            
-            // 如果已经有n-1条边，MST构建完成
-            if (mst.size() == graph.getVertexCount() - 1) {
-                break;
+            if (count == 0 || buckets[(int) (((keys[0] >>> shift) & 0xFFFF) ^ flip)] == count) {
+                continue;
             }
+            for (int b = 0, sum = 0; b < buckets.length; b++) {
+                int c = buckets[b];
+                buckets[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int b = (int) (((keys[i] >>> shift) & 0xFFFF) ^ flip);
+                int position = buckets[b]++;
+                keyBuffer[position] = keys[i];
+                valueBuffer[position] = values[i];
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, count);
+            System.arraycopy(valueBuffer, 0, values, 0, count);
+        }
+    }
+    
+    /**
+     * 并行Borůvka算法实现最小生成树
+     * 在景区图最新发布的快照上计算，适合大规模路网
+     * 
+     * @param graph 景区图
+     * @param weightFunction 权重计算函数
+     * @return 最小生成树的边集合（快照中的只读边），按边槽位排列
+     */
+    public static List<Edge> boruvka(ScenicGraph graph, Function<Edge, Double> weightFunction) {
+        return boruvka(graph.freeze(), weightFunction::apply);
+    }
+    
+    /**
+     * 基于紧凑快照的并行Borůvka算法
+     * 每轮在边数组上并行扫描边槽位，剔除两端已在同一连通分量内的，并用CAS为每个分量记录最便宜的关联边，
+     * 再并行地用无锁并查集合并这些边；
+     * 每轮至少使分量数减半，因此最多 O(log n) 轮。
+     * 边按（权重，槽位）全序比较，即使权重相同也不会成环，结果与Kruskal选出的边集完全相同。
+     * 
+     * @param graph 紧凑图快照
+     * @param weightFunction 权重计算函数
+     * @return 最小生成树的边集合，按边槽位排列
+     */
+    public static List<Edge> boruvka(CompactGraph graph, ToDoubleFunction<Edge> weightFunction) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        double[] weights = graph.weights(weightFunction);
+        ConcurrentDisjointSet components = new ConcurrentDisjointSet(n);
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);   // 分量的根 -> 最便宜的关联边槽位
+        boolean[] chosen = new boolean[m];
+        
+        for (int v = 0; v < n; v++) {
+            cheapest.set(v, -1);
+        }
+        int[] active = parallelIf(IntStream.range(0, m), m)
+                .filter(e -> graph.source(e) != graph.target(e))
+                .toArray();
+        while (active.length > 0) {
+            // 为每个分量找出最便宜的关联边，同时剔除两端已在同一分量内的边槽位
+            active = parallelIf(IntStream.of(active), active.length)
+                    .filter(e -> {
+                        int rootFrom = components.find(graph.source(e));
+                        int rootTo = components.find(graph.target(e));
+                        if (rootFrom == rootTo) {
+                            return false;
+                        }
+                        offerCheapest(cheapest, rootFrom, e, weights);
+                        offerCheapest(cheapest, rootTo, e, weights);
+                        return true;
+                    })
+                    .toArray();
+            
+            // 合并并清空记录；两个分量选中同一条边时只有一次合并成功
+            parallelIf(IntStream.range(0, n), n).forEach(v -> {
+                int e = cheapest.get(v);
+                if (e >= 0) {
+                    cheapest.set(v, -1);
+                    if (components.union(graph.source(e), graph.target(e))) {
+                        chosen[e] = true;
+                    }
+                }
+            });
         }
         
+        List<Edge> mst = new ArrayList<>();
+        for (int e = 0; e < m; e++) {
+            if (chosen[e]) {
+                mst.add(graph.edge(e));
+            }
+        }
         return mst;
     }
     
     /**
-     * 并查集查找操作（带路径压缩）
+     * 若边槽位 e 按（权重，槽位）比当前记录的更便宜，则用CAS替换分量的最便宜边
      */
-    private static int find(Map<Integer, Integer> parent, int x) {
-        if (parent.get(x) != x) {
-            parent.put(x, find(parent, parent.get(x)));
+    private static void offerCheapest(AtomicIntegerArray cheapest, int root, int e, double[] weights) {
+        while (true) {
+            int current = cheapest.get(root);
+            if (current >= 0) {
+                int cmp = Double.compare(weights[e], weights[current]);
+                if (cmp > 0 || (cmp == 0 && e >= current)) {
+                    return;
+                }
+            }
+            if (cheapest.compareAndSet(root, current, e)) {
+                return;
+            }
         }
-        return parent.get(x);
     }
     
     /**
-     * 并查集合并操作
+     * 元素数量达到阈值时并行处理，小图上避免并行调度的开销
      */
-    private static void union(Map<Integer, Integer> parent, int x, int y) {
-        int rootX = find(parent, x);
-        int rootY = find(parent, y);
-        parent.put(rootX, rootY);
+    private static IntStream parallelIf(IntStream stream, int size) {
+        return size >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
     }
     
     /**
-     * Prim算法实现最小生成树
+     * 基于紧凑快照的Prim算法
      * 
-     * @param graph 景区图
+     * @param graph 紧凑图快照
      * @param startId 起始顶点ID
      * @param weightFunction 权重计算函数
      * @return 最小生成树的边集合
      */
-    public static List<Edge> prim(ScenicGraph graph, int startId, Function<Edge, Double> weightFunction) {
+    public static List<Edge> prim(CompactGraph graph, int startId, ToDoubleFunction<Edge> weightFunction) {
         List<Edge> mst = new ArrayList<>();
-        
-        // 获取起始顶点
-        Vertex start = graph.getVertex(startId);
-        if (start == null || graph.getVertexCount() == 0) {
+        int start = graph.indexOf(startId);
+        if (start < 0) {
             return mst;
         }
         
-        // 已包含在MST中的顶点
-        Set<Integer> included = new HashSet<>();
-        included.add(startId);
+        int n = graph.getVertexCount();
+        double[] weights = graph.weights(weightFunction);
+        BitSet included = new BitSet(n);
+        included.set(start);
         
-        // 候选边优先队列，按权重排序
         PriorityQueue<EdgeWithWeight> candidateEdges = new PriorityQueue<>();
-        
-        // 将起始顶点的所有邻接边加入候选集
-        for (Edge edge : start.getAdjacent()) {
-            candidateEdges.add(new EdgeWithWeight(edge, weightFunction.apply(edge)));
+        for (int e = graph.edgeStart(start); e < graph.edgeEnd(start); e++) {
+            candidateEdges.add(new EdgeWithWeight(graph.edge(e), weights[e], graph.target(e)));
         }
         
-        // 主循环：直到所有顶点都包含在MST中，或者没有更多的候选边
-        while (!candidateEdges.isEmpty() && included.size() < graph.getVertexCount()) {
-            // 取出权重最小的边
-            Edge minEdge = candidateEdges.poll().edge;
-            int toId = minEdge.getTo().getSpot().getId();
-            
-            // 如果目标顶点已经在MST中，则跳过
-            if (included.contains(toId)) {
+        while (!candidateEdges.isEmpty() && mst.size() < n - 1) {
+            EdgeWithWeight min = candidateEdges.poll();
+            int to = min.target;
+            if (included.get(to)) {
                 continue;
             }
+            mst.add(min.edge);
+            included.set(to);
             
-            // 将边添加到MST中
-            mst.add(minEdge);
-            included.add(toId);
-            
-            // 将新顶点的所有邻接边加入候选集
-            Vertex newVertex = graph.getVertex(toId);
-            for (Edge edge : newVertex.getAdjacent()) {
-                int neighborId = edge.getTo().getSpot().getId();
-                // 只考虑不在MST中的顶点
-                if (!included.contains(neighborId)) {
-                    candidateEdges.add(new EdgeWithWeight(edge, weightFunction.apply(edge)));
+            for (int e = graph.edgeStart(to); e < graph.edgeEnd(to); e++) {
+                if (!included.get(graph.target(e))) {
+                    candidateEdges.add(new EdgeWithWeight(graph.edge(e), weights[e], graph.target(e)));
                 }
             }
         }
@@ -137,10 +276,12 @@ public class MST {
     private static class EdgeWithWeight implements Comparable<EdgeWithWeight> {
         private final Edge edge;
         private final double weight;
+        private final int target;
         
-        EdgeWithWeight(Edge edge, double weight) {
+        EdgeWithWeight(Edge edge, double weight, int target) {
             this.edge = edge;
             this.weight = weight;
+            this.target = target;
         }
         
         @Override
@@ -174,47 +315,61 @@ public class MST {
             adjList.computeIfAbsent(toId, k -> new ArrayList<>()).add(fromId);
         }
         
-        // 保存遍历结果
-        List<ScenicSpot> path = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
+        // 景点ID -> 景点
+        Map<Integer, ScenicSpot> spots = new HashMap<>();
+        for (Edge edge : mstEdges) {
+            spots.put(edge.getFrom().getSpot().getId(), edge.getFrom().getSpot());
+            spots.put(edge.getTo().getSpot().getId(), edge.getTo().getSpot());
+        }
         
         // 获取第一条边的任一端点作为起点（如果未指定）
         if (startId == -1) {
             Edge firstEdge = mstEdges.get(0);
             startId = firstEdge.getFrom().getSpot().getId();
+        } else if (!spots.containsKey(startId)) {
+            return Collections.emptyList();
         }
         
         // 执行DFS遍历
-        dfsTraversal(adjList, startId, visited, path, mstEdges);
+        List<ScenicSpot> path = new ArrayList<>();
+        dfsTraversal(adjList, startId, spot -> path.add(spots.get(spot)));
         
         return path;
     }
     
     /**
-     * DFS遍历MST
+     * 迭代式DFS遍历MST，访问顺序与递归先序遍历相同
+     * 使用显式的顶点栈和邻接游标栈，访问标记使用以景点ID为下标的BitSet
      */
-    private static void dfsTraversal(Map<Integer, List<Integer>> adjList, int current, 
-                                  Set<Integer> visited, List<ScenicSpot> path, List<Edge> mstEdges) {
-        // 标记当前顶点为已访问
-        visited.add(current);
+    private static void dfsTraversal(Map<Integer, List<Integer>> adjList, int startId, IntConsumer visitor) {
+        BitSet visited = new BitSet();
+        IntList stack = new IntList();
+        IntList cursor = new IntList();
         
-        // 将当前顶点的景点添加到路径
-        for (Edge edge : mstEdges) {
-            if (edge.getFrom().getSpot().getId() == current) {
-                path.add(edge.getFrom().getSpot());
-                break;
-            } else if (edge.getTo().getSpot().getId() == current) {
-                path.add(edge.getTo().getSpot());
-                break;
-            }
-        }
+        visited.set(startId);
+        visitor.accept(startId);
+        stack.push(startId);
+        cursor.push(0);
         
-        // 访问所有未访问的邻接顶点
-        List<Integer> neighbors = adjList.getOrDefault(current, Collections.emptyList());
-        for (int neighbor : neighbors) {
-            if (!visited.contains(neighbor)) {
-                dfsTraversal(adjList, neighbor, visited, path, mstEdges);
+        while (!stack.isEmpty()) {
+            List<Integer> neighbors = adjList.getOrDefault(stack.peek(), Collections.emptyList());
+            int position = cursor.peek();
+            while (position < neighbors.size() && visited.get(neighbors.get(position))) {
+                position++;
             }
+            if (position == neighbors.size()) {
+                stack.pop();
+                cursor.pop();
+                continue;
+            }
+            cursor.set(cursor.size() - 1, position + 1);
+            
+            // 访问下一个未访问的邻接顶点并压栈
+            int neighbor = neighbors.get(position);
+            visited.set(neighbor);
+            visitor.accept(neighbor);
+            stack.push(neighbor);
+            cursor.push(0);
         }
     }
     
@@ -229,59 +384,36 @@ public class MST {
      */
     public static List<ScenicSpot> approximateTSP(ScenicGraph graph, int startId, 
                                               Function<Edge, Double> weightFunction) {
-        // 获取MST
-        List<Edge> mstEdges = prim(graph, startId, weightFunction);
-        
-        // 构建MST的先序遍历
-        List<ScenicSpot> preorderWalk = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        
-        // 获取起始顶点
-        Vertex start = graph.getVertex(startId);
-        if (start == null) {
+        // 在同一快照上获取MST和景点，保证结果一致
+        CompactGraph snapshot = graph.freeze();
+        int start = snapshot.indexOf(startId);
+        if (start < 0) {
             return Collections.emptyList();
         }
+        List<Edge> mstEdges = prim(snapshot, startId, weightFunction::apply);
         
         // 构建邻接表
-        Map<Integer, List<Vertex>> adjList = new HashMap<>();
+        Map<Integer, List<Integer>> adjList = new HashMap<>();
         for (Edge edge : mstEdges) {
             int fromId = edge.getFrom().getSpot().getId();
             int toId = edge.getTo().getSpot().getId();
             
             // 添加正向边
-            adjList.computeIfAbsent(fromId, k -> new ArrayList<>()).add(edge.getTo());
+            adjList.computeIfAbsent(fromId, k -> new ArrayList<>()).add(toId);
             
             // 添加反向边
-            adjList.computeIfAbsent(toId, k -> new ArrayList<>()).add(edge.getFrom());
+            adjList.computeIfAbsent(toId, k -> new ArrayList<>()).add(fromId);
         }
         
         // 执行先序遍历
-        preorderTraversal(adjList, start, visited, preorderWalk);
+        List<ScenicSpot> preorderWalk = new ArrayList<>();
+        dfsTraversal(adjList, startId, spotId -> preorderWalk.add(snapshot.spotOf(snapshot.indexOf(spotId))));
         
         // 添加起点以形成环路（如果需要返回起点）
         if (!preorderWalk.isEmpty() && preorderWalk.get(0).getId() != startId) {
-            preorderWalk.add(start.getSpot());
+            preorderWalk.add(snapshot.spotOf(start));
         }
         
         return preorderWalk;
     }
-    
-    /**
-     * MST的先序遍历
-     */
-    private static void preorderTraversal(Map<Integer, List<Vertex>> adjList, Vertex current, 
-                                       Set<Integer> visited, List<ScenicSpot> preorderWalk) {
-        int currentId = current.getSpot().getId();
-        visited.add(currentId);
-        preorderWalk.add(current.getSpot());
-        
-        // 访问所有未访问的邻接顶点
-        List<Vertex> neighbors = adjList.getOrDefault(currentId, Collections.emptyList());
-        for (Vertex neighbor : neighbors) {
-            int neighborId = neighbor.getSpot().getId();
-            if (!visited.contains(neighborId)) {
-                preorderTraversal(adjList, neighbor, visited, preorderWalk);
-            }
-        }
-    }
-}
\ No newline at end of file
+}
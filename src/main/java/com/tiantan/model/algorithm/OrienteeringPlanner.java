@@ -0,0 +1,461 @@
+package com.tiantan.model.algorithm;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * 定向越野（奖励收集）路线规划
+ * 在给定起点、终点和时间预算下，从候选景点中选取并排序一部分景点，使景点得分之和最大；
+ * 景点间的路程时间和景点游览时间都计入预算。
+ * 除起点和终点外得分为正的景点不超过 {@value #EXACT_MAX_CANDIDATES} 个时，按子集动态规划求出最优解；
+ * 否则采用GRASP：每轮先以随机化贪心插入构造路线，再用2-opt缩短路程、继续插入、
+ * 以高分景点替换低分景点等局部搜索改进；多个工作线程并行独立迭代，
+ * 到达时限或连续 {@value #MAX_STALLED_ITERATIONS} 轮没有找到更好的解时停止，取最优解。
+ */
+public class OrienteeringPlanner {
+    private static final double EPSILON = 1e-9;
+    private static final int CANDIDATE_LIST_SIZE = 4;   // 随机化贪心的候选名单长度
+    private static final int EXACT_MAX_CANDIDATES = 12; // 精确求解的最大候选景点数（不含起点和终点）
+    private static final int MAX_STALLED_ITERATIONS = 200;  // 工作线程连续多少轮没有改进后停止
+
+    private final int n;                  // 候选景点数量
+    private final double[] travelTime;    // 行优先的 n×n 路程时间矩阵（分钟）
+    private final double[] visitTime;     // 景点游览时间（分钟）
+    private final double[] prize;         // 景点得分
+
+    /**
+     * 构造函数
+     * @param travelTime 行优先的 n×n 路程时间矩阵，不可达为正无穷
+     * @param visitTime 每个候选景点的游览时间
+     * @param prize 每个候选景点的得分
+     */
+    public OrienteeringPlanner(double[] travelTime, double[] visitTime, double[] prize) {
+        this.n = prize.length;
+        if (visitTime.length != n || travelTime.length != n * n) {
+            throw new IllegalArgumentException("路程时间矩阵、游览时间和得分的尺寸不一致");
+        }
+        this.travelTime = travelTime;
+        this.visitTime = visitTime;
+        this.prize = prize;
+    }
+
+    /**
+     * 规划路线
+     * @param start 起点下标
+     * @param end 终点下标，可以与起点相同
+     * @param budget 时间预算（分钟）
+     * @param timeLimitMillis 计算时限（毫秒）
+     * @return 访问顺序，以起点开头、终点结尾；起点与终点相同时该下标出现在首尾两处。
+     *         即使超出预算也至少包含起点和终点
+     */
+    public int[] plan(int start, int end, double budget, long timeLimitMillis) {
+        if (start < 0 || start >= n || end < 0 || end >= n) {
+            throw new IndexOutOfBoundsException("起点或终点越界: " + start + ", " + end);
+        }
+        int[] pool = positivePrizeCandidates(start, end);
+        if (pool.length <= EXACT_MAX_CANDIDATES) {
+            return planExact(start, end, budget, pool);
+        }
+        long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        long seed = System.nanoTime();
+
+        return IntStream.range(0, workers).parallel()
+                .mapToObj(w -> new Worker(start, end, budget, new SplittableRandom(seed + w)).run(deadline))
+                .reduce((a, b) -> better(a, b) ? a : b)
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * 除起点和终点外得分为正的景点，得分不为正的景点不会使路线更好
+     */
+    private int[] positivePrizeCandidates(int start, int end) {
+        int[] pool = new int[n];
+        int count = 0;
+        for (int c = 0; c < n; c++) {
+            if (c != start && c != end && prize[c] > 0) {
+                pool[count++] = c;
+            }
+        }
+        return Arrays.copyOf(pool, count);
+    }
+
+    /**
+     * 子集动态规划：time[mask * k + last] 为从起点出发、恰好访问 mask 中的景点并停在 last 的最短耗时，
+     * 只保留未超出预算的状态；最后在能赶到终点的状态中取得分最高、得分相同时耗时最短者
+     */
+    private int[] planExact(int start, int end, double budget, int[] pool) {
+        int k = pool.length;
+        int states = 1 << k;
+        double[] time = new double[states * k];
+        byte[] parent = new byte[states * k];
+        Arrays.fill(time, Double.POSITIVE_INFINITY);
+        double startTime = visitTime[start];
+        double endVisit = end == start ? 0.0 : visitTime[end];
+        for (int c = 0; c < k; c++) {
+            double t = startTime + travelTime[start * n + pool[c]] + visitTime[pool[c]];
+            if (t <= budget + EPSILON) {
+                time[(1 << c) * k + c] = t;
+                parent[(1 << c) * k + c] = -1;
+            }
+        }
+        for (int mask = 1; mask < states; mask++) {
+            for (int last = 0; last < k; last++) {
+                double t = time[mask * k + last];
+                if (t == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int next = 0; next < k; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    double extended = t + travelTime[pool[last] * n + pool[next]] + visitTime[pool[next]];
+                    int state = (mask | (1 << next)) * k + next;
+                    if (extended <= budget + EPSILON && extended < time[state]) {
+                        time[state] = extended;
+                        parent[state] = (byte) last;
+                    }
+                }
+            }
+        }
+
+        // 不访问其他景点的路线总是候选，即使超出预算
+        int bestMask = 0;
+        int bestLast = -1;
+        double bestScore = 0.0;
+        double bestDuration = startTime + travelTime[start * n + end] + endVisit;
+        for (int mask = 1; mask < states; mask++) {
+            double maskScore = 0.0;
+            for (int c = 0; c < k; c++) {
+                if ((mask & (1 << c)) != 0) {
+                    maskScore += prize[pool[c]];
+                }
+            }
+            if (maskScore < bestScore - EPSILON) {
+                continue;
+            }
+            for (int last = 0; last < k; last++) {
+                double total = time[mask * k + last] + travelTime[pool[last] * n + end] + endVisit;
+                if (total > budget + EPSILON) {
+                    continue;
+                }
+                if (maskScore > bestScore + EPSILON || total < bestDuration) {
+                    bestMask = mask;
+                    bestLast = last;
+                    bestScore = maskScore;
+                    bestDuration = total;
+                }
+            }
+        }
+
+        int size = Integer.bitCount(bestMask);
+        int[] route = new int[size + 2];
+        route[0] = start;
+        route[size + 1] = end;
+        for (int mask = bestMask, last = bestLast, i = size; i > 0; i--) {
+            route[i] = pool[last];
+            int previous = parent[mask * k + last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+        return route;
+    }
+
+    /**
+     * 计算访问顺序的得分
+     * @param route 访问顺序
+     * @return 得分之和，起点与终点相同时只计一次
+     */
+    public double score(int[] route) {
+        double total = 0.0;
+        for (int i = 0; i < route.length; i++) {
+            if (i == route.length - 1 && i > 0 && route[i] == route[0]) {
+                break;
+            }
+            total += prize[route[i]];
+        }
+        return total;
+    }
+
+    /**
+     * 计算访问顺序的总耗时
+     * @param route 访问顺序
+     * @return 路程时间与游览时间之和（分钟）
+     */
+    public double duration(int[] route) {
+        double total = 0.0;
+        for (int i = 0; i < route.length; i++) {
+            if (!(i == route.length - 1 && i > 0 && route[i] == route[0])) {
+                total += visitTime[route[i]];
+            }
+            if (i + 1 < route.length) {
+                total += travelTime[route[i] * n + route[i + 1]];
+            }
+        }
+        return total;
+    }
+
+    private boolean better(int[] a, int[] b) {
+        double scoreA = score(a);
+        double scoreB = score(b);
+        if (scoreA != scoreB) {
+            return scoreA > scoreB;
+        }
+        return duration(a) <= duration(b);
+    }
+
+    /**
+     * 单个工作线程的GRASP迭代状态
+     */
+    private final class Worker {
+        private final int start;
+        private final int end;
+        private final double budget;
+        private final SplittableRandom random;
+        private final int[] route;           // 当前路线
+        private int length;                  // 当前路线长度
+        private final boolean[] visited;     // 景点是否在当前路线上
+        private double duration;             // 当前路线耗时
+        private double score;                // 当前路线得分
+        private final int[] candidates = new int[CANDIDATE_LIST_SIZE];
+        private final double[] candidateRatio = new double[CANDIDATE_LIST_SIZE];
+        private final int[] candidatePosition = new int[CANDIDATE_LIST_SIZE];
+
+        Worker(int start, int end, double budget, SplittableRandom random) {
+            this.start = start;
+            this.end = end;
+            this.budget = budget;
+            this.random = random;
+            this.route = new int[n + 1];
+            this.visited = new boolean[n];
+        }
+
+        int[] run(long deadline) {
+            int[] best = null;
+            double bestScore = -1.0;
+            double bestDuration = Double.POSITIVE_INFINITY;
+            int stalled = 0;
+            do {
+                construct();
+                improve(deadline);
+                if (score > bestScore + EPSILON
+                        || (Math.abs(score - bestScore) <= EPSILON && duration < bestDuration - EPSILON)) {
+                    best = Arrays.copyOf(route, length);
+                    bestScore = score;
+                    bestDuration = duration;
+                    stalled = 0;
+                } else {
+                    stalled++;
+                }
+            } while (stalled < MAX_STALLED_ITERATIONS && System.nanoTime() < deadline);
+            return best;
+        }
+
+        /**
+         * 随机化贪心构造：每步在"得分/新增耗时"最高的若干个可行插入中随机选取一个
+         */
+        private void construct() {
+            Arrays.fill(visited, false);
+            route[0] = start;
+            route[1] = end;
+            length = 2;
+            visited[start] = true;
+            visited[end] = true;
+            duration = OrienteeringPlanner.this.duration(Arrays.copyOf(route, length));
+            score = OrienteeringPlanner.this.score(Arrays.copyOf(route, length));
+
+            while (true) {
+                int found = 0;
+                for (int c = 0; c < n; c++) {
+                    if (visited[c] || prize[c] <= 0) {
+                        continue;
+                    }
+                    int position = bestInsertion(c);
+                    if (position < 0) {
+                        continue;
+                    }
+                    double ratio = prize[c] / (insertionCost(c, position) + EPSILON);
+                    // 维护按比值降序的候选名单
+                    int slot = found < CANDIDATE_LIST_SIZE ? found++ : CANDIDATE_LIST_SIZE;
+                    while (slot > 0 && candidateRatio[slot - 1] < ratio) {
+                        if (slot < CANDIDATE_LIST_SIZE) {
+                            candidates[slot] = candidates[slot - 1];
+                            candidateRatio[slot] = candidateRatio[slot - 1];
+                            candidatePosition[slot] = candidatePosition[slot - 1];
+                        }
+                        slot--;
+                    }
+                    if (slot < CANDIDATE_LIST_SIZE) {
+                        candidates[slot] = c;
+                        candidateRatio[slot] = ratio;
+                        candidatePosition[slot] = position;
+                    }
+                }
+                if (found == 0) {
+                    return;
+                }
+                int pick = random.nextInt(found);
+                insert(candidates[pick], candidatePosition[pick]);
+            }
+        }
+
+        /**
+         * 局部搜索：缩短路程、继续插入、替换低分景点，直到无法改进
+         */
+        private void improve(long deadline) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = twoOpt();
+                improved |= insertGreedy();
+                improved |= replace();
+            }
+        }
+
+        /**
+         * 固定首尾的2-opt，只接受缩短耗时的反转
+         */
+        private boolean twoOpt() {
+            boolean any = false;
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int i = 1; i < length - 2; i++) {
+                    for (int j = i + 1; j < length - 1; j++) {
+                        double before = segmentTravel(i - 1, j + 1);
+                        reverse(i, j);
+                        double after = segmentTravel(i - 1, j + 1);
+                        if (after < before - EPSILON) {
+                            duration += after - before;
+                            improved = true;
+                            any = true;
+                        } else {
+                            reverse(i, j);
+                        }
+                    }
+                }
+            }
+            return any;
+        }
+
+        /**
+         * 按比值从高到低确定性地插入所有仍可容纳的景点
+         */
+        private boolean insertGreedy() {
+            boolean any = false;
+            while (true) {
+                int bestCandidate = -1;
+                int bestPosition = -1;
+                double bestRatio = 0.0;
+                for (int c = 0; c < n; c++) {
+                    if (visited[c] || prize[c] <= 0) {
+                        continue;
+                    }
+                    int position = bestInsertion(c);
+                    if (position >= 0) {
+                        double ratio = prize[c] / (insertionCost(c, position) + EPSILON);
+                        if (ratio > bestRatio) {
+                            bestRatio = ratio;
+                            bestCandidate = c;
+                            bestPosition = position;
+                        }
+                    }
+                }
+                if (bestCandidate < 0) {
+                    return any;
+                }
+                insert(bestCandidate, bestPosition);
+                any = true;
+            }
+        }
+
+        /**
+         * 尝试用路线外得分更高的景点替换路线上的景点
+         */
+        private boolean replace() {
+            for (int i = 1; i < length - 1; i++) {
+                int removed = route[i];
+                double removalSaving = removalSaving(i);
+                for (int c = 0; c < n; c++) {
+                    if (visited[c] || prize[c] <= prize[removed]) {
+                        continue;
+                    }
+                    remove(i, removalSaving);
+                    int position = bestInsertion(c);
+                    if (position >= 0) {
+                        insert(c, position);
+                        return true;
+                    }
+                    insert(removed, i);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 在预算内代价最小的插入位置（插入到 position 之前）
+         */
+        private int bestInsertion(int c) {
+            int bestPosition = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int position = 1; position < length; position++) {
+                double cost = insertionCost(c, position);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestPosition = position;
+                }
+            }
+            return duration + bestCost <= budget + EPSILON ? bestPosition : -1;
+        }
+
+        private double insertionCost(int c, int position) {
+            int a = route[position - 1];
+            int b = route[position];
+            return travelTime[a * n + c] + visitTime[c] + travelTime[c * n + b] - travelTime[a * n + b];
+        }
+
+        private void insert(int c, int position) {
+            duration += insertionCost(c, position);
+            score += prize[c];
+            System.arraycopy(route, position, route, position + 1, length - position);
+            route[position] = c;
+            length++;
+            visited[c] = true;
+        }
+
+        private double removalSaving(int i) {
+            int a = route[i - 1];
+            int c = route[i];
+            int b = route[i + 1];
+            return travelTime[a * n + c] + visitTime[c] + travelTime[c * n + b] - travelTime[a * n + b];
+        }
+
+        private void remove(int i, double saving) {
+            int c = route[i];
+            duration -= saving;
+            score -= prize[c];
+            System.arraycopy(route, i + 1, route, i, length - i - 1);
+            length--;
+            visited[c] = false;
+        }
+
+        private void reverse(int i, int j) {
+            while (i < j) {
+                int tmp = route[i];
+                route[i++] = route[j];
+                route[j--] = tmp;
+            }
+        }
+
+        /**
+         * 路线位置 from 到 to 之间的路程时间
+         */
+        private double segmentTravel(int from, int to) {
+            double total = 0.0;
+            for (int k = from; k < to; k++) {
+                total += travelTime[route[k] * n + route[k + 1]];
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.EdgeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 多目标最短路径 - 标号设定法(Martins算法)求Pareto最优路径集合
+ * 同时最小化四个相互独立的标准：路程长度、拥挤路段长度、台阶路段数、无障碍设施缺失的景点数。
+ * 与加权求和不同，它能找到位于Pareto前沿"凹陷"处、任何权重组合都选不中的折中路线，
+ * 一次搜索即可同时给出"最短"、"最不拥挤"、"无台阶"等备选方案。
+ * 标号以并行的基本类型数组存储；每个顶点维护互不支配的标号链表，
+ * 新标号若被该顶点或终点已有标号支配则直接丢弃，并删除被它支配的临时标号。
+ * 队列按各标准的字典序出队，出队的标号不会再被后来的标号支配，因此可以永久确定。
+ * 引擎实例不是线程安全的，请通过 {@link #local()} 获取当前线程专属的实例。
+ */
+public class ParetoSearch {
+    /**
+     * 标准：路程长度（米）
+     */
+    public static final int DISTANCE = 0;
+    /**
+     * 标准：经过的拥挤路段长度（米）
+     */
+    public static final int CROWDING = 1;
+    /**
+     * 标准：经过的台阶路段数
+     */
+    public static final int STAIRS = 2;
+    /**
+     * 标准：途经的无障碍设施缺失的景点数（不含起点）
+     */
+    public static final int BARRIERS = 3;
+    /**
+     * 标准数量
+     */
+    public static final int CRITERIA = 4;
+
+    private static final ThreadLocal<ParetoSearch> LOCAL = ThreadLocal.withInitial(ParetoSearch::new);
+
+    // 边槽位代价，每次搜索开始时计算一次，松弛时只做数组读取
+    private double[] slotCost = new double[0];     // 槽位 * CRITERIA + 标准 -> 代价
+
+    // 标号存储
+    private double[] cost = new double[0];         // 标号 * CRITERIA + 标准 -> 累计代价
+    private int[] labelVertex = new int[0];        // 标号 -> 所在顶点
+    private int[] labelParent = new int[0];        // 标号 -> 前驱标号
+    private int[] labelNext = new int[0];          // 标号 -> 同一顶点链表中的下一个标号
+    private boolean[] dead = new boolean[0];       // 标号是否已被支配而删除
+    private int labelCount;
+
+    // 顶点 -> 互不支配的标号链表头，轮次标记实现 O(1) 重置
+    private int[] head = new int[0];
+    private int[] stamp = new int[0];
+    private int epoch;
+
+    // 按字典序排列的二叉堆，元素为标号，已删除的标号出队时跳过
+    private int[] queue = new int[0];
+    private int queueSize;
+
+    /**
+     * 获取当前线程专属的引擎实例
+     * @return 引擎实例
+     */
+    public static ParetoSearch local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 计算起点到终点的Pareto最优路径集合
+     * 代价向量完全相同的路径只保留一条
+     * @param graph 紧凑图快照
+     * @param source 起点下标
+     * @param target 终点下标
+     * @return Pareto前沿，按路程长度从小到大排列；不可达时为空列表
+     */
+    public List<ParetoPath> search(CompactGraph graph, int source, int target) {
+        prepare(graph);
+        newLabel(source, -1, -1);
+
+        while (queueSize > 0) {
+            int label = poll();
+            if (dead[label]) {
+                continue;
+            }
+            int vertex = labelVertex[label];
+            if (vertex == target) {
+                // 继续经过终点的路径必然被到达终点时的标号支配
+                continue;
+            }
+            for (int e = graph.edgeStart(vertex); e < graph.edgeEnd(vertex); e++) {
+                int neighbor = graph.target(e);
+                if (dominated(target, label, e) || dominated(neighbor, label, e)) {
+                    continue;
+                }
+                removeDominated(neighbor, label, e);
+                newLabel(neighbor, label, e);
+            }
+        }
+
+        List<ParetoPath> front = new ArrayList<>();
+        if (stamp[target] == epoch) {
+            for (int label = head[target]; label >= 0; label = labelNext[label]) {
+                front.add(toPath(graph, label));
+            }
+        }
+        front.sort((a, b) -> Double.compare(a.getDistance(), b.getDistance()));
+        return front;
+    }
+
+    /**
+     * 在Pareto前沿中选取指定标准最小的路径，相同时取路程较短者
+     * @param front Pareto前沿
+     * @param criterion 标准，如 {@link #STAIRS}
+     * @return 选中的路径，前沿为空时返回null
+     */
+    public static ParetoPath best(List<ParetoPath> front, int criterion) {
+        ParetoPath best = null;
+        for (ParetoPath path : front) {
+            if (best == null || path.getCost(criterion) < best.getCost(criterion)
+                    || (path.getCost(criterion) == best.getCost(criterion) && path.getDistance() < best.getDistance())) {
+                best = path;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 重置暂存数组并计算边槽位代价
+     * 景点的无障碍属性可能在快照之外被修改，因此不跨查询缓存
+     */
+    private void prepare(CompactGraph graph) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        if (slotCost.length < m * CRITERIA) {
+            slotCost = new double[m * CRITERIA];
+        }
+        for (int e = 0; e < m; e++) {
+            int base = e * CRITERIA;
+            double weight = graph.weight(e);
+            slotCost[base + DISTANCE] = weight;
+            slotCost[base + CROWDING] = graph.isCrowded(e) ? weight : 0.0;
+            slotCost[base + STAIRS] = graph.edgeType(e) == EdgeType.STAIRS ? 1.0 : 0.0;
+            slotCost[base + BARRIERS] = graph.spotOf(graph.target(e)).isAccessible() ? 0.0 : 1.0;
+        }
+        if (head.length < n) {
+            head = new int[n];
+            stamp = new int[n];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        labelCount = 0;
+        queueSize = 0;
+    }
+
+    /**
+     * 以 parent 经边槽位 slot 延伸得到的代价，是否被顶点上已有标号支配（含相等）
+     */
+    private boolean dominated(int vertex, int parent, int slot) {
+        if (stamp[vertex] != epoch) {
+            return false;
+        }
+        for (int other = head[vertex]; other >= 0; other = labelNext[other]) {
+            if (weaklyDominates(other, parent, slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除顶点上被新代价严格支配的标号
+     */
+    private void removeDominated(int vertex, int parent, int slot) {
+        if (stamp[vertex] != epoch) {
+            return;
+        }
+        int previous = -1;
+        for (int other = head[vertex]; other >= 0; other = labelNext[other]) {
+            if (dominatedBy(other, parent, slot)) {
+                dead[other] = true;
+                if (previous < 0) {
+                    head[vertex] = labelNext[other];
+                } else {
+                    labelNext[previous] = labelNext[other];
+                }
+            } else {
+                previous = other;
+            }
+        }
+    }
+
+    /**
+     * 标号 label 的代价在每个标准上都不大于 parent 经 slot 延伸后的代价
+     */
+    private boolean weaklyDominates(int label, int parent, int slot) {
+        int a = label * CRITERIA;
+        int p = parent * CRITERIA;
+        int s = slot * CRITERIA;
+        for (int c = 0; c < CRITERIA; c++) {
+            if (cost[a + c] > cost[p + c] + slotCost[s + c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 标号 label 的代价被 parent 经 slot 延伸后的代价支配（不相等）
+     */
+    private boolean dominatedBy(int label, int parent, int slot) {
+        int a = label * CRITERIA;
+        int p = parent * CRITERIA;
+        int s = slot * CRITERIA;
+        boolean strict = false;
+        for (int c = 0; c < CRITERIA; c++) {
+            double extended = cost[p + c] + slotCost[s + c];
+            if (extended > cost[a + c]) {
+                return false;
+            }
+            strict |= extended < cost[a + c];
+        }
+        return strict;
+    }
+
+    /**
+     * 创建标号，加入顶点链表并入队
+     */
+    private void newLabel(int vertex, int parent, int slot) {
+        if (labelCount == labelVertex.length) {
+            int capacity = Math.max(16, labelCount * 2);
+            cost = Arrays.copyOf(cost, capacity * CRITERIA);
+            labelVertex = Arrays.copyOf(labelVertex, capacity);
+            labelParent = Arrays.copyOf(labelParent, capacity);
+            labelNext = Arrays.copyOf(labelNext, capacity);
+            dead = Arrays.copyOf(dead, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+        }
+        int label = labelCount++;
+        int base = label * CRITERIA;
+        for (int c = 0; c < CRITERIA; c++) {
+            cost[base + c] = parent < 0 ? 0.0 : cost[parent * CRITERIA + c] + slotCost[slot * CRITERIA + c];
+        }
+        labelVertex[label] = vertex;
+        labelParent[label] = parent;
+        dead[label] = false;
+        if (stamp[vertex] != epoch) {
+            stamp[vertex] = epoch;
+            head[vertex] = -1;
+        }
+        labelNext[label] = head[vertex];
+        head[vertex] = label;
+        offer(label);
+    }
+
+    /**
+     * 按字典序比较两个标号的代价
+     */
+    private boolean less(int a, int b) {
+        int x = a * CRITERIA;
+        int y = b * CRITERIA;
+        for (int c = 0; c < CRITERIA; c++) {
+            if (cost[x + c] != cost[y + c]) {
+                return cost[x + c] < cost[y + c];
+            }
+        }
+        return false;
+    }
+
+    private void offer(int label) {
+        int i = queueSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(label, queue[parent])) {
+                break;
+            }
+            queue[i] = queue[parent];
+            i = parent;
+        }
+        queue[i] = label;
+    }
+
+    private int poll() {
+        int top = queue[0];
+        int last = queue[--queueSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= queueSize) {
+                break;
+            }
+            if (child + 1 < queueSize && less(queue[child + 1], queue[child])) {
+                child++;
+            }
+            if (!less(queue[child], last)) {
+                break;
+            }
+            queue[i] = queue[child];
+            i = child;
+        }
+        if (queueSize > 0) {
+            queue[i] = last;
+        }
+        return top;
+    }
+
+    /**
+     * 沿前驱标号重建路径
+     */
+    private ParetoPath toPath(CompactGraph graph, int label) {
+        List<ScenicSpot> spots = new ArrayList<>();
+        for (int at = label; at >= 0; at = labelParent[at]) {
+            spots.add(graph.spotOf(labelVertex[at]));
+        }
+        Collections.reverse(spots);
+        return new ParetoPath(spots, Arrays.copyOfRange(cost, label * CRITERIA, (label + 1) * CRITERIA));
+    }
+
+    /**
+     * Pareto前沿上的一条路径及其各项代价
+     */
+    public static final class ParetoPath {
+        private final List<ScenicSpot> spots;
+        private final double[] costs;
+
+        ParetoPath(List<ScenicSpot> spots, double[] costs) {
+            this.spots = Collections.unmodifiableList(spots);
+            this.costs = costs;
+        }
+
+        /**
+         * 获取路径上的景点
+         * @return 景点列表，从起点到终点
+         */
+        public List<ScenicSpot> getSpots() {
+            return spots;
+        }
+
+        /**
+         * 获取指定标准的代价
+         * @param criterion 标准，如 {@link #DISTANCE}
+         * @return 代价
+         */
+        public double getCost(int criterion) {
+            return costs[criterion];
+        }
+
+        /**
+         * 获取路程长度
+         * @return 路程长度（米）
+         */
+        public double getDistance() {
+            return costs[DISTANCE];
+        }
+
+        /**
+         * 获取拥挤路段长度
+         * @return 拥挤路段长度（米）
+         */
+        public double getCrowdedDistance() {
+            return costs[CROWDING];
+        }
+
+        /**
+         * 获取台阶路段数
+         * @return 台阶路段数
+         */
+        public int getStairs() {
+            return (int) costs[STAIRS];
+        }
+
+        /**
+         * 获取无障碍设施缺失的景点数
+         * @return 景点数
+         */
+        public int getBarriers() {
+            return (int) costs[BARRIERS];
+        }
+
+        /**
+         * 是否为无台阶、无障碍的路线
+         * @return 如果无台阶且途经景点均有无障碍设施返回true
+         */
+        public boolean isStepFree() {
+            return costs[STAIRS] == 0 && costs[BARRIERS] == 0;
+        }
+    }
+}
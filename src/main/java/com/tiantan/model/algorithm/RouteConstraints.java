@@ -0,0 +1,122 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.EdgeType;
+
+import java.util.Arrays;
+
+/**
+ * 路径约束条件
+ * 硬约束在搜索中直接排除：不允许的路径类型不进入图视图，无障碍设施缺失的景点不可途经；
+ * 软约束以代价惩罚体现：按路径类型放大边权重，途经无障碍设施缺失的景点额外增加固定代价。
+ */
+public class RouteConstraints {
+    private int allowedTypeMask = CompactGraph.ALL_EDGE_TYPES;            // 允许的路径类型掩码
+    private final double[] typeFactor = new double[EdgeType.values().length];  // 路径类型 -> 权重倍率
+    private boolean accessibleSpotsOnly;       // 是否禁止途经无障碍设施缺失的景点
+    private double inaccessibleSpotPenalty;    // 途经无障碍设施缺失的景点时增加的代价
+
+    /**
+     * 构造函数，默认不施加任何约束
+     */
+    public RouteConstraints() {
+        Arrays.fill(typeFactor, 1.0);
+    }
+
+    /**
+     * 创建轮椅通行约束：禁止台阶路段，禁止途经无障碍设施缺失的景点
+     * @return 约束条件
+     */
+    public static RouteConstraints wheelchair() {
+        RouteConstraints constraints = new RouteConstraints();
+        constraints.setAllowed(EdgeType.STAIRS, false);
+        constraints.setAccessibleSpotsOnly(true);
+        return constraints;
+    }
+
+    /**
+     * 路径类型是否允许通行
+     * @param type 路径类型
+     * @return 如果允许返回true
+     */
+    public boolean isAllowed(EdgeType type) {
+        return (allowedTypeMask & type.mask()) != 0;
+    }
+
+    /**
+     * 设置路径类型是否允许通行（硬约束）
+     * @param type 路径类型
+     * @param allowed 是否允许
+     */
+    public void setAllowed(EdgeType type, boolean allowed) {
+        if (allowed) {
+            allowedTypeMask |= type.mask();
+        } else {
+            allowedTypeMask &= ~type.mask();
+        }
+    }
+
+    /**
+     * 获取允许的路径类型掩码
+     * @return 掩码
+     */
+    public int getAllowedTypeMask() {
+        return allowedTypeMask;
+    }
+
+    /**
+     * 获取路径类型的权重倍率
+     * @param type 路径类型
+     * @return 倍率
+     */
+    public double getTypeFactor(EdgeType type) {
+        return typeFactor[type.ordinal()];
+    }
+
+    /**
+     * 设置路径类型的权重倍率（软约束），如台阶路段设为3表示尽量绕行
+     * @param type 路径类型
+     * @param factor 倍率，不能小于1
+     */
+    public void setTypeFactor(EdgeType type, double factor) {
+        if (!(factor >= 1.0)) {
+            throw new IllegalArgumentException("权重倍率不能小于1: " + factor);
+        }
+        typeFactor[type.ordinal()] = factor;
+    }
+
+    /**
+     * 是否禁止途经无障碍设施缺失的景点
+     * @return 如果禁止返回true
+     */
+    public boolean isAccessibleSpotsOnly() {
+        return accessibleSpotsOnly;
+    }
+
+    /**
+     * 设置是否禁止途经无障碍设施缺失的景点（硬约束），起点和终点不受限制
+     * @param accessibleSpotsOnly 是否禁止
+     */
+    public void setAccessibleSpotsOnly(boolean accessibleSpotsOnly) {
+        this.accessibleSpotsOnly = accessibleSpotsOnly;
+    }
+
+    /**
+     * 获取途经无障碍设施缺失的景点时增加的代价
+     * @return 代价
+     */
+    public double getInaccessibleSpotPenalty() {
+        return inaccessibleSpotPenalty;
+    }
+
+    /**
+     * 设置途经无障碍设施缺失的景点时增加的代价（软约束）
+     * @param penalty 代价，不能为负数
+     */
+    public void setInaccessibleSpotPenalty(double penalty) {
+        if (!(penalty >= 0.0)) {
+            throw new IllegalArgumentException("惩罚代价不能为负数: " + penalty);
+        }
+        this.inaccessibleSpotPenalty = penalty;
+    }
+}
@@ -125,14 +125,15 @@ public class SearchUtil {
     public static <T> int fuzzySearch(T[] array, int size, String query, 
                                    Function<T, String> stringExtractor, int maxDistance) {
         int bestIndex = -1;
-        int bestDistance = Integer.MAX_VALUE;
+        int bound = maxDistance;  // 只接受严格优于当前最优的元素，超过上限的比较提前结束
+        String keyword = query.toLowerCase();
         
-        for (int i = 0; i < size; i++) {
+        for (int i = 0; i < size && bound >= 0; i++) {
             String str = stringExtractor.apply(array[i]);
-            int distance = levenshteinDistance(query.toLowerCase(), str.toLowerCase());
+            int distance = EditDistance.distance(keyword, str.toLowerCase(), bound);
             
-            if (distance <= maxDistance && distance < bestDistance) {
-                bestDistance = distance;
+            if (distance <= bound) {
+                bound = distance - 1;
                 bestIndex = i;
             }
         }
@@ -141,32 +142,9 @@ public class SearchUtil {
     }
     
     /**
-     * 计算Levenshtein编辑距离
+     * 计算Levenshtein编辑距离，由位并行的 {@link EditDistance} 计算
      */
     public static int levenshteinDistance(String s1, String s2) {
-        int m = s1.length();
-        int n = s2.length();
-        
-        int[][] dp = new int[m + 1][n + 1];
-        
-        for (int i = 0; i <= m; i++) {
-            dp[i][0] = i;
-        }
-        
-        for (int j = 0; j <= n; j++) {
-            dp[0][j] = j;
-        }
-        
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i - 1][j - 1], Math.min(dp[i - 1][j], dp[i][j - 1]));
-                }
-            }
-        }
-        
-        return dp[m][n];
+        return EditDistance.distance(s1, s2);
     }
 }
\ No newline at end of file
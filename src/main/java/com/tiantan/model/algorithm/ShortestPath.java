@@ -1,13 +1,17 @@
 package com.tiantan.model.algorithm;
 
 import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
 import com.tiantan.model.graph.Edge;
 import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.TimeDependentWeight;
 import com.tiantan.model.graph.Vertex;
 
+import java.time.LocalTime;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 /**
  * 最短路径算法实现类
@@ -24,69 +28,118 @@ public class ShortestPath {
      */
     public static Map<Integer, Integer> dijkstra(ScenicGraph graph, int sourceId, 
                                               Function<Edge, Double> weightFunction) {
-        // 获取起点顶点
-        Vertex source = graph.getVertex(sourceId);
-        if (source == null) {
-            return Collections.emptyMap();
+        return dijkstra(graph.freeze(), sourceId, weightFunction::apply);
+    }
+    
+    /**
+     * 双向Dijkstra算法求解单点对最短路径
+     * 只搜索起点和终点附近直至两侧相遇的区域，适合只需要一条路径的查询；
+     * 有向图上反向搜索沿入边进行
+     * 
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @return 最短路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public static List<ScenicSpot> bidirectionalDijkstra(ScenicGraph graph, int sourceId, int targetId,
+                                                     Function<Edge, Double> weightFunction) {
+        return bidirectionalDijkstra(graph.freeze(), sourceId, targetId, weightFunction::apply);
+    }
+    
+    /**
+     * 基于紧凑快照的双向Dijkstra算法
+     * 
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunction 权重计算函数
+     * @return 最短路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public static List<ScenicSpot> bidirectionalDijkstra(CompactGraph graph, int sourceId, int targetId,
+                                                     ToDoubleFunction<Edge> weightFunction) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
         }
         
-        // 初始化距离和前驱顶点表
-        Map<Integer, Double> distance = new HashMap<>();
-        Map<Integer, Integer> predecessor = new HashMap<>();
-        Set<Integer> settled = new HashSet<>();
-        
-        // 优先队列，按距离排序
-        PriorityQueue<VertexDistance> queue = new PriorityQueue<>();
-        
-        // 初始化所有顶点的距离为无穷大
-        for (Vertex vertex : graph.getVertices()) {
-            int id = vertex.getSpot().getId();
-            distance.put(id, Double.POSITIVE_INFINITY);
-            predecessor.put(id, null);
+        BidirectionalDijkstra search = BidirectionalDijkstra.local();
+        search.run(graph, source, target, weightFunction);
+        return search.getPath();
+    }
+    
+    /**
+     * 时间依赖的Dijkstra算法，求指定时刻出发的最早到达路径
+     * 边的通行时间随进入该边的时刻变化（如高峰期排队），要求满足先进先出
+     * 
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param departure 出发时刻
+     * @param weight 时间依赖权重，如 {@link TimeDependentWeight#profiles()}
+     * @return 最早到达路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public static List<ScenicSpot> timeDependentDijkstra(ScenicGraph graph, int sourceId, int targetId,
+                                                     LocalTime departure, TimeDependentWeight weight) {
+        return timeDependentDijkstra(graph.freeze(), sourceId, targetId, departure, weight);
+    }
+    
+    /**
+     * 基于紧凑快照的时间依赖Dijkstra算法
+     * 
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param departure 出发时刻
+     * @param weight 时间依赖权重
+     * @return 最早到达路径上的景点列表，从起点到终点；不可达时为空列表
+     */
+    public static List<ScenicSpot> timeDependentDijkstra(CompactGraph graph, int sourceId, int targetId,
+                                                     LocalTime departure, TimeDependentWeight weight) {
+        int target = graph.indexOf(targetId);
+        DijkstraEngine engine = runTimeDependent(graph, sourceId, target, departure, weight);
+        if (engine == null || !engine.isReached(target)) {
+            return Collections.emptyList();
         }
         
-        // 起点距离为0
-        distance.put(sourceId, 0.0);
-        queue.offer(new VertexDistance(sourceId, 0.0));
-        
-        // 主循环
-        while (!queue.isEmpty()) {
-            VertexDistance current = queue.poll();
-            int currentId = current.vertexId;
-            
-            // 如果已处理过，则跳过
-            if (settled.contains(currentId)) {
-                continue;
-            }
-            
-            // 标记为已处理
-            settled.add(currentId);
-            
-            // 处理所有邻接边
-            Vertex currentVertex = graph.getVertex(currentId);
-            for (Edge edge : currentVertex.getAdjacent()) {
-                Vertex neighbor = edge.getTo();
-                int neighborId = neighbor.getSpot().getId();
-                
-                // 如果已处理过，则跳过
-                if (settled.contains(neighborId)) {
-                    continue;
-                }
-                
-                // 计算通过当前顶点到邻接顶点的距离
-                double edgeWeight = weightFunction.apply(edge);
-                double newDistance = distance.get(currentId) + edgeWeight;
-                
-                // 如果找到更短的路径，则更新
-                if (newDistance < distance.get(neighborId)) {
-                    distance.put(neighborId, newDistance);
-                    predecessor.put(neighborId, currentId);
-                    queue.offer(new VertexDistance(neighborId, newDistance));
-                }
-            }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = target; at >= 0; at = engine.predecessor(at)) {
+            path.add(graph.spotOf(at));
         }
-        
-        return predecessor;
+        Collections.reverse(path);
+        return path;
+    }
+    
+    /**
+     * 计算指定时刻出发的最早到达时刻
+     * 
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param departure 出发时刻
+     * @param weight 时间依赖权重
+     * @return 到达时刻，为从出发当天零点起的秒数（跨午夜时超过一天）；不可达时为正无穷
+     */
+    public static double earliestArrival(CompactGraph graph, int sourceId, int targetId,
+                                         LocalTime departure, TimeDependentWeight weight) {
+        int target = graph.indexOf(targetId);
+        DijkstraEngine engine = runTimeDependent(graph, sourceId, target, departure, weight);
+        return engine == null ? Double.POSITIVE_INFINITY : engine.distance(target);
+    }
+    
+    /**
+     * 在当前线程的引擎上执行时间依赖搜索，起点或终点不存在时返回null
+     */
+    private static DijkstraEngine runTimeDependent(CompactGraph graph, int sourceId, int target,
+                                                   LocalTime departure, TimeDependentWeight weight) {
+        int source = graph.indexOf(sourceId);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.runTimeDependent(graph, source, target, departure.toSecondOfDay() + departure.getNano() / 1e9, weight);
+        return engine;
     }
     
     /**
@@ -141,16 +194,15 @@ public class ShortestPath {
         }
         
         double totalLength = 0.0;
+        CompactGraph snapshot = graph.freeze();
         
         for (int i = 0; i < path.size() - 1; i++) {
-            int fromId = path.get(i).getId();
-            int toId = path.get(i + 1).getId();
-            
-            Vertex fromVertex = graph.getVertex(fromId);
-            Edge edge = fromVertex.getEdgeTo(toId);
+            int from = snapshot.indexOf(path.get(i).getId());
+            int to = snapshot.indexOf(path.get(i + 1).getId());
+            int slot = from < 0 || to < 0 ? -1 : snapshot.findEdge(from, to);
             
-            if (edge != null) {
-                totalLength += weightFunction.apply(edge);
+            if (slot >= 0) {
+                totalLength += weightFunction.apply(snapshot.edge(slot));
             }
         }
         
@@ -159,179 +211,238 @@ public class ShortestPath {
     
     /**
      * A*算法求解单点对最短路径，适用于有启发式信息的情况
+     * 在景区图最新发布的快照上执行，不受并发的边状态更新影响；
+     * 启发式函数收到的顶点包装的是快照中的景点（不含邻接边），快照之后被删除的顶点也能正常估计
      * 
      * @param graph 景区图
      * @param sourceId 起点景点ID
      * @param targetId 终点景点ID
      * @param weightFunction 边权重计算函数
-     * @param heuristicFunction 启发式函数
+     * @param heuristicFunction 启发式函数，需满足可采纳性（不高估剩余代价）
      * @return 最短路径上的景点列表，从起点到终点
      */
     public static List<ScenicSpot> aStar(ScenicGraph graph, int sourceId, int targetId,
                                       Function<Edge, Double> weightFunction,
                                       BiFunction<Vertex, Vertex, Double> heuristicFunction) {
-        // 获取起点和终点顶点
-        Vertex source = graph.getVertex(sourceId);
-        Vertex target = graph.getVertex(targetId);
-        
-        if (source == null || target == null) {
+        CompactGraph snapshot = graph.freeze();
+        int target = snapshot.indexOf(targetId);
+        if (snapshot.indexOf(sourceId) < 0 || target < 0) {
             return Collections.emptyList();
         }
-        
-        // 已探索的顶点集合
-        Set<Integer> closedSet = new HashSet<>();
-        
-        // 待探索的顶点集合
-        Set<Integer> openSet = new HashSet<>();
-        openSet.add(sourceId);
-        
-        // 从起点到当前点的实际代价
-        Map<Integer, Double> gScore = new HashMap<>();
-        for (Vertex vertex : graph.getVertices()) {
-            gScore.put(vertex.getSpot().getId(), Double.POSITIVE_INFINITY);
+        Vertex targetVertex = new Vertex(snapshot.spotOf(target));
+        return aStar(snapshot, sourceId, targetId, weightFunction::apply,
+                (from, to) -> heuristicFunction.apply(new Vertex(from), targetVertex));
+    }
+    
+    /**
+     * 构建基于景点坐标欧氏距离的A*启发式函数
+     * 以全图中 权重/直线距离 的最小比值作为换算系数，使启发值与边权重单位一致；
+     * 由于任何路径的总权重都不小于系数乘以起终点直线距离，该启发式是可采纳且一致的。
+     * 对于权重不小于校准函数的其他权重函数（如拥挤加权），同一启发式仍然可采纳。
+     * 
+     * @param graph 景区图
+     * @param weightFunction 用于校准的权重函数
+     * @return 启发式函数
+     */
+    public static BiFunction<Vertex, Vertex, Double> euclideanHeuristic(ScenicGraph graph,
+                                                                    Function<Edge, Double> weightFunction) {
+        BiFunction<ScenicSpot, ScenicSpot, Double> heuristic = euclideanHeuristic(graph.freeze(), weightFunction::apply);
+        return (from, to) -> heuristic.apply(from.getSpot(), to.getSpot());
+    }
+    
+    /**
+     * 构建基于紧凑快照的欧氏距离启发式函数，校准方式同 {@link #euclideanHeuristic(ScenicGraph, Function)}
+     * 
+     * @param graph 紧凑图快照
+     * @param weightFunction 用于校准的权重函数
+     * @return 启发式函数
+     */
+    public static BiFunction<ScenicSpot, ScenicSpot, Double> euclideanHeuristic(CompactGraph graph,
+                                                                           ToDoubleFunction<Edge> weightFunction) {
+        List<Edge> edges = new ArrayList<>(graph.getEdgeCount());
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            edges.add(graph.edge(e));
         }
-        gScore.put(sourceId, 0.0);
-        
-        // 从起点经由当前点到终点的估计总代价
-        Map<Integer, Double> fScore = new HashMap<>();
-        for (Vertex vertex : graph.getVertices()) {
-            fScore.put(vertex.getSpot().getId(), Double.POSITIVE_INFINITY);
+        double scale = calibrateEuclideanScale(edges, weightFunction);
+        return (from, to) -> scale * from.distanceTo(to);
+    }
+    
+    /**
+     * 计算边权重与端点直线距离的最小比值
+     */
+    private static double calibrateEuclideanScale(List<Edge> edges, ToDoubleFunction<Edge> weightFunction) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (Edge edge : edges) {
+            double straight = edge.getFrom().getSpot().distanceTo(edge.getTo().getSpot());
+            if (straight > 0) {
+                scale = Math.min(scale, Math.max(0.0, weightFunction.applyAsDouble(edge)) / straight);
+            }
+        }
+        // 没有可用于校准的边时退化为Dijkstra
+        return Double.isInfinite(scale) ? 0.0 : scale;
+    }
+    
+    /**
+     * 多标准最短路径算法，考虑距离、时间、拥挤度等多个因素
+     * 按权重线性加权后求单一最短路径；只能得到Pareto前沿凸包上的路线，
+     * 需要全部折中方案时请使用 {@link #paretoShortestPaths(ScenicGraph, int, int)}
+     * 
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @param weightFunctions 多个权重计算函数
+     * @param weights 各个标准的权重（重要性）
+     * @return 最优路径上的景点列表
+     */
+    public static List<ScenicSpot> multiCriteriaShortestPath(ScenicGraph graph, int sourceId, int targetId,
+                                                         List<Function<Edge, Double>> weightFunctions,
+                                                         List<Double> weights) {
+        if (weightFunctions.size() != weights.size()) {
+            throw new IllegalArgumentException("权重函数和权重数量必须相同");
         }
-        fScore.put(sourceId, heuristicFunction.apply(source, target));
         
-        // 记录路径的前驱顶点
-        Map<Integer, Integer> cameFrom = new HashMap<>();
+        CompactGraph snapshot = graph.freeze();
+        int source = snapshot.indexOf(sourceId);
+        int target = snapshot.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
         
-        // 主循环
-        while (!openSet.isEmpty()) {
-            // 获取fScore最小的顶点
-            int current = getLowestFScore(openSet, fScore);
-            
-            // 如果到达终点，构建并返回路径
-            if (current == targetId) {
-                return reconstructPath(graph, cameFrom, current);
-            }
-            
-            // 将当前顶点从待探索集合移到已探索集合
-            openSet.remove(current);
-            closedSet.add(current);
-            
-            // 处理所有邻接顶点
-            Vertex currentVertex = graph.getVertex(current);
-            for (Edge edge : currentVertex.getAdjacent()) {
-                Vertex neighbor = edge.getTo();
-                int neighborId = neighbor.getSpot().getId();
-                
-                // 如果邻接顶点已经探索过，则跳过
-                if (closedSet.contains(neighborId)) {
-                    continue;
-                }
-                
-                // 计算经由当前顶点到达邻接顶点的代价
-                double tentativeGScore = gScore.get(current) + weightFunction.apply(edge);
-                
-                // 如果邻接顶点不在待探索集合中，添加它
-                if (!openSet.contains(neighborId)) {
-                    openSet.add(neighborId);
-                }
-                // 如果找到更好的路径，则更新
-                else if (tentativeGScore >= gScore.get(neighborId)) {
-                    continue;
-                }
-                
-                // 更新路径信息
-                cameFrom.put(neighborId, current);
-                gScore.put(neighborId, tentativeGScore);
-                fScore.put(neighborId, gScore.get(neighborId) + heuristicFunction.apply(neighbor, target));
+        // 每个权重函数对每条边只计算一次，累加为综合权重
+        double[] combined = new double[snapshot.getEdgeCount()];
+        for (int i = 0; i < weightFunctions.size(); i++) {
+            Function<Edge, Double> weightFunction = weightFunctions.get(i);
+            double factor = weights.get(i);
+            for (int e = 0; e < combined.length; e++) {
+                combined[e] += weightFunction.apply(snapshot.edge(e)) * factor;
             }
         }
         
-        // 如果无法到达终点，返回空列表
-        return Collections.emptyList();
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.run(snapshot, source, target, combined);
+        if (!engine.isReached(target)) {
+            return Collections.emptyList();
+        }
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = target; at >= 0; at = engine.predecessor(at)) {
+            path.add(snapshot.spotOf(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+    
+    /**
+     * Pareto多目标最短路径，一次搜索求出路程、拥挤路段、台阶、无障碍四项标准下互不支配的全部路线
+     * 
+     * @param graph 景区图
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return Pareto前沿，按路程长度从小到大排列；不可达时为空列表
+     */
+    public static List<ParetoSearch.ParetoPath> paretoShortestPaths(ScenicGraph graph, int sourceId, int targetId) {
+        return paretoShortestPaths(graph.freeze(), sourceId, targetId);
     }
     
     /**
-     * 获取fScore最小的顶点ID
+     * 基于紧凑快照的Pareto多目标最短路径
+     * 
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param targetId 终点景点ID
+     * @return Pareto前沿，按路程长度从小到大排列；不可达时为空列表
      */
-    private static int getLowestFScore(Set<Integer> openSet, Map<Integer, Double> fScore) {
-        double lowestScore = Double.POSITIVE_INFINITY;
-        int lowestId = -1;
-        
-        for (int id : openSet) {
-            double score = fScore.get(id);
-            if (score < lowestScore) {
-                lowestScore = score;
-                lowestId = id;
-            }
+    public static List<ParetoSearch.ParetoPath> paretoShortestPaths(CompactGraph graph, int sourceId, int targetId) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
         }
-        
-        return lowestId;
+        return ParetoSearch.local().search(graph, source, target);
     }
     
     /**
-     * 根据前驱顶点表重建路径
+     * 基于紧凑快照的Dijkstra算法，返回值语义与 {@link #dijkstra(ScenicGraph, int, Function)} 相同
+     * 计算由当前线程的 {@link DijkstraEngine} 完成，权重函数直接返回基本类型，不产生装箱
+     * 
+     * @param graph 紧凑图快照
+     * @param sourceId 起点景点ID
+     * @param weightFunction 权重计算函数
+     * @return 最短路径树，键为顶点ID，值为前驱顶点ID
      */
-    private static List<ScenicSpot> reconstructPath(ScenicGraph graph, Map<Integer, Integer> cameFrom, int current) {
-        List<ScenicSpot> path = new ArrayList<>();
+    public static Map<Integer, Integer> dijkstra(CompactGraph graph, int sourceId,
+                                              ToDoubleFunction<Edge> weightFunction) {
+        int source = graph.indexOf(sourceId);
+        if (source < 0) {
+            return Collections.emptyMap();
+        }
         
-        // 将终点添加到路径中
-        path.add(graph.getVertex(current).getSpot());
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.run(graph, source, weightFunction);
         
-        // 从终点回溯到起点
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            path.add(0, graph.getVertex(current).getSpot());
+        Map<Integer, Integer> result = new HashMap<>();
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            int pred = engine.predecessor(v);
+            result.put(graph.idOf(v), pred < 0 ? null : graph.idOf(pred));
         }
-        
-        return path;
+        return result;
     }
     
     /**
-     * 用于Dijkstra算法的顶点-距离对
+     * 根据前驱顶点表在紧凑快照上构建从起点到终点的路径
+     * 
+     * @param graph 紧凑图快照
+     * @param predecessor 前驱顶点表
+     * @param targetId 终点景点ID
+     * @return 路径上的景点列表，从起点到终点
      */
-    private static class VertexDistance implements Comparable<VertexDistance> {
-        private final int vertexId;
-        private final double distance;
+    public static List<ScenicSpot> constructPath(CompactGraph graph, Map<Integer, Integer> predecessor, int targetId) {
+        List<ScenicSpot> path = new ArrayList<>();
         
-        VertexDistance(int vertexId, double distance) {
-            this.vertexId = vertexId;
-            this.distance = distance;
+        if (!predecessor.containsKey(targetId) || predecessor.get(targetId) == null && targetId != getSourceId(predecessor)) {
+            return path;
         }
         
-        @Override
-        public int compareTo(VertexDistance other) {
-            return Double.compare(this.distance, other.distance);
+        for (Integer at = targetId; at != null; at = predecessor.get(at)) {
+            path.add(graph.spotOf(graph.indexOf(at)));
         }
+        Collections.reverse(path);
+        
+        return path;
     }
     
     /**
-     * 多标准最短路径算法，考虑距离、时间、拥挤度等多个因素
+     * 基于紧凑快照的A*算法
+     * 使用当前线程的 {@link DijkstraEngine}，只对实际松弛的边计算权重，每个触及的顶点计算一次启发值
      * 
-     * @param graph 景区图
+     * @param graph 紧凑图快照
      * @param sourceId 起点景点ID
      * @param targetId 终点景点ID
-     * @param weightFunctions 多个权重计算函数
-     * @param weights 各个标准的权重（重要性）
-     * @return 最优路径上的景点列表
+     * @param weightFunction 边权重计算函数
+     * @param heuristicFunction 启发式函数，参数为当前景点和终点景点
+     * @return 最短路径上的景点列表，从起点到终点
      */
-    public static List<ScenicSpot> multiCriteriaShortestPath(ScenicGraph graph, int sourceId, int targetId,
-                                                         List<Function<Edge, Double>> weightFunctions,
-                                                         List<Double> weights) {
-        if (weightFunctions.size() != weights.size()) {
-            throw new IllegalArgumentException("权重函数和权重数量必须相同");
+    public static List<ScenicSpot> aStar(CompactGraph graph, int sourceId, int targetId,
+                                      ToDoubleFunction<Edge> weightFunction,
+                                      BiFunction<ScenicSpot, ScenicSpot, Double> heuristicFunction) {
+        int source = graph.indexOf(sourceId);
+        int target = graph.indexOf(targetId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
         }
         
-        // 定义综合权重计算函数
-        Function<Edge, Double> combinedWeightFunction = edge -> {
-            double sum = 0.0;
-            for (int i = 0; i < weightFunctions.size(); i++) {
-                sum += weightFunctions.get(i).apply(edge) * weights.get(i);
-            }
-            return sum;
-        };
+        ScenicSpot targetSpot = graph.spotOf(target);
+        DijkstraEngine engine = DijkstraEngine.local();
+        engine.runAStar(graph, source, target, weightFunction,
+                v -> heuristicFunction.apply(graph.spotOf(v), targetSpot));
+        if (!engine.isReached(target)) {
+            return Collections.emptyList();
+        }
         
-        // 使用Dijkstra算法求解
-        Map<Integer, Integer> predecessor = dijkstra(graph, sourceId, combinedWeightFunction);
-        return constructPath(graph, predecessor, targetId);
+        List<ScenicSpot> path = new ArrayList<>();
+        for (int at = target; at >= 0; at = engine.predecessor(at)) {
+            path.add(graph.spotOf(at));
+        }
+        Collections.reverse(path);
+        return path;
     }
-}
\ No newline at end of file
+}
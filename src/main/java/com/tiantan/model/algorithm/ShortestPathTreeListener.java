@@ -0,0 +1,16 @@
+package com.tiantan.model.algorithm;
+
+/**
+ * 最短路径树变化监听器
+ * 当动态最短路径树因边状态变化而修复后被调用，可据此只重绘受影响的路径
+ */
+@FunctionalInterface
+public interface ShortestPathTreeListener {
+
+    /**
+     * 最短路径树已变化
+     * @param tree 发生变化的最短路径树
+     * @param changedSpotIds 距离或前驱发生变化的景点ID，按ID升序
+     */
+    void treeChanged(DynamicShortestPathTree tree, int[] changedSpotIds);
+}
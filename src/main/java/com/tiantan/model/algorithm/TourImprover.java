@@ -0,0 +1,571 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 游览顺序局部搜索优化管线
+ * 对任意初始顺序（如 {@link MST#approximateTSP} 的先序遍历）依次尝试管线中的邻域操作，
+ * 直到没有任何操作能降低总代价。代价从预先计算的距离矩阵读取；
+ * 每个城市只在近邻列表中寻找候选，并用"不看位"(don't-look bits)跳过最近无改进的城市，
+ * 因此数百个景点的路线也能在毫秒级完成。
+ * 距离矩阵需对称（操作中包含片段反转）。开放路线（起点固定、终点任意）通过添加一个虚拟城市转化为回路：
+ * 虚拟城市到起点的距离为足够大的负数，到其他城市为0，使最优回路必然经过"虚拟城市-起点"这条边。
+ */
+public class TourImprover {
+    private static final double EPSILON = 1e-7;   // 视为有效改进的最小增益
+    private static final int NEIGHBOR_COUNT = 10;  // 每个城市的近邻数量
+
+    /**
+     * 邻域操作
+     */
+    @FunctionalInterface
+    public interface Move {
+        /**
+         * 以 city 为起点尝试一次改进，找到即执行
+         * @param tour 当前回路
+         * @param city 起点城市
+         * @return 如果执行了改进返回true
+         */
+        boolean improve(Tour tour, int city);
+    }
+
+    /**
+     * 2-opt：删除两条边并以反转片段的方式重连
+     */
+    public static final Move TWO_OPT = TourImprover::twoOpt;
+
+    /**
+     * Or-opt：把长度1~3的片段（可反向）移动到其他两个相邻城市之间
+     */
+    public static final Move OR_OPT = TourImprover::orOpt;
+
+    /**
+     * 3-opt片段交换：删除三条边，交换相邻两个片段的位置，不反转
+     */
+    public static final Move THREE_OPT = TourImprover::threeOpt;
+
+    private final Move[] moves;
+
+    /**
+     * 构造函数
+     * @param moves 按顺序尝试的邻域操作
+     */
+    public TourImprover(Move... moves) {
+        if (moves.length == 0) {
+            throw new IllegalArgumentException("至少需要一个邻域操作");
+        }
+        this.moves = moves.clone();
+    }
+
+    /**
+     * 创建包含 2-opt、Or-opt、3-opt 的标准管线
+     * @return 优化管线
+     */
+    public static TourImprover standard() {
+        return new TourImprover(TWO_OPT, OR_OPT, THREE_OPT);
+    }
+
+    /**
+     * 优化结果
+     */
+    public static class Result {
+        private final List<ScenicSpot> tour;
+        private final double initialCost;
+        private final double finalCost;
+
+        Result(List<ScenicSpot> tour, double initialCost, double finalCost) {
+            this.tour = tour;
+            this.initialCost = initialCost;
+            this.finalCost = finalCost;
+        }
+
+        public List<ScenicSpot> getTour() {
+            return tour;
+        }
+
+        public double getInitialCost() {
+            return initialCost;
+        }
+
+        public double getFinalCost() {
+            return finalCost;
+        }
+
+        /**
+         * 获取相对初始顺序减少的代价
+         * @return 代价减少量
+         */
+        public double getImprovement() {
+            return initialCost - finalCost;
+        }
+
+        /**
+         * 获取相对初始顺序减少的比例
+         * @return 0~1之间的比例，初始代价为0时返回0
+         */
+        public double getImprovementRatio() {
+            return initialCost > 0 ? (initialCost - finalCost) / initialCost : 0.0;
+        }
+    }
+
+    /**
+     * 优化景点游览顺序
+     * @param tour 初始顺序，开放路线时第一个景点为固定起点
+     * @param distance 行优先距离矩阵，distance[i*n+j] 为 tour.get(i) 到 tour.get(j) 的代价
+     * @param closed 是否为回路（最后回到起点）
+     * @return 优化结果
+     */
+    public Result improve(List<ScenicSpot> tour, double[] distance, boolean closed) {
+        int n = tour.size();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] improved = improve(order, distance, n, closed);
+        List<ScenicSpot> result = new ArrayList<>(n);
+        for (int city : improved) {
+            result.add(tour.get(city));
+        }
+        return new Result(result, HeldKarp.cost(distance, n, order, closed),
+                HeldKarp.cost(distance, n, improved, closed));
+    }
+
+    /**
+     * 优化城市访问顺序
+     * @param order 初始顺序，为 0..n-1 的排列；开放路线时 order[0] 为固定起点
+     * @param distance 行优先的 n×n 对称距离矩阵
+     * @param n 城市数量
+     * @param closed 是否为回路
+     * @return 优化后的顺序，开放路线时仍以同一起点开头
+     */
+    public int[] improve(int[] order, double[] distance, int n, boolean closed) {
+        if (order.length != n) {
+            throw new IllegalArgumentException("访问顺序长度与城市数量不一致: " + order.length);
+        }
+        if (closed ? n < 4 : n < 3) {
+            // 城市过少时不存在可改进的邻域
+            return order.clone();
+        }
+
+        int size = closed ? n : n + 1;
+        double[] matrix = distance;
+        int[] initial = order;
+        if (!closed) {
+            // 添加虚拟城市 n，位于终点与起点之间
+            double bound = 1.0;
+            for (int i = 0; i < n * n; i++) {
+                bound += Math.abs(distance[i]);
+            }
+            matrix = new double[size * size];
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(distance, i * n, matrix, i * size, n);
+            }
+            matrix[n * size + order[0]] = -bound;
+            matrix[order[0] * size + n] = -bound;
+            initial = Arrays.copyOf(order, size);
+            initial[n] = n;
+        }
+
+        Tour tour = new Tour(initial, matrix, size);
+        while (tour.hasActive()) {
+            int city = tour.pollActive();
+            for (Move move : moves) {
+                if (move.improve(tour, city)) {
+                    tour.activate(city);
+                    break;
+                }
+            }
+        }
+
+        int[] result = new int[n];
+        if (closed) {
+            for (int i = 0; i < n; i++) {
+                result[i] = tour.at(i);
+            }
+        } else {
+            // 从起点出发，沿远离虚拟城市的方向读出路径
+            int start = order[0];
+            boolean forward = tour.prev(start) == n;
+            int city = start;
+            for (int i = 0; i < n; i++) {
+                result[i] = city;
+                city = forward ? tour.next(city) : tour.prev(city);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 数组表示的回路，维护城市位置、近邻列表和待检查城市队列
+     */
+    public static final class Tour {
+        private final int n;
+        private int[] order;                // 位置 -> 城市
+        private final int[] position;       // 城市 -> 位置
+        private final double[] distance;    // 行优先距离矩阵
+        private final int[][] neighbors;    // 城市 -> 按距离升序的近邻
+        private final int[] queue;          // 待检查城市的环形队列
+        private final boolean[] queued;     // 城市是否在队列中（不看位取反）
+        private int head;
+        private int count;
+
+        Tour(int[] initial, double[] distance, int n) {
+            this.n = n;
+            this.order = initial.clone();
+            this.position = new int[n];
+            for (int i = 0; i < n; i++) {
+                position[order[i]] = i;
+            }
+            this.distance = distance;
+            this.neighbors = buildNeighbors(distance, n);
+            this.queue = new int[n];
+            this.queued = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                activate(order[i]);
+            }
+        }
+
+        /**
+         * 每行用容量为k的最大堆选出距离最小的k个城市，距离相同时下标小者优先，
+         * 耗时 O(n² log k)，不装箱
+         */
+        private static int[][] buildNeighbors(double[] distance, int n) {
+            int k = Math.min(NEIGHBOR_COUNT, n - 1);
+            int[][] result = new int[n][];
+            int[] heap = new int[k];
+            for (int city = 0; city < n; city++) {
+                int row = city * n;
+                int size = 0;
+                for (int other = 0; other < n; other++) {
+                    if (other == city) {
+                        continue;
+                    }
+                    if (size < k) {
+                        // 上浮
+                        int i = size++;
+                        while (i > 0 && farther(distance, row, other, heap[(i - 1) >>> 1])) {
+                            heap[i] = heap[(i - 1) >>> 1];
+                            i = (i - 1) >>> 1;
+                        }
+                        heap[i] = other;
+                    } else if (k > 0 && farther(distance, row, heap[0], other)) {
+                        siftDown(distance, row, heap, size, other);
+                    }
+                }
+                // 依次取出堆顶（当前最远者），从后往前填入得到升序
+                int[] nearest = new int[k];
+                for (int i = k - 1; i >= 0; i--) {
+                    nearest[i] = heap[0];
+                    size--;
+                    if (size > 0) {
+                        siftDown(distance, row, heap, size, heap[size]);
+                    }
+                }
+                result[city] = nearest;
+            }
+            return result;
+        }
+
+        /**
+         * 用 city 替换堆顶并下沉
+         */
+        private static void siftDown(double[] distance, int row, int[] heap, int size, int city) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && farther(distance, row, heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!farther(distance, row, heap[child], city)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = city;
+        }
+
+        /**
+         * 按(距离, 下标)比较，a 是否排在 b 之后
+         */
+        private static boolean farther(double[] distance, int row, int a, int b) {
+            int c = Double.compare(distance[row + a], distance[row + b]);
+            return c > 0 || (c == 0 && a > b);
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public int at(int pos) {
+            return order[pos];
+        }
+
+        public int positionOf(int city) {
+            return position[city];
+        }
+
+        public int next(int city) {
+            int pos = position[city] + 1;
+            return order[pos == n ? 0 : pos];
+        }
+
+        public int prev(int city) {
+            int pos = position[city] - 1;
+            return order[pos < 0 ? n - 1 : pos];
+        }
+
+        public double distance(int from, int to) {
+            return distance[from * n + to];
+        }
+
+        public int[] neighbors(int city) {
+            return neighbors[city];
+        }
+
+        /**
+         * 城市 city 相对 origin 沿正向的偏移量
+         */
+        public int offset(int origin, int city) {
+            int d = position[city] - position[origin];
+            return d < 0 ? d + n : d;
+        }
+
+        /**
+         * 反转从 from 沿正向到 to 的片段；片段超过一半时改为反转其余部分，结果等价
+         */
+        public void reverse(int from, int to) {
+            int i = position[from];
+            int j = position[to];
+            int length = (j - i + n) % n + 1;
+            if (length * 2 > n) {
+                i = position[next(to)];
+                j = position[prev(from)];
+                length = n - length;
+            }
+            for (int k = 0; k < length / 2; k++) {
+                int a = order[i];
+                int b = order[j];
+                order[i] = b;
+                position[b] = i;
+                order[j] = a;
+                position[a] = j;
+                i = i + 1 == n ? 0 : i + 1;
+                j = j == 0 ? n - 1 : j - 1;
+            }
+        }
+
+        /**
+         * 用新的访问顺序替换当前回路
+         */
+        public void reorder(int[] newOrder) {
+            order = newOrder;
+            for (int i = 0; i < n; i++) {
+                position[order[i]] = i;
+            }
+        }
+
+        /**
+         * 清除城市的不看位，使其重新进入待检查队列
+         */
+        public void activate(int city) {
+            if (!queued[city]) {
+                queued[city] = true;
+                queue[(head + count) % n] = city;
+                count++;
+            }
+        }
+
+        boolean hasActive() {
+            return count > 0;
+        }
+
+        int pollActive() {
+            int city = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            count--;
+            queued[city] = false;
+            return city;
+        }
+    }
+
+    /**
+     * 2-opt：对 a 的后继(或前驱) b，在 a 的近邻中寻找 c，以 (a,c)(b,d) 替换 (a,b)(c,d)
+     */
+    private static boolean twoOpt(Tour tour, int a) {
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? tour.next(a) : tour.prev(a);
+            double removed = tour.distance(a, b);
+            for (int c : tour.neighbors(a)) {
+                double partial = removed - tour.distance(a, c);
+                if (partial <= EPSILON) {
+                    break;
+                }
+                int d = forward ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double gain = partial + tour.distance(c, d) - tour.distance(b, d);
+                if (gain > EPSILON) {
+                    if (forward) {
+                        tour.reverse(b, c);
+                    } else {
+                        tour.reverse(c, b);
+                    }
+                    tour.activate(a);
+                    tour.activate(b);
+                    tour.activate(c);
+                    tour.activate(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Or-opt：把从 a 开始的长度1~3的片段移到近邻附近，允许反向插入
+     */
+    private static boolean orOpt(Tour tour, int a) {
+        int n = tour.size();
+        int e = a;
+        for (int length = 1; length <= 3 && length <= n - 3; length++) {
+            if (length > 1) {
+                e = tour.next(e);
+            }
+            int p = tour.prev(a);
+            int f = tour.next(e);
+            double removalGain = tour.distance(p, a) + tour.distance(e, f) - tour.distance(p, f);
+            if (removalGain <= EPSILON) {
+                continue;
+            }
+            for (int end = 0; end < 2; end++) {
+                int anchor = end == 0 ? a : e;
+                for (int x : tour.neighbors(anchor)) {
+                    if (tour.distance(anchor, x) >= removalGain) {
+                        break;
+                    }
+                    if (tour.offset(a, x) < length) {
+                        continue;
+                    }
+                    // x 可以位于插入位置的任一侧
+                    for (int side = 0; side < 2; side++) {
+                        int c = side == 0 ? x : tour.prev(x);
+                        int g = side == 0 ? tour.next(x) : x;
+                        if (tour.offset(a, c) < length || tour.offset(a, g) < length) {
+                            continue;
+                        }
+                        double base = removalGain + tour.distance(c, g);
+                        double keep = tour.distance(c, a) + tour.distance(e, g);
+                        double flip = tour.distance(c, e) + tour.distance(a, g);
+                        boolean reversed = flip < keep;
+                        if (base - Math.min(keep, flip) > EPSILON) {
+                            moveSegment(tour, a, length, c, reversed);
+                            tour.activate(p);
+                            tour.activate(f);
+                            tour.activate(a);
+                            tour.activate(e);
+                            tour.activate(c);
+                            tour.activate(g);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把从 a 开始、长度为 length 的片段移到 c 之后
+     */
+    private static void moveSegment(Tour tour, int a, int length, int c, boolean reversed) {
+        int n = tour.size();
+        int[] segment = new int[length];
+        for (int i = 0, city = a; i < length; i++, city = tour.next(city)) {
+            segment[i] = city;
+        }
+        int[] newOrder = new int[n];
+        int k = 0;
+        int city = tour.next(segment[length - 1]);
+        for (int i = 0; i < n - length; i++, city = tour.next(city)) {
+            newOrder[k++] = city;
+            if (city == c) {
+                for (int s = 0; s < length; s++) {
+                    newOrder[k++] = segment[reversed ? length - 1 - s : s];
+                }
+            }
+        }
+        tour.reorder(newOrder);
+    }
+
+    /**
+     * 3-opt片段交换：a1 b1…a2 b2…a3 b3 重连为 a1 b2…a3 b1…a2 b3
+     */
+    private static boolean threeOpt(Tour tour, int a1) {
+        int n = tour.size();
+        int b1 = tour.next(a1);
+        double removed1 = tour.distance(a1, b1);
+        for (int b2 : tour.neighbors(a1)) {
+            double g1 = removed1 - tour.distance(a1, b2);
+            if (g1 <= EPSILON) {
+                break;
+            }
+            int offsetB2 = tour.offset(a1, b2);
+            if (offsetB2 < 2) {
+                continue;
+            }
+            int a2 = tour.prev(b2);
+            double partial = g1 + tour.distance(a2, b2);
+            for (int a3 : tour.neighbors(b1)) {
+                double g2 = partial - tour.distance(a3, b1);
+                if (g2 <= EPSILON) {
+                    break;
+                }
+                int offsetA3 = tour.offset(a1, a3);
+                if (offsetA3 < offsetB2) {
+                    continue;
+                }
+                int b3 = tour.next(a3);
+                double gain = g2 + tour.distance(a3, b3) - tour.distance(a2, b3);
+                if (gain > EPSILON) {
+                    int[] newOrder = new int[n];
+                    int k = 0;
+                    newOrder[k++] = a1;
+                    for (int city = b2; ; city = tour.next(city)) {
+                        newOrder[k++] = city;
+                        if (city == a3) {
+                            break;
+                        }
+                    }
+                    for (int city = b1; ; city = tour.next(city)) {
+                        newOrder[k++] = city;
+                        if (city == a2) {
+                            break;
+                        }
+                    }
+                    for (int city = b3; city != a1; city = tour.next(city)) {
+                        newOrder[k++] = city;
+                    }
+                    tour.reorder(newOrder);
+                    tour.activate(a1);
+                    tour.activate(b1);
+                    tour.activate(a2);
+                    tour.activate(b2);
+                    tour.activate(a3);
+                    tour.activate(b3);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,423 @@
+package com.tiantan.model.data;
+
+import com.tiantan.util.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 景点列存储（按列的只读快照）
+ * 把景点的数值属性分别存放在基本类型数组中，无障碍标记存为位图，类别按字典编码为整数，
+ * 过滤时只扫描用到的列，不必把整个景点对象读入缓存。
+ * 每个过滤条件返回行号位图，行号即构建时景点在线性表中的位置；多个条件用 {@link BitSet#and} 组合，
+ * 或者把前一步的结果作为候选行传入，只检查仍在候选中的行，最后由 {@link #spots(BitSet)} 取回景点对象。
+ * 快照构建后不随景点或线性表的修改而变化，需要时重新构建
+ */
+public class SpotColumns {
+    private final int size;                    // 行数
+    private final ScenicSpot[] spots;          // 行号 -> 景点
+    private final int[] ids;                   // 行号 -> 景点ID
+    private final int[] popularity;            // 行号 -> 热门程度
+    private final int[] visitTime;             // 行号 -> 建议游览时间(分钟)
+    private final double[] x;                  // 行号 -> X坐标
+    private final double[] y;                  // 行号 -> Y坐标
+    private final double[] fee;                // 行号 -> 门票价格
+    private final BitSet accessible;           // 有无障碍设施的行
+    private final int[] categoryCodes;         // 行号 -> 类别编码
+    private final String[] categoryNames;      // 类别编码 -> 类别名称，按首次出现的顺序
+    private final BitSet[] categoryRows;       // 类别编码 -> 属于该类别的行
+    private final Map<String, Integer> categoryIndex = new HashMap<>();  // 类别名称 -> 编码
+    private final Map<ScenicSpot, IntList> rowsOfSpot = new IdentityHashMap<>();  // 景点对象 -> 所在的行
+
+    /**
+     * 按线性表的当前内容构建列存储
+     * @param spotList 景点列表
+     */
+    public SpotColumns(SpotList spotList) {
+        size = spotList.size();
+        spots = spotList.toArray();
+        ids = new int[size];
+        popularity = new int[size];
+        visitTime = new int[size];
+        x = new double[size];
+        y = new double[size];
+        fee = new double[size];
+        accessible = new BitSet(size);
+        categoryCodes = new int[size];
+
+        List<String> names = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            ScenicSpot spot = spots[row];
+            ids[row] = spot.getId();
+            popularity[row] = spot.getPopularity();
+            visitTime[row] = spot.getVisitTime();
+            x[row] = spot.getX();
+            y[row] = spot.getY();
+            fee[row] = spot.getEntranceFee();
+            if (spot.isAccessible()) {
+                accessible.set(row);
+            }
+            Integer code = categoryIndex.get(spot.getCategory());
+            if (code == null) {
+                code = names.size();
+                categoryIndex.put(spot.getCategory(), code);
+                names.add(spot.getCategory());
+            }
+            categoryCodes[row] = code;
+            rowsOfSpot.computeIfAbsent(spot, k -> new IntList(1)).add(row);
+        }
+
+        categoryNames = names.toArray(new String[0]);
+        categoryRows = new BitSet[categoryNames.length];
+        for (int code = 0; code < categoryNames.length; code++) {
+            categoryRows[code] = new BitSet(size);
+        }
+        for (int row = 0; row < size; row++) {
+            categoryRows[categoryCodes[row]].set(row);
+        }
+    }
+
+    /**
+     * 获取行数
+     * @return 构建时的景点数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取所有行
+     * @return 包含全部行号的位图
+     */
+    public BitSet all() {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        return rows;
+    }
+
+    /**
+     * 有无障碍设施的行
+     * @return 行号位图
+     */
+    public BitSet accessible() {
+        return (BitSet) accessible.clone();
+    }
+
+    /**
+     * 属于指定类别的行
+     * @param category 类别名称
+     * @return 行号位图，类别不存在时为空
+     */
+    public BitSet category(String category) {
+        int code = categoryCode(category);
+        return code < 0 ? new BitSet() : (BitSet) categoryRows[code].clone();
+    }
+
+    /**
+     * 热门程度在闭区间内的行
+     * @param min 下限
+     * @param max 上限
+     * @return 行号位图
+     */
+    public BitSet popularityBetween(int min, int max) {
+        return intRange(null, popularity, min, max);
+    }
+
+    /**
+     * 候选行中热门程度在闭区间内的行，只检查候选行
+     * @param candidates 候选行
+     * @param min 下限
+     * @param max 上限
+     * @return 候选行的子集
+     */
+    public BitSet popularityBetween(BitSet candidates, int min, int max) {
+        return intRange(candidates, popularity, min, max);
+    }
+
+    /**
+     * 建议游览时间在闭区间内的行
+     * @param min 下限(分钟)
+     * @param max 上限(分钟)
+     * @return 行号位图
+     */
+    public BitSet visitTimeBetween(int min, int max) {
+        return intRange(null, visitTime, min, max);
+    }
+
+    /**
+     * 候选行中建议游览时间在闭区间内的行，只检查候选行
+     * @param candidates 候选行
+     * @param min 下限(分钟)
+     * @param max 上限(分钟)
+     * @return 候选行的子集
+     */
+    public BitSet visitTimeBetween(BitSet candidates, int min, int max) {
+        return intRange(candidates, visitTime, min, max);
+    }
+
+    /**
+     * 门票价格在闭区间内的行
+     * @param min 下限
+     * @param max 上限
+     * @return 行号位图
+     */
+    public BitSet feeBetween(double min, double max) {
+        return doubleRange(null, fee, min, max);
+    }
+
+    /**
+     * 候选行中门票价格在闭区间内的行，只检查候选行
+     * @param candidates 候选行
+     * @param min 下限
+     * @param max 上限
+     * @return 候选行的子集
+     */
+    public BitSet feeBetween(BitSet candidates, double min, double max) {
+        return doubleRange(candidates, fee, min, max);
+    }
+
+    /**
+     * 坐标落在矩形（含边界）内的行
+     * @param minX 最小X坐标
+     * @param minY 最小Y坐标
+     * @param maxX 最大X坐标
+     * @param maxY 最大Y坐标
+     * @return 行号位图
+     */
+    public BitSet withinBox(double minX, double minY, double maxX, double maxY) {
+        return doubleRange(doubleRange(null, x, minX, maxX), y, minY, maxY);
+    }
+
+    /**
+     * 候选行中坐标落在矩形（含边界）内的行，只检查候选行
+     * @param candidates 候选行
+     * @param minX 最小X坐标
+     * @param minY 最小Y坐标
+     * @param maxX 最大X坐标
+     * @param maxY 最大Y坐标
+     * @return 候选行的子集
+     */
+    public BitSet withinBox(BitSet candidates, double minX, double minY, double maxX, double maxY) {
+        return doubleRange(doubleRange(candidates, x, minX, maxX), y, minY, maxY);
+    }
+
+    /**
+     * 与指定点的欧氏距离不超过半径的行
+     * @param centerX 圆心X坐标
+     * @param centerY 圆心Y坐标
+     * @param radius 半径
+     * @return 行号位图
+     */
+    public BitSet withinRadius(double centerX, double centerY, double radius) {
+        return withinRadius(null, centerX, centerY, radius);
+    }
+
+    /**
+     * 候选行中与指定点的欧氏距离不超过半径的行，只检查候选行
+     * @param candidates 候选行，为null时检查所有行
+     * @param centerX 圆心X坐标
+     * @param centerY 圆心Y坐标
+     * @param radius 半径
+     * @return 候选行的子集
+     */
+    public BitSet withinRadius(BitSet candidates, double centerX, double centerY, double radius) {
+        double r2 = radius * radius;
+        long[] words = initialWords(candidates);
+        for (int w = 0; w < words.length; w++) {
+            long bits = words[w];
+            long keep = bits;
+            while (bits != 0) {
+                int b = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int row = (w << 6) + b;
+                double dx = x[row] - centerX;
+                double dy = y[row] - centerY;
+                if (!(dx * dx + dy * dy <= r2)) {
+                    keep &= ~(1L << b);
+                }
+            }
+            words[w] = keep;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * 给定景点对象所在的行，按对象身份而不是ID匹配；用于把其他索引的查询结果转换为行号，与列过滤组合
+     * @param matches 景点
+     * @return 行号位图，不在快照中的景点被忽略
+     */
+    public BitSet rowsOf(Collection<ScenicSpot> matches) {
+        BitSet rows = new BitSet(size);
+        for (ScenicSpot spot : matches) {
+            IntList spotRows = rowsOfSpot.get(spot);
+            if (spotRows != null) {
+                for (int i = 0; i < spotRows.size(); i++) {
+                    rows.set(spotRows.get(i));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 获取类别编码
+     * @param category 类别名称
+     * @return 类别编码，类别不存在时返回-1
+     */
+    public int categoryCode(String category) {
+        Integer code = categoryIndex.get(category);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * 获取所有类别名称
+     * @return 类别编码 -> 类别名称
+     */
+    public String[] categories() {
+        return Arrays.copyOf(categoryNames, categoryNames.length);
+    }
+
+    /**
+     * 统计各类别在给定行中的数量
+     * @param rows 行号位图
+     * @return 类别编码 -> 数量
+     */
+    public int[] categoryCounts(BitSet rows) {
+        int[] counts = new int[categoryNames.length];
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            counts[categoryCodes[row]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 获取行对应的景点
+     * @param row 行号
+     * @return 景点
+     */
+    public ScenicSpot spot(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + row);
+        }
+        return spots[row];
+    }
+
+    /**
+     * 获取行对应的景点ID
+     * @param row 行号
+     * @return 景点ID
+     */
+    public int idOf(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + row);
+        }
+        return ids[row];
+    }
+
+    /**
+     * 按行号顺序取回位图中的景点
+     * @param rows 行号位图
+     * @return 景点列表
+     */
+    public List<ScenicSpot> spots(BitSet rows) {
+        List<ScenicSpot> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            result.add(spots[row]);
+        }
+        return result;
+    }
+
+    /**
+     * 整数列的区间过滤：没有候选行时逐字（64行）在寄存器中拼出结果位，否则只检查候选位
+     */
+    private BitSet intRange(BitSet candidates, int[] column, int min, int max) {
+        long[] words;
+        if (candidates == null) {
+            words = new long[wordCount()];
+            for (int w = 0, base = 0; w < words.length; w++, base += 64) {
+                int count = Math.min(64, size - base);
+                long bits = 0L;
+                for (int b = 0; b < count; b++) {
+                    int value = column[base + b];
+                    bits |= (value >= min && value <= max ? 1L : 0L) << b;
+                }
+                words[w] = bits;
+            }
+        } else {
+            words = initialWords(candidates);
+            for (int w = 0; w < words.length; w++) {
+                long bits = words[w];
+                long keep = bits;
+                while (bits != 0) {
+                    int b = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int value = column[(w << 6) + b];
+                    if (value < min || value > max) {
+                        keep &= ~(1L << b);
+                    }
+                }
+                words[w] = keep;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * 浮点列的区间过滤，做法同 {@link #intRange}；NaN不落在任何区间内
+     */
+    private BitSet doubleRange(BitSet candidates, double[] column, double min, double max) {
+        long[] words;
+        if (candidates == null) {
+            words = new long[wordCount()];
+            for (int w = 0, base = 0; w < words.length; w++, base += 64) {
+                int count = Math.min(64, size - base);
+                long bits = 0L;
+                for (int b = 0; b < count; b++) {
+                    double value = column[base + b];
+                    bits |= (value >= min && value <= max ? 1L : 0L) << b;
+                }
+                words[w] = bits;
+            }
+        } else {
+            words = initialWords(candidates);
+            for (int w = 0; w < words.length; w++) {
+                long bits = words[w];
+                long keep = bits;
+                while (bits != 0) {
+                    int b = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    double value = column[(w << 6) + b];
+                    if (!(value >= min && value <= max)) {
+                        keep &= ~(1L << b);
+                    }
+                }
+                words[w] = keep;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * 候选行的位数组，截去超出行数的位；没有候选行时为全部行
+     */
+    private long[] initialWords(BitSet candidates) {
+        if (candidates == null) {
+            return all().toLongArray();
+        }
+        long[] words = Arrays.copyOf(candidates.toLongArray(), wordCount());
+        if ((size & 63) != 0 && words.length > 0) {
+            words[words.length - 1] &= (1L << size) - 1;
+        }
+        return words;
+    }
+
+    private int wordCount() {
+        return (size + 63) >>> 6;
+    }
+}
@@ -0,0 +1,341 @@
+package com.tiantan.model.data;
+
+import com.tiantan.util.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 景点名称模糊索引（前缀树上的Levenshtein自动机）
+ * 中文名和英文名的小写形式各建一棵前缀树，名称相同的景点挂在同一个结尾节点上。
+ * 查询时沿前缀树做深度优先遍历，用动态规划逐行模拟Levenshtein自动机：共享前缀的名称共用同一段计算，
+ * 某个前缀与查询串所有前缀的距离都已超过阈值时，以它开头的名称全部跳过，不再逐个计算完整的编辑距离。
+ * 结果按编辑距离升序、热门程度降序、景点ID升序排列，只返回前若干个。
+ * 索引监听景点列表：加入景点时插入名称，移除时只从结尾节点上摘下景点，
+ * 没有景点的名称仍留在树中，这类名称过多时用剩余名称重建。非线程安全，与景点列表在同一线程使用
+ */
+public class SpotFuzzyIndex implements SpotListListener {
+    private static final int MIN_REBUILD_DEAD_KEYS = 64;  // 没有景点的名称达到该数量且超过有效名称数时重建
+
+    private final SpotList spotList;                       // 被索引的景点列表
+    private final NameTrie chineseNames = new NameTrie();  // 小写中文名
+    private final NameTrie englishNames = new NameTrie();  // 小写英文名
+
+    /**
+     * 构造函数，索引列表中的所有景点并开始监听列表变化
+     * @param spotList 景点列表
+     */
+    public SpotFuzzyIndex(SpotList spotList) {
+        this.spotList = spotList;
+        rebuild();
+        spotList.addSpotListListener(this);
+    }
+
+    /**
+     * 停止监听列表变化
+     */
+    public void dispose() {
+        spotList.removeSpotListListener(this);
+    }
+
+    /**
+     * 按列表当前内容重建索引
+     */
+    public void rebuild() {
+        chineseNames.clear();
+        englishNames.clear();
+        for (ScenicSpot spot : spotList) {
+            spotAdded(spot);
+        }
+    }
+
+    @Override
+    public void spotAdded(ScenicSpot spot) {
+        chineseNames.add(normalize(spot.getNameZh()), spot);
+        englishNames.add(normalize(spot.getNameEn()), spot);
+    }
+
+    @Override
+    public void spotRemoved(ScenicSpot spot) {
+        chineseNames.remove(normalize(spot.getNameZh()), spot);
+        englishNames.remove(normalize(spot.getNameEn()), spot);
+    }
+
+    @Override
+    public void listRefreshed(SpotList list) {
+        rebuild();
+    }
+
+    /**
+     * 查询名称与关键词相近的景点
+     * @param query 关键词，忽略大小写
+     * @param maxDistance 最大编辑距离
+     * @param limit 最多返回的景点数
+     * @param english 是否按英文名匹配
+     * @return 按编辑距离、热门程度排序的景点
+     */
+    public List<ScenicSpot> search(String query, int maxDistance, int limit, boolean english) {
+        return search(query, maxDistance, limit, english, null, false);
+    }
+
+    /**
+     * 查询名称与关键词相近且符合过滤条件的景点
+     * @param query 关键词，忽略大小写
+     * @param maxDistance 最大编辑距离
+     * @param limit 最多返回的景点数
+     * @param english 是否按英文名匹配
+     * @param category 类别，为null时不限类别
+     * @param accessibleOnly 是否只返回有无障碍设施的景点
+     * @return 按编辑距离、热门程度排序的景点
+     */
+    public List<ScenicSpot> search(String query, int maxDistance, int limit, boolean english,
+                                   String category, boolean accessibleOnly) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("最大编辑距离不能为负数: " + maxDistance);
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("返回数量不能为负数: " + limit);
+        }
+        List<Match> matches = new ArrayList<>();
+        if (limit > 0) {
+            NameTrie trie = english ? englishNames : chineseNames;
+            trie.collect(normalize(query), maxDistance, category, accessibleOnly, matches);
+        }
+        matches.sort(null);
+        int count = Math.min(limit, matches.size());
+        List<ScenicSpot> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(matches.get(i).spot);
+        }
+        return result;
+    }
+
+    /**
+     * 获取索引中的景点数
+     * @return 景点数
+     */
+    public int size() {
+        return chineseNames.spotCount;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase();
+    }
+
+    /**
+     * 候选景点及其编辑距离
+     */
+    private static final class Match implements Comparable<Match> {
+        final ScenicSpot spot;
+        final int distance;
+
+        Match(ScenicSpot spot, int distance) {
+            this.spot = spot;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (distance != other.distance) {
+                return Integer.compare(distance, other.distance);
+            }
+            if (spot.getPopularity() != other.spot.getPopularity()) {
+                return Integer.compare(other.spot.getPopularity(), spot.getPopularity());
+            }
+            return Integer.compare(spot.getId(), other.spot.getId());
+        }
+    }
+
+    /**
+     * 名称前缀树，节点按数组存放，子节点用兄弟链表连接，另用哈希表按(父节点, 字符)定位子节点
+     */
+    private static final class NameTrie {
+        private char[] label = new char[16];           // 节点 -> 入边字符
+        private int[] firstChild = new int[16];        // 节点 -> 第一个子节点，没有时为-1
+        private int[] nextSibling = new int[16];       // 节点 -> 下一个兄弟节点，没有时为-1
+        private int[] depth = new int[16];             // 节点 -> 深度（前缀长度）
+        private final Map<Long, Integer> childIndex = new HashMap<>();          // (父节点, 字符) -> 子节点
+        private final Map<Integer, List<ScenicSpot>> spotsOfNode = new HashMap<>();  // 名称结尾节点 -> 该名称的景点
+        private final List<String> keyOfNode = new ArrayList<>();             // 节点 -> 名称（非结尾节点为null）
+        private int nodeCount;                         // 节点数，节点0为根
+        private int deadCount;                         // 没有景点的名称数
+        private int maxDepth;                          // 最长名称的长度
+        private int spotCount;                         // 景点数
+
+        NameTrie() {
+            clear();
+        }
+
+        void clear() {
+            childIndex.clear();
+            spotsOfNode.clear();
+            keyOfNode.clear();
+            nodeCount = 0;
+            deadCount = 0;
+            maxDepth = 0;
+            spotCount = 0;
+            newNode(0, (char) 0, 0);
+        }
+
+        void add(String key, ScenicSpot spot) {
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                Integer child = childIndex.get(edgeKey(node, c));
+                node = child != null ? child : newNode(node, c, i + 1);
+            }
+            List<ScenicSpot> spots = spotsOfNode.get(node);
+            if (spots == null) {
+                spots = new ArrayList<>(1);
+                spotsOfNode.put(node, spots);
+                keyOfNode.set(node, key);
+                maxDepth = Math.max(maxDepth, key.length());
+            } else if (spots.isEmpty()) {
+                deadCount--;
+            }
+            spots.add(spot);
+            spotCount++;
+        }
+
+        void remove(String key, ScenicSpot spot) {
+            int node = 0;
+            for (int i = 0; i < key.length() && node >= 0; i++) {
+                Integer child = childIndex.get(edgeKey(node, key.charAt(i)));
+                node = child != null ? child : -1;
+            }
+            List<ScenicSpot> spots = node >= 0 ? spotsOfNode.get(node) : null;
+            if (spots == null) {
+                return;
+            }
+            for (int i = spots.size() - 1; i >= 0; i--) {
+                if (spots.get(i) == spot) {
+                    spots.remove(i);
+                    spotCount--;
+                    if (spots.isEmpty()) {
+                        deadCount++;
+                        if (deadCount >= MIN_REBUILD_DEAD_KEYS && deadCount > spotsOfNode.size() - deadCount) {
+                            compact();
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 收集与查询串距离不超过maxDistance的景点。
+         * 先序遍历前缀树，深度t的节点持有查询串各前缀与该节点前缀的编辑距离一行，由父节点的行递推得到；
+         * 行中最小值超过maxDistance时，更长的前缀只会更远，整棵子树跳过
+         */
+        void collect(String query, int maxDistance, String category, boolean accessibleOnly, List<Match> out) {
+            int m = query.length();
+            int width = m + 1;
+            int[] rows = new int[(maxDepth + 1) * width];  // 深度 -> 当前路径上该深度节点的行
+            for (int j = 0; j <= m; j++) {
+                rows[j] = j;
+            }
+            visit(0, maxDistance, m, category, accessibleOnly, rows, out);
+            IntList stack = new IntList();
+            pushChildren(0, stack);
+            while (!stack.isEmpty()) {
+                int node = stack.pop();
+                int t = depth[node];
+                int prev = (t - 1) * width;
+                int cur = t * width;
+                char c = label[node];
+                rows[cur] = t;
+                int min = t;
+                for (int j = 1; j <= m; j++) {
+                    int cost = query.charAt(j - 1) == c ? 0 : 1;
+                    int d = Math.min(Math.min(rows[cur + j - 1], rows[prev + j]) + 1, rows[prev + j - 1] + cost);
+                    rows[cur + j] = d;
+                    if (d < min) {
+                        min = d;
+                    }
+                }
+                visit(node, maxDistance, m, category, accessibleOnly, rows, out);
+                if (min <= maxDistance) {
+                    pushChildren(node, stack);
+                }
+            }
+        }
+
+        private void visit(int node, int maxDistance, int m, String category, boolean accessibleOnly,
+                           int[] rows, List<Match> out) {
+            int d = rows[depth[node] * (m + 1) + m];
+            if (d > maxDistance) {
+                return;
+            }
+            List<ScenicSpot> spots = spotsOfNode.get(node);
+            if (spots == null) {
+                return;
+            }
+            for (ScenicSpot spot : spots) {
+                if ((category == null || category.equals(spot.getCategory()))
+                        && (!accessibleOnly || spot.isAccessible())) {
+                    out.add(new Match(spot, d));
+                }
+            }
+        }
+
+        private void pushChildren(int node, IntList stack) {
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                stack.push(child);
+            }
+        }
+
+        private int newNode(int parent, char c, int nodeDepth) {
+            int node = nodeCount;
+            ensureCapacity(node + 1);
+            label[node] = c;
+            depth[node] = nodeDepth;
+            firstChild[node] = -1;
+            nextSibling[node] = -1;
+            keyOfNode.add(null);
+            nodeCount++;
+            if (node > 0) {
+                nextSibling[node] = firstChild[parent];
+                firstChild[parent] = node;
+                childIndex.put(edgeKey(parent, c), node);
+            }
+            return node;
+        }
+
+        /**
+         * 去掉没有景点的名称，用剩余名称重建前缀树
+         */
+        private void compact() {
+            List<String> remainingKeys = new ArrayList<>();
+            List<List<ScenicSpot>> remainingSpots = new ArrayList<>();
+            for (Map.Entry<Integer, List<ScenicSpot>> entry : spotsOfNode.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    remainingKeys.add(keyOfNode.get(entry.getKey()));
+                    remainingSpots.add(entry.getValue());
+                }
+            }
+            clear();
+            for (int i = 0; i < remainingKeys.size(); i++) {
+                for (ScenicSpot spot : remainingSpots.get(i)) {
+                    add(remainingKeys.get(i), spot);
+                }
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > label.length) {
+                int newCapacity = Math.max(capacity, label.length * 2);
+                label = Arrays.copyOf(label, newCapacity);
+                firstChild = Arrays.copyOf(firstChild, newCapacity);
+                nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+                depth = Arrays.copyOf(depth, newCapacity);
+            }
+        }
+
+        private static long edgeKey(int parent, char c) {
+            return ((long) parent << 16) | c;
+        }
+    }
+}
@@ -1,21 +1,30 @@
 package com.tiantan.model.data;
 
-import com.tiantan.model.algorithm.SearchUtil;
 import com.tiantan.model.algorithm.SortUtil;
+import com.tiantan.util.IntIntHashMap;
 
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 
 /**
  * 景点线性表实现类
- * 采用顺序存储结构实现景点列表的管理
+ * 采用顺序存储结构实现景点列表的管理，并维护景点ID到位置的索引，按ID查找为常数时间。
+ * ID重复时索引指向位置最靠前的一个；景点加入列表后如果修改了ID，需要调用 {@link #reindex()}，
+ * 在此之前按新旧ID都可能查不到该景点，查询本身不会修改索引。
+ * 批量过滤可使用 {@link #columns()} 返回的列存储快照，列表变化后快照自动失效。
+ * 加入或移除景点时通知 {@link SpotListListener}，供搜索索引等增量更新
  */
 public class SpotList implements Iterable<ScenicSpot> {
     private ScenicSpot[] spots;  // 存储景点的数组
     private int size;           // 当前景点数量
+    private final IntIntHashMap idIndex = new IntIntHashMap(-1);  // 景点ID -> 首次出现的位置
+    private SpotColumns columns;  // 列存储快照，列表变化时置空，下次使用时重建
+    private final List<SpotListListener> listeners = new CopyOnWriteArrayList<>();  // 列表变化监听器
     private static final int DEFAULT_CAPACITY = 16;  // 默认容量
 
     // 构造函数
@@ -35,7 +44,11 @@ public class SpotList implements Iterable<ScenicSpot> {
     // 添加景点
     public void add(ScenicSpot spot) {
         ensureCapacity(size + 1);
-        spots[size++] = spot;
+        spots[size] = spot;
+        indexIfFirst(size);
+        size++;
+        columns = null;
+        fireAdded(spot);
     }
 
     // 在指定位置插入景点
@@ -49,6 +62,17 @@ public class SpotList implements Iterable<ScenicSpot> {
         System.arraycopy(spots, index, spots, index + 1, size - index);
         spots[index] = spot;
         size++;
+        
+        // 后移元素的位置加一（从后往前，避免同ID景点被连续后移），再登记新景点
+        for (int i = size - 1; i > index; i--) {
+            int id = spots[i].getId();
+            if (idIndex.get(id) == i - 1) {
+                idIndex.put(id, i);
+            }
+        }
+        indexIfFirst(index);
+        columns = null;
+        fireAdded(spot);
     }
 
     // 删除景点
@@ -67,9 +91,27 @@ public class SpotList implements Iterable<ScenicSpot> {
             throw new IndexOutOfBoundsException("索引越界: " + index);
         }
         
+        ScenicSpot removed = spots[index];
+        int removedId = removed.getId();
+        if (idIndex.get(removedId) == index) {
+            idIndex.remove(removedId);
+        }
+        
         // 将index之后的元素前移一位
         System.arraycopy(spots, index + 1, spots, index, size - index - 1);
         spots[--size] = null; // 便于GC回收
+        
+        // 前移元素的位置减一；被删除的是首次出现时改为登记后面的同ID景点
+        for (int i = index; i < size; i++) {
+            int id = spots[i].getId();
+            if (idIndex.get(id) == i + 1) {
+                idIndex.put(id, i);
+            } else if (id == removedId && !idIndex.containsKey(id)) {
+                idIndex.put(id, i);
+            }
+        }
+        columns = null;
+        fireRemoved(removed);
         return true;
     }
 
@@ -78,7 +120,22 @@ public class SpotList implements Iterable<ScenicSpot> {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("索引越界: " + index);
         }
+        ScenicSpot old = spots[index];
+        int oldId = old.getId();
         spots[index] = spot;
+        if (oldId != spot.getId() && idIndex.get(oldId) == index) {
+            idIndex.remove(oldId);
+            for (int i = index + 1; i < size; i++) {
+                if (spots[i].getId() == oldId) {
+                    idIndex.put(oldId, i);
+                    break;
+                }
+            }
+        }
+        indexIfFirst(index);
+        columns = null;
+        fireRemoved(old);
+        fireAdded(spot);
     }
 
     // 获取指定位置的景点
@@ -89,14 +146,57 @@ public class SpotList implements Iterable<ScenicSpot> {
         return spots[index];
     }
 
-    // 获取景点在列表中的位置
+    // 获取景点在列表中的位置（景点按ID判等，直接查ID索引）
     public int indexOf(ScenicSpot spot) {
+        if (spot == null) {
+            return -1;
+        }
+        int index = indexOfId(spot.getId());
+        return index >= 0 && spots[index].equals(spot) ? index : -1;
+    }
+
+    // 获取指定ID的景点在列表中的位置，不存在时返回-1；不产生对象分配，也不修改索引
+    public int indexOfId(int id) {
+        int index = idIndex.get(id);
+        // 景点ID在列表外被修改后、调用reindex()之前，索引项可能已过期，此时视为不存在
+        return index >= 0 && index < size && spots[index].getId() == id ? index : -1;
+    }
+
+    // 按ID获取景点，不存在时返回null；不产生对象分配
+    public ScenicSpot getById(int id) {
+        int index = indexOfId(id);
+        return index >= 0 ? spots[index] : null;
+    }
+
+    // 按当前内容重建ID索引，丢弃列存储快照并通知监听器整体重建（景点属性在列表外被修改后应调用）
+    public void reindex() {
+        rebuildIdIndex();
+        fireRefreshed();
+    }
+
+    private void rebuildIdIndex() {
+        idIndex.clear();
         for (int i = 0; i < size; i++) {
-            if (spots[i].equals(spot)) {
-                return i;
-            }
+            indexIfFirst(i);
+        }
+        columns = null;
+    }
+
+    // 获取列存储快照，列表变化后的第一次调用会重建
+    public SpotColumns columns() {
+        if (columns == null) {
+            columns = new SpotColumns(this);
+        }
+        return columns;
+    }
+
+    // 位置 index 的景点是其ID的首次出现时登记到索引
+    private void indexIfFirst(int index) {
+        int id = spots[index].getId();
+        int current = idIndex.get(id);
+        if (current < 0 || current > index) {
+            idIndex.put(id, index);
         }
-        return -1;
     }
 
     // 列表是否包含指定景点
@@ -118,6 +218,9 @@ public class SpotList implements Iterable<ScenicSpot> {
     public void clear() {
         Arrays.fill(spots, 0, size, null);
         size = 0;
+        idIndex.clear();
+        columns = null;
+        fireRefreshed();
     }
 
     // 确保容量足够
@@ -136,15 +239,9 @@ public class SpotList implements Iterable<ScenicSpot> {
         return Arrays.copyOf(spots, size);
     }
 
-    // 使用二分查找按ID查找景点
+    // 按ID查找景点，保留旧名称以兼容调用方，现在直接查ID索引
     public ScenicSpot binarySearchById(int id) {
-        // 先按ID排序
-        ScenicSpot[] sortedSpots = Arrays.copyOf(spots, size);
-        Arrays.sort(sortedSpots, 0, size, Comparator.comparingInt(ScenicSpot::getId));
-        
-        int index = SearchUtil.binarySearch(sortedSpots, 0, size - 1, 
-                                          (spot) -> Integer.compare(spot.getId(), id));
-        return index >= 0 ? sortedSpots[index] : null;
+        return getById(id);
     }
 
     // 按指定条件查找景点
@@ -162,6 +259,35 @@ public class SpotList implements Iterable<ScenicSpot> {
     public void sort(Comparator<ScenicSpot> comparator) {
         if (size > 1) {
             SortUtil.quickSort(spots, 0, size - 1, comparator);
+            rebuildIdIndex();
+        }
+    }
+
+    // 添加列表变化监听器
+    public void addSpotListListener(SpotListListener listener) {
+        listeners.add(listener);
+    }
+
+    // 移除列表变化监听器
+    public void removeSpotListListener(SpotListListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireAdded(ScenicSpot spot) {
+        for (SpotListListener listener : listeners) {
+            listener.spotAdded(spot);
+        }
+    }
+
+    private void fireRemoved(ScenicSpot spot) {
+        for (SpotListListener listener : listeners) {
+            listener.spotRemoved(spot);
+        }
+    }
+
+    private void fireRefreshed() {
+        for (SpotListListener listener : listeners) {
+            listener.listRefreshed(this);
         }
     }
 
@@ -0,0 +1,26 @@
+package com.tiantan.model.data;
+
+/**
+ * 景点列表变化监听器
+ * 列表中加入或移除景点时被调用；只改变顺序（如排序、插入位置）不会通知
+ */
+public interface SpotListListener {
+
+    /**
+     * 景点已加入列表
+     * @param spot 加入的景点
+     */
+    void spotAdded(ScenicSpot spot);
+
+    /**
+     * 景点已从列表移除（替换景点时先移除旧景点再加入新景点）
+     * @param spot 移除的景点
+     */
+    void spotRemoved(ScenicSpot spot);
+
+    /**
+     * 列表已清空，或景点内容在列表外被修改后调用了 {@link SpotList#reindex()}，需要按列表当前内容整体重建
+     * @param list 景点列表
+     */
+    void listRefreshed(SpotList list);
+}
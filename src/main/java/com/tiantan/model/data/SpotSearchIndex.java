@@ -0,0 +1,558 @@
+package com.tiantan.model.data;
+
+import com.tiantan.util.IntIntHashMap;
+import com.tiantan.util.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 景点全文倒排索引
+ * 中英文名称和描述分为四个字段，各字段分别切分为词元（连续的字母数字为一个英文词，每个汉字单独为一个词元），
+ * 每个词元对应一个按文档号升序的倒排表；另为各字段小写文本的每个单字和相邻二字建立倒排表，用于短语查询。
+ * 查询时指定在哪些字段中匹配，未指定时匹配全部字段。
+ * AND查询按倒排表长度从短到长做跳跃（galloping）求交，OR查询归并求并，
+ * 短语查询在每个字段中先用短语中所有二字的倒排表求交得到候选，再在候选该字段的小写文本中确认短语确实出现。
+ * 类别和无障碍条件由按文档号的位图过滤，选择性高的查询耗时只与倒排表长度有关，与景点总数无关。
+ * 索引监听景点列表，加入景点时追加文档，移除时只打删除标记，删除过多时整体压缩。
+ * 结果按景点加入索引的先后顺序排列。非线程安全，与景点列表在同一线程使用
+ */
+public class SpotSearchIndex implements SpotListListener {
+    private static final int MIN_COMPACT_DELETIONS = 64; // 删除标记达到该数量且超过有效文档数时压缩
+
+    /**
+     * 可检索的字段
+     */
+    public enum Field {
+        /** 中文名称 */
+        NAME_ZH,
+        /** 英文名称 */
+        NAME_EN,
+        /** 中文描述 */
+        DESCRIPTION_ZH,
+        /** 英文描述 */
+        DESCRIPTION_EN;
+
+        /**
+         * 指定语言的名称字段
+         * @param isEnglish 是否为英文
+         * @return 名称字段
+         */
+        public static Field name(boolean isEnglish) {
+            return isEnglish ? NAME_EN : NAME_ZH;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    private static final int FIELD_COUNT = FIELDS.length;
+
+    /**
+     * 多个词元的组合方式
+     */
+    public enum MatchMode {
+        /** 包含所有词元 */
+        ALL,
+        /** 包含任一词元 */
+        ANY,
+        /** 全文中连续出现整个查询串（忽略大小写） */
+        PHRASE
+    }
+
+    private final SpotList spotList;                                // 被索引的景点列表
+    private ScenicSpot[] docs = new ScenicSpot[16];                 // 文档号 -> 景点
+    private String[] texts = new String[16 * FIELD_COUNT];          // 文档号 * 字段数 + 字段序号 -> 小写文本
+    private int docCount;                                           // 已分配的文档号数量
+    private final BitSet live = new BitSet();                       // 未删除的文档
+    private int deletedCount;                                       // 删除标记数量
+    private final Map<ScenicSpot, IntList> docsOfSpot = new IdentityHashMap<>();  // 景点 -> 文档号
+    private final List<Map<String, Posting>> words = new ArrayList<>();  // 字段序号 -> (词元 -> 倒排表)
+    private final IntIntHashMap[] gramSlots = new IntIntHashMap[FIELD_COUNT]; // 字段序号 -> (单字或二字编码 -> 倒排表序号)
+    private final List<Posting> grams = new ArrayList<>();          // 倒排表序号 -> 倒排表
+    private final Map<String, BitSet> categoryDocs = new HashMap<>(); // 类别 -> 文档位图
+    private final BitSet accessibleDocs = new BitSet();             // 有无障碍设施的文档
+
+    /**
+     * 构造函数，索引列表中的所有景点并开始监听列表变化
+     * @param spotList 景点列表
+     */
+    public SpotSearchIndex(SpotList spotList) {
+        this.spotList = spotList;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            words.add(new HashMap<>());
+            gramSlots[f] = new IntIntHashMap(-1);
+        }
+        rebuild();
+        spotList.addSpotListListener(this);
+    }
+
+    /**
+     * 停止监听列表变化
+     */
+    public void dispose() {
+        spotList.removeSpotListListener(this);
+    }
+
+    /**
+     * 按列表当前内容重建索引
+     */
+    public void rebuild() {
+        clearAll();
+        for (ScenicSpot spot : spotList) {
+            addDocument(spot);
+        }
+    }
+
+    /**
+     * 去掉删除标记的文档并重新编号，按原顺序重新索引有效文档；
+     * 不读取景点列表，因此在列表通知的过程中调用也是安全的
+     */
+    private void compact() {
+        ScenicSpot[] remaining = new ScenicSpot[live.cardinality()];
+        int count = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            remaining[count++] = docs[doc];
+        }
+        clearAll();
+        for (ScenicSpot spot : remaining) {
+            addDocument(spot);
+        }
+    }
+
+    private void clearAll() {
+        Arrays.fill(docs, 0, docCount, null);
+        Arrays.fill(texts, 0, docCount * FIELD_COUNT, null);
+        docCount = 0;
+        live.clear();
+        deletedCount = 0;
+        docsOfSpot.clear();
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            words.get(f).clear();
+            gramSlots[f].clear();
+        }
+        grams.clear();
+        categoryDocs.clear();
+        accessibleDocs.clear();
+    }
+
+    @Override
+    public void spotAdded(ScenicSpot spot) {
+        addDocument(spot);
+    }
+
+    @Override
+    public void spotRemoved(ScenicSpot spot) {
+        IntList ids = docsOfSpot.get(spot);
+        if (ids == null) {
+            return;
+        }
+        int doc = ids.pop();
+        if (ids.isEmpty()) {
+            docsOfSpot.remove(spot);
+        }
+        live.clear(doc);
+        deletedCount++;
+        if (deletedCount >= MIN_COMPACT_DELETIONS && deletedCount > live.cardinality()) {
+            compact();
+        }
+    }
+
+    @Override
+    public void listRefreshed(SpotList list) {
+        rebuild();
+    }
+
+    /**
+     * 在全部字段中查询景点
+     * @param query 查询串，为空时返回所有符合过滤条件的景点
+     * @param mode 组合方式
+     * @return 匹配的景点
+     */
+    public List<ScenicSpot> search(String query, MatchMode mode) {
+        return search(query, mode, EnumSet.allOf(Field.class), null, false);
+    }
+
+    /**
+     * 在全部字段中带类别和无障碍过滤的查询
+     * @param query 查询串，为空时返回所有符合过滤条件的景点
+     * @param mode 组合方式
+     * @param category 类别，为null时不限
+     * @param accessibleOnly 是否只要有无障碍设施的景点
+     * @return 匹配的景点
+     */
+    public List<ScenicSpot> search(String query, MatchMode mode, String category, boolean accessibleOnly) {
+        return search(query, mode, EnumSet.allOf(Field.class), category, accessibleOnly);
+    }
+
+    /**
+     * 在指定字段中查询景点
+     * @param query 查询串，为空时返回所有符合过滤条件的景点
+     * @param mode 组合方式；ALL要求每个词元出现在任一指定字段中，PHRASE要求短语完整出现在某一个指定字段中
+     * @param fields 参与匹配的字段
+     * @return 匹配的景点
+     */
+    public List<ScenicSpot> search(String query, MatchMode mode, Set<Field> fields) {
+        return search(query, mode, fields, null, false);
+    }
+
+    /**
+     * 在指定字段中带类别和无障碍过滤的查询
+     * @param query 查询串，为空时返回所有符合过滤条件的景点
+     * @param mode 组合方式；ALL要求每个词元出现在任一指定字段中，PHRASE要求短语完整出现在某一个指定字段中
+     * @param fields 参与匹配的字段
+     * @param category 类别，为null时不限
+     * @param accessibleOnly 是否只要有无障碍设施的景点
+     * @return 匹配的景点
+     */
+    public List<ScenicSpot> search(String query, MatchMode mode, Set<Field> fields,
+                                   String category, boolean accessibleOnly) {
+        BitSet inCategory = null;
+        if (category != null) {
+            inCategory = categoryDocs.get(category);
+            if (inCategory == null) {
+                return new ArrayList<>();
+            }
+        }
+
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<ScenicSpot> result = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            BitSet filter = (BitSet) live.clone();
+            if (inCategory != null) {
+                filter.and(inCategory);
+            }
+            if (accessibleOnly) {
+                filter.and(accessibleDocs);
+            }
+            for (int doc = filter.nextSetBit(0); doc >= 0; doc = filter.nextSetBit(doc + 1)) {
+                result.add(docs[doc]);
+            }
+            return result;
+        }
+
+        IntList matched;
+        switch (mode) {
+            case ANY:
+                matched = union(wordPostings(normalized, fields));
+                break;
+            case PHRASE:
+                matched = phraseMatches(normalized, fields);
+                break;
+            case ALL:
+            default:
+                matched = intersect(wordPostings(normalized, fields));
+                break;
+        }
+        for (int i = 0; i < matched.size(); i++) {
+            int doc = matched.get(i);
+            if (live.get(doc)
+                    && (inCategory == null || inCategory.get(doc))
+                    && (!accessibleOnly || accessibleDocs.get(doc))) {
+                result.add(docs[doc]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取已索引的有效景点数量
+     * @return 景点数量
+     */
+    public int size() {
+        return live.cardinality();
+    }
+
+    /**
+     * 把字符串切分为词元：连续的字母数字为一个词，每个汉字单独为一个词元，其他字符作为分隔
+     * @param text 文本
+     * @return 小写词元，按出现顺序，可能重复
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int wordStart = -1;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            boolean ideograph = Character.isIdeographic(c);
+            if (!ideograph && Character.isLetterOrDigit(c)) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+                continue;
+            }
+            if (wordStart >= 0) {
+                tokens.add(lower.substring(wordStart, i));
+                wordStart = -1;
+            }
+            if (ideograph) {
+                tokens.add(String.valueOf(c));
+            }
+        }
+        if (wordStart >= 0) {
+            tokens.add(lower.substring(wordStart));
+        }
+        return tokens;
+    }
+
+    private void addDocument(ScenicSpot spot) {
+        int doc = docCount++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, doc * 2);
+            texts = Arrays.copyOf(texts, doc * 2 * FIELD_COUNT);
+        }
+        docs[doc] = spot;
+        live.set(doc);
+        docsOfSpot.computeIfAbsent(spot, k -> new IntList(1)).add(doc);
+
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            String text = fieldText(spot, FIELDS[f]);
+            texts[doc * FIELD_COUNT + f] = text;
+            Map<String, Posting> fieldWords = words.get(f);
+            for (String token : tokenize(text)) {
+                fieldWords.computeIfAbsent(token, k -> new Posting()).add(doc);
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                gramPosting(f, c).add(doc);
+                if (i + 1 < text.length()) {
+                    gramPosting(f, bigram(c, text.charAt(i + 1))).add(doc);
+                }
+            }
+        }
+
+        if (spot.getCategory() != null) {
+            categoryDocs.computeIfAbsent(spot.getCategory(), k -> new BitSet()).set(doc);
+        }
+        if (spot.isAccessible()) {
+            accessibleDocs.set(doc);
+        }
+    }
+
+    /**
+     * 景点在字段中的小写文本，字段为空时为空串
+     */
+    private static String fieldText(ScenicSpot spot, Field field) {
+        String text;
+        switch (field) {
+            case NAME_ZH:
+                text = spot.getNameZh();
+                break;
+            case NAME_EN:
+                text = spot.getNameEn();
+                break;
+            case DESCRIPTION_ZH:
+                text = spot.getDescriptionZh();
+                break;
+            case DESCRIPTION_EN:
+            default:
+                text = spot.getDescriptionEn();
+                break;
+        }
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private Posting gramPosting(int field, int key) {
+        int slot = gramSlots[field].get(key);
+        if (slot < 0) {
+            slot = grams.size();
+            grams.add(new Posting());
+            gramSlots[field].put(key, slot);
+        }
+        return grams.get(slot);
+    }
+
+    /**
+     * 二字编码：首字在高16位且加1，避免与单字编码（即字符本身）冲突
+     */
+    private static int bigram(char first, char second) {
+        return ((first + 1) << 16) | second;
+    }
+
+    /**
+     * 查询串中每个不同词元的倒排表，一个词元在多个字段中出现时合并为一个倒排表；
+     * 某个词元在所有指定字段中都不存在时对应位置为空倒排表
+     */
+    private List<Posting> wordPostings(String query, Set<Field> fields) {
+        List<Posting> postings = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            if (seen.contains(token)) {
+                continue;
+            }
+            seen.add(token);
+            List<Posting> perField = new ArrayList<>(fields.size());
+            for (Field field : fields) {
+                Posting posting = words.get(field.ordinal()).get(token);
+                if (posting != null) {
+                    perField.add(posting);
+                }
+            }
+            postings.add(perField.size() == 1 ? perField.get(0) : Posting.of(union(perField)));
+        }
+        return postings;
+    }
+
+    /**
+     * 短语匹配：在每个指定字段中用短语所有二字（只有一个字时为该单字）的倒排表求交得到候选，
+     * 确认该字段文本确实包含短语后合并各字段的结果
+     */
+    private IntList phraseMatches(String phrase, Set<Field> fields) {
+        BitSet matched = new BitSet(docCount);
+        for (Field field : fields) {
+            int f = field.ordinal();
+            List<Posting> postings = new ArrayList<>();
+            if (phrase.length() == 1) {
+                postings.add(gram(f, phrase.charAt(0)));
+            }
+            for (int i = 0; i + 1 < phrase.length(); i++) {
+                postings.add(gram(f, bigram(phrase.charAt(i), phrase.charAt(i + 1))));
+            }
+            IntList candidates = intersect(postings);
+            for (int i = 0; i < candidates.size(); i++) {
+                int doc = candidates.get(i);
+                if (texts[doc * FIELD_COUNT + f].contains(phrase)) {
+                    matched.set(doc);
+                }
+            }
+        }
+        IntList result = new IntList(Math.max(1, matched.cardinality()));
+        for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+            result.add(doc);
+        }
+        return result;
+    }
+
+    private Posting gram(int field, int key) {
+        int slot = gramSlots[field].get(key);
+        return slot < 0 ? Posting.EMPTY : grams.get(slot);
+    }
+
+    /**
+     * 多个倒排表求交：从最短的开始，依次与更长的做跳跃求交
+     */
+    private static IntList intersect(List<Posting> postings) {
+        IntList result = new IntList();
+        if (postings.isEmpty()) {
+            return result;
+        }
+        postings.sort((a, b) -> Integer.compare(a.size, b.size));
+        Posting first = postings.get(0);
+        int[] current = Arrays.copyOf(first.docs, first.size);
+        int length = first.size;
+        for (int p = 1; p < postings.size() && length > 0; p++) {
+            length = gallopIntersect(current, length, postings.get(p).docs, postings.get(p).size);
+        }
+        for (int i = 0; i < length; i++) {
+            result.add(current[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 把 small 与 large 的交写回 small 的前部，对 large 做指数跳跃加二分查找
+     * @return 交集长度
+     */
+    private static int gallopIntersect(int[] small, int smallLength, int[] large, int largeLength) {
+        int count = 0;
+        int low = 0;
+        for (int i = 0; i < smallLength && low < largeLength; i++) {
+            int target = small[i];
+            // 指数跳跃找到包含 target 的区间 (low + step/2, low + step]
+            int step = 1;
+            while (low + step < largeLength && large[low + step] < target) {
+                step <<= 1;
+            }
+            int position = Arrays.binarySearch(large, low, Math.min(low + step + 1, largeLength), target);
+            if (position >= 0) {
+                small[count++] = target;
+                low = position + 1;
+            } else {
+                low = -position - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 多个倒排表求并，逐个两两归并
+     */
+    private static IntList union(List<Posting> postings) {
+        int[] current = new int[0];
+        for (Posting posting : postings) {
+            int[] merged = new int[current.length + posting.size];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < current.length && j < posting.size) {
+                int a = current[i];
+                int b = posting.docs[j];
+                if (a < b) {
+                    merged[k++] = a;
+                    i++;
+                } else if (b < a) {
+                    merged[k++] = b;
+                    j++;
+                } else {
+                    merged[k++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < current.length) {
+                merged[k++] = current[i++];
+            }
+            while (j < posting.size) {
+                merged[k++] = posting.docs[j++];
+            }
+            current = Arrays.copyOf(merged, k);
+        }
+        IntList result = new IntList(Math.max(1, current.length));
+        for (int doc : current) {
+            result.add(doc);
+        }
+        return result;
+    }
+
+    /**
+     * 倒排表：按文档号升序的基本类型数组，同一文档只记录一次
+     */
+    private static final class Posting {
+        static final Posting EMPTY = new Posting();
+
+        int[] docs = new int[4];
+        int size;
+
+        /**
+         * 由升序文档号构造倒排表
+         */
+        static Posting of(IntList sortedDocs) {
+            Posting posting = new Posting();
+            posting.docs = new int[Math.max(1, sortedDocs.size())];
+            for (int i = 0; i < sortedDocs.size(); i++) {
+                posting.docs[i] = sortedDocs.get(i);
+            }
+            posting.size = sortedDocs.size();
+            return posting;
+        }
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
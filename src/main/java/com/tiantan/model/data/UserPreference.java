@@ -1,5 +1,7 @@
 package com.tiantan.model.data;
 
+import com.tiantan.util.Constants;
+
 import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
@@ -95,6 +97,14 @@ public class UserPreference {
         return walkingSpeed;
     }
     
+    /**
+     * 按步速等级换算步行速度，中等（3）为 {@link Constants#WALKING_SPEED}，每差一档增减 {@link Constants#WALKING_SPEED_STEP}
+     * @return 步行速度（米/分钟）
+     */
+    public double getWalkingMetersPerMinute() {
+        return Constants.WALKING_SPEED * (1.0 + Constants.WALKING_SPEED_STEP * (walkingSpeed - 3));
+    }
+    
     public void setWalkingSpeed(int walkingSpeed) {
         if (walkingSpeed < 1 || walkingSpeed > 5) {
             throw new IllegalArgumentException("步行速度必须在1到5之间");
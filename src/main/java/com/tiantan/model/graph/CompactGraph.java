@@ -0,0 +1,468 @@
+package com.tiantan.model.graph;
+
+import com.tiantan.model.data.ScenicSpot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 景区图的紧凑只读快照 - 压缩稀疏行(CSR)表示
+ * 顶点按景点ID升序映射为连续下标 0..n-1，顶点 v 的出边位于 [offsets[v], offsets[v+1]) 区间，
+ * 边槽位中的 targets/weights/edgeTypes 按原邻接表顺序排列。
+ * 快照由 {@link ScenicGraph#freeze()} 发布，创建后不再改变，可被任意线程无锁读取；
+ * 其中的边对象是只读的分离副本，权重函数读到的总是同一版本的状态。
+ * 边状态变化时生成新版本：顶点映射、CSR结构和反向邻接数组与旧版本共用；
+ * 边属性按每 {@value #CHUNK_SIZE} 个槽位分块存放，新版本只复制分块目录和包含变化槽位的分块，
+ * 一次更新k条边的开销为 O(m / CHUNK_SIZE + k * CHUNK_SIZE)，而不是复制全部 m 个槽位。
+ */
+public class CompactGraph {
+    private static final EdgeType[] EDGE_TYPES = EdgeType.values();
+
+    /**
+     * 包含所有路径类型的掩码
+     */
+    public static final int ALL_EDGE_TYPES = (1 << EDGE_TYPES.length) - 1;
+
+    private static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;    // 每个属性分块的槽位数
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long version;          // 版本号，每次发布新快照时递增
+    private final boolean isDirected;    // 是否为有向图
+    private final int[] ids;             // 顶点下标 -> 景点ID（升序）
+    private final ScenicSpot[] spots;    // 顶点下标 -> 景点
+    private final int[] offsets;         // 顶点出边起始槽位，长度 n+1
+    private final int[] targets;         // 边槽位 -> 终点下标
+    private final double[][] weights;    // 分块 -> 槽位 -> 冻结时的基础权重
+    private final byte[][] edgeTypes;    // 分块 -> 槽位 -> 路径类型序号
+    private final long[][] crowded;      // 分块 -> 冻结时处于拥挤状态的槽位位图
+    private final Edge[][] edges;        // 分块 -> 槽位 -> 原始边对象，供权重函数使用
+    private final int[] reverseOffsets;  // 顶点入边起始位置，长度 n+1
+    private final int[] reverseSlots;    // 入边位置 -> 对应的正向边槽位
+    private final int[] sources;         // 边槽位 -> 起点下标
+    private final CompactGraph[] views = new CompactGraph[ALL_EDGE_TYPES + 1];  // 路径类型掩码 -> 过滤视图
+
+    CompactGraph(long version, boolean isDirected, int[] ids, ScenicSpot[] spots, int[] offsets, int[] targets,
+                 double[] weights, byte[] edgeTypes, BitSet crowded, Edge[] edges) {
+        this.version = version;
+        this.isDirected = isDirected;
+        this.ids = ids;
+        this.spots = spots;
+        this.offsets = offsets;
+        this.targets = targets;
+
+        // 边属性按槽位切分为分块
+        int chunkCount = (targets.length + CHUNK_MASK) >>> CHUNK_SHIFT;
+        this.weights = new double[chunkCount][];
+        this.edgeTypes = new byte[chunkCount][];
+        this.crowded = new long[chunkCount][];
+        this.edges = new Edge[chunkCount][];
+        for (int c = 0; c < chunkCount; c++) {
+            int from = c << CHUNK_SHIFT;
+            int to = Math.min(from + CHUNK_SIZE, targets.length);
+            this.weights[c] = Arrays.copyOfRange(weights, from, to);
+            this.edgeTypes[c] = Arrays.copyOfRange(edgeTypes, from, to);
+            this.crowded[c] = Arrays.copyOf(crowded.get(from, to).toLongArray(), CHUNK_SIZE >>> 6);
+            this.edges[c] = Arrays.copyOfRange(edges, from, to);
+        }
+
+        // 构建反向邻接（按终点分组的入边），供有向图上的反向搜索使用
+        int n = ids.length;
+        int m = targets.length;
+        this.sources = new int[m];
+        this.reverseOffsets = new int[n + 1];
+        this.reverseSlots = new int[m];
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                sources[e] = v;
+                reverseOffsets[targets[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int e = 0; e < m; e++) {
+            reverseSlots[fill[targets[e]]++] = e;
+        }
+    }
+
+    /**
+     * 与 base 共用结构数组、替换边属性数组的新版本
+     */
+    private CompactGraph(CompactGraph base, long version, double[][] weights, byte[][] edgeTypes,
+                         long[][] crowded, Edge[][] edges) {
+        this.version = version;
+        this.isDirected = base.isDirected;
+        this.ids = base.ids;
+        this.spots = base.spots;
+        this.offsets = base.offsets;
+        this.targets = base.targets;
+        this.reverseOffsets = base.reverseOffsets;
+        this.reverseSlots = base.reverseSlots;
+        this.sources = base.sources;
+        this.weights = weights;
+        this.edgeTypes = edgeTypes;
+        this.crowded = crowded;
+        this.edges = edges;
+    }
+
+    /**
+     * 由景区图构建快照
+     * @param graph 景区图
+     * @param version 版本号
+     * @param slotOf 输出参数，记录图中每条边对应的边槽位
+     * @return 紧凑快照
+     */
+    static CompactGraph of(ScenicGraph graph, long version, Map<Edge, Integer> slotOf) {
+        int n = graph.getVertexCount();
+        Vertex[] vertices = graph.getVertices().toArray(new Vertex[0]);
+        Arrays.sort(vertices, (a, b) -> Integer.compare(a.getSpot().getId(), b.getSpot().getId()));
+
+        int[] ids = new int[n];
+        ScenicSpot[] spots = new ScenicSpot[n];
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            ids[i] = vertices[i].getSpot().getId();
+            spots[i] = vertices[i].getSpot();
+            offsets[i + 1] = offsets[i] + vertices[i].getDegree();
+        }
+
+        int m = offsets[n];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        byte[] edgeTypes = new byte[m];
+        BitSet crowded = new BitSet(m);
+        Edge[] edges = new Edge[m];
+
+        int slot = 0;
+        for (Vertex vertex : vertices) {
+            for (Edge edge : vertex.getAdjacent()) {
+                targets[slot] = Arrays.binarySearch(ids, edge.getTo().getSpot().getId());
+                weights[slot] = edge.getWeight();
+                edgeTypes[slot] = (byte) edge.getType().ordinal();
+                if (edge.isCrowded()) {
+                    crowded.set(slot);
+                }
+                edges[slot] = new Edge(edge);
+                slotOf.put(edge, slot);
+                slot++;
+            }
+        }
+
+        return new CompactGraph(version, graph.isDirected(), ids, spots, offsets, targets,
+                weights, edgeTypes, crowded, edges);
+    }
+
+    /**
+     * 生成只更新部分边状态的新版本（写时复制）
+     * 只复制分块目录和包含变化槽位的分块，其余分块与本版本共用
+     * @param version 新版本号
+     * @param slots 发生变化的边槽位
+     * @param changed 对应的景区图中的边，按其当前状态生成只读副本
+     * @return 新版本快照
+     */
+    CompactGraph withEdgeUpdates(long version, int[] slots, Edge[] changed) {
+        double[][] newWeights = weights.clone();
+        byte[][] newTypes = edgeTypes.clone();
+        long[][] newCrowded = crowded.clone();
+        Edge[][] newEdges = edges.clone();
+        for (int i = 0; i < slots.length; i++) {
+            int chunk = slots[i] >>> CHUNK_SHIFT;
+            int offset = slots[i] & CHUNK_MASK;
+            if (newWeights[chunk] == weights[chunk]) {
+                newWeights[chunk] = weights[chunk].clone();
+                newTypes[chunk] = edgeTypes[chunk].clone();
+                newCrowded[chunk] = crowded[chunk].clone();
+                newEdges[chunk] = edges[chunk].clone();
+            }
+            Edge edge = changed[i];
+            newWeights[chunk][offset] = edge.getWeight();
+            newTypes[chunk][offset] = (byte) edge.getType().ordinal();
+            if (edge.isCrowded()) {
+                newCrowded[chunk][offset >>> 6] |= 1L << offset;
+            } else {
+                newCrowded[chunk][offset >>> 6] &= ~(1L << offset);
+            }
+            newEdges[chunk][offset] = new Edge(edge);
+        }
+        return new CompactGraph(this, version, newWeights, newTypes, newCrowded, newEdges);
+    }
+
+    /**
+     * 获取版本号
+     * @return 版本号，同一景区图发布的快照版本号严格递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 是否与另一快照结构相同（同一次结构构建的不同版本），此时两者的顶点下标和边槽位可以互换使用
+     * @param other 另一快照
+     * @return 如果结构相同返回true
+     */
+    public boolean sameStructure(CompactGraph other) {
+        return other != null && other.offsets == offsets && other.targets == targets;
+    }
+
+    /**
+     * 获取只保留指定路径类型的过滤视图
+     * 视图与本快照共用顶点下标和景点数组，边槽位重新编号；
+     * 每个掩码只过滤一次，之后的查询直接复用，可在视图上运行任何基于快照的算法
+     * @param edgeTypeMask 允许的路径类型掩码，见 {@link EdgeType#mask()}
+     * @return 过滤视图，掩码包含所有类型时返回本快照
+     */
+    public CompactGraph restrictTo(int edgeTypeMask) {
+        int mask = edgeTypeMask & ALL_EDGE_TYPES;
+        if (mask == ALL_EDGE_TYPES) {
+            return this;
+        }
+        synchronized (views) {
+            CompactGraph view = views[mask];
+            if (view == null) {
+                view = filter(mask);
+                views[mask] = view;
+            }
+            return view;
+        }
+    }
+
+    /**
+     * 按路径类型掩码复制出过滤后的CSR数组
+     */
+    private CompactGraph filter(int mask) {
+        int n = ids.length;
+        int[] viewOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int degree = 0;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if ((mask & (1 << typeOrdinal(e))) != 0) {
+                    degree++;
+                }
+            }
+            viewOffsets[v + 1] = viewOffsets[v] + degree;
+        }
+
+        int m = viewOffsets[n];
+        int[] viewTargets = new int[m];
+        double[] viewWeights = new double[m];
+        byte[] viewTypes = new byte[m];
+        BitSet viewCrowded = new BitSet(m);
+        Edge[] viewEdges = new Edge[m];
+        int slot = 0;
+        for (int e = 0; e < targets.length; e++) {
+            if ((mask & (1 << typeOrdinal(e))) != 0) {
+                viewTargets[slot] = targets[e];
+                viewWeights[slot] = weight(e);
+                viewTypes[slot] = typeOrdinal(e);
+                if (isCrowded(e)) {
+                    viewCrowded.set(slot);
+                }
+                viewEdges[slot] = edge(e);
+                slot++;
+            }
+        }
+        return new CompactGraph(version, isDirected, ids, spots, viewOffsets, viewTargets,
+                viewWeights, viewTypes, viewCrowded, viewEdges);
+    }
+
+    /**
+     * 是否为有向图
+     * @return 如果为有向图返回true
+     */
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    /**
+     * 获取顶点数量
+     * @return 顶点数量
+     */
+    public int getVertexCount() {
+        return ids.length;
+    }
+
+    /**
+     * 获取边槽位数量（无向图的每条边占两个槽位）
+     * @return 边槽位数量
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * 根据景点ID获取顶点下标
+     * @param spotId 景点ID
+     * @return 顶点下标，如果不存在返回-1
+     */
+    public int indexOf(int spotId) {
+        int index = Arrays.binarySearch(ids, spotId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 获取顶点下标对应的景点ID
+     * @param vertex 顶点下标
+     * @return 景点ID
+     */
+    public int idOf(int vertex) {
+        return ids[vertex];
+    }
+
+    /**
+     * 获取顶点下标对应的景点
+     * @param vertex 顶点下标
+     * @return 景点
+     */
+    public ScenicSpot spotOf(int vertex) {
+        return spots[vertex];
+    }
+
+    /**
+     * 顶点出边的起始槽位
+     * @param vertex 顶点下标
+     * @return 起始槽位（包含）
+     */
+    public int edgeStart(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * 顶点出边的结束槽位
+     * @param vertex 顶点下标
+     * @return 结束槽位（不包含）
+     */
+    public int edgeEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * 顶点入边的起始位置
+     * @param vertex 顶点下标
+     * @return 起始位置（包含）
+     */
+    public int reverseEdgeStart(int vertex) {
+        return reverseOffsets[vertex];
+    }
+
+    /**
+     * 顶点入边的结束位置
+     * @param vertex 顶点下标
+     * @return 结束位置（不包含）
+     */
+    public int reverseEdgeEnd(int vertex) {
+        return reverseOffsets[vertex + 1];
+    }
+
+    /**
+     * 获取入边位置对应的正向边槽位
+     * @param position 入边位置
+     * @return 边槽位
+     */
+    public int reverseSlot(int position) {
+        return reverseSlots[position];
+    }
+
+    /**
+     * 获取边槽位的起点下标
+     * @param slot 边槽位
+     * @return 起点下标
+     */
+    public int source(int slot) {
+        return sources[slot];
+    }
+
+    /**
+     * 获取边槽位的终点下标
+     * @param slot 边槽位
+     * @return 终点下标
+     */
+    public int target(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * 获取边槽位冻结时的基础权重
+     * @param slot 边槽位
+     * @return 权重
+     */
+    public double weight(int slot) {
+        return weights[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+    }
+
+    /**
+     * 获取边槽位的路径类型
+     * @param slot 边槽位
+     * @return 路径类型
+     */
+    public EdgeType edgeType(int slot) {
+        return EDGE_TYPES[typeOrdinal(slot)];
+    }
+
+    private byte typeOrdinal(int slot) {
+        return edgeTypes[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+    }
+
+    /**
+     * 边槽位冻结时是否拥挤
+     * @param slot 边槽位
+     * @return 如果拥挤返回true
+     */
+    public boolean isCrowded(int slot) {
+        int offset = slot & CHUNK_MASK;
+        return (crowded[slot >>> CHUNK_SHIFT][offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * 获取边槽位冻结时考虑拥挤因素的权重，与 {@link Edge#getEffectiveWeight()} 规则一致
+     * @param slot 边槽位
+     * @return 实际权重
+     */
+    public double effectiveWeight(int slot) {
+        return isCrowded(slot) ? weight(slot) * 1.5 : weight(slot);
+    }
+
+    /**
+     * 获取边槽位对应的原始边对象
+     * @param slot 边槽位
+     * @return 边
+     */
+    public Edge edge(int slot) {
+        return edges[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+    }
+
+    /**
+     * 按权重函数一次性计算所有边槽位的权重，避免在算法主循环中重复求值
+     * @param weightFunction 权重计算函数
+     * @return 边槽位 -> 权重
+     */
+    public double[] weights(ToDoubleFunction<Edge> weightFunction) {
+        double[] result = new double[targets.length];
+        for (int c = 0; c < edges.length; c++) {
+            Edge[] chunk = edges[c];
+            int base = c << CHUNK_SHIFT;
+            for (int i = 0; i < chunk.length; i++) {
+                result[base + i] = weightFunction.applyAsDouble(chunk[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查找从 from 到 to 的第一条边槽位
+     * @param from 起点下标
+     * @param to 终点下标
+     * @return 边槽位，如果不存在返回-1
+     */
+    public int findEdge(int from, int to) {
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+}
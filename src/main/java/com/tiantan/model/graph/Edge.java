@@ -1,7 +1,10 @@
 package com.tiantan.model.graph;
 
+import com.tiantan.util.Constants;
+
 /**
  * 边类
+ * 景区图中的边可以修改，修改会发布新的图快照；快照中的边是只读的分离副本，调用修改方法会抛出异常。
  */
 public class Edge {
     private Vertex from;         // 起点
@@ -9,6 +12,9 @@ public class Edge {
     private double weight;       // 权重（距离/时间等）
     private EdgeType type;       // 路径类型
     private boolean isCrowded;   // 是否拥挤
+    private ScenicGraph graph;   // 所属景区图，用于通知状态变化
+    private TravelTimeProfile profile;  // 按时刻变化的通行时间，未设置时由权重和拥挤状态推算
+    private final boolean readOnly;     // 是否为快照中的只读副本
 
     /**
      * 构造函数
@@ -23,6 +29,22 @@ public class Edge {
         this.weight = weight;
         this.type = type;
         this.isCrowded = false;
+        this.readOnly = false;
+    }
+
+    /**
+     * 创建边当前状态的只读副本，供图快照使用
+     * 副本不属于任何景区图，与原边共用起点和终点顶点
+     * @param source 原边
+     */
+    Edge(Edge source) {
+        this.from = source.from;
+        this.to = source.to;
+        this.weight = source.weight;
+        this.type = source.type;
+        this.isCrowded = source.isCrowded;
+        this.profile = source.profile;
+        this.readOnly = true;
     }
 
     /**
@@ -54,7 +76,11 @@ public class Edge {
      * @param weight 权重值
      */
     public void setWeight(double weight) {
-        this.weight = weight;
+        checkWritable();
+        if (this.weight != weight) {
+            this.weight = weight;
+            notifyChanged();
+        }
     }
 
     /**
@@ -70,7 +96,11 @@ public class Edge {
      * @param type 路径类型
      */
     public void setType(EdgeType type) {
-        this.type = type;
+        checkWritable();
+        if (this.type != type) {
+            this.type = type;
+            notifyChanged();
+        }
     }
 
     /**
@@ -86,7 +116,11 @@ public class Edge {
      * @param crowded 拥挤状态
      */
     public void setCrowded(boolean crowded) {
-        this.isCrowded = crowded;
+        checkWritable();
+        if (this.isCrowded != crowded) {
+            this.isCrowded = crowded;
+            notifyChanged();
+        }
     }
 
     /**
@@ -98,6 +132,73 @@ public class Edge {
         return isCrowded ? weight * 1.5 : weight;
     }
 
+    /**
+     * 获取按时刻变化的通行时间曲线
+     * @return 通行时间曲线，未设置时返回null
+     */
+    public TravelTimeProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * 设置按时刻变化的通行时间曲线
+     * @param profile 通行时间曲线，为null时按权重和拥挤状态推算
+     */
+    public void setProfile(TravelTimeProfile profile) {
+        checkWritable();
+        if (this.profile != profile) {
+            this.profile = profile;
+            notifyChanged();
+        }
+    }
+
+    /**
+     * 获取在指定时刻进入该边的通行时间
+     * 未设置曲线时按中等步速和考虑拥挤的实际权重（米）推算
+     * @param departure 出发时刻（当天秒数，可以超过一天）
+     * @return 通行时间（秒）
+     */
+    public double getTravelTime(double departure) {
+        if (profile != null) {
+            return profile.travelTime(departure);
+        }
+        return getEffectiveWeight() / Constants.WALKING_SPEED * 60.0;
+    }
+
+    /**
+     * 是否为快照中的只读副本
+     * @return 如果只读返回true
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * 关联所属景区图
+     * @param graph 景区图
+     */
+    void attachTo(ScenicGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * 只读副本不允许修改
+     */
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("快照中的边是只读副本，请修改景区图中的边");
+        }
+    }
+
+    /**
+     * 通知所属景区图边状态已变化
+     */
+    private void notifyChanged() {
+        if (graph != null) {
+            graph.fireEdgeChanged(this);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,15 @@
+package com.tiantan.model.graph;
+
+/**
+ * 边状态变化监听器
+ * 当图中某条边的权重、拥挤状态或路径类型发生变化时被调用
+ */
+@FunctionalInterface
+public interface EdgeChangeListener {
+
+    /**
+     * 边状态已变化
+     * @param edge 发生变化的边
+     */
+    void edgeChanged(Edge edge);
+}
@@ -19,4 +19,12 @@ public enum EdgeType {
     public String getDescription() {
         return description;
     }
+    
+    /**
+     * 获取该类型在路径类型掩码中对应的位
+     * @return 掩码位
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.tiantan.model.graph;
+
+import java.util.Arrays;
+
+/**
+ * 迭代式图遍历引擎
+ * 深度优先使用显式的顶点栈和边游标栈，广度优先使用定长环形队列，
+ * 访问标记为按轮次(epoch)复用的int数组，因此不会因图的深度导致栈溢出，也不需要装箱的哈希集合。
+ * 深度优先的访问顺序与按邻接表顺序递归的实现完全相同。
+ * 暂存数组按线程复用，实例不是线程安全的，请通过 {@link #local()} 获取。
+ */
+public class GraphTraversal {
+    private static final ThreadLocal<GraphTraversal> LOCAL = ThreadLocal.withInitial(GraphTraversal::new);
+
+    private int[] stamp;     // 顶点下标 -> 最后一次被访问的轮次
+    private int[] stack;     // 深度优先的顶点栈 / 广度优先的环形队列
+    private int[] cursor;    // 深度优先：栈中顶点下一条待检查的边槽位；广度优先：顶点所在层数
+    private int epoch;       // 当前轮次
+
+    /**
+     * 构造函数
+     */
+    public GraphTraversal() {
+        stamp = new int[0];
+        stack = new int[0];
+        cursor = new int[0];
+    }
+
+    /**
+     * 获取当前线程专属的实例
+     * @return 实例
+     */
+    public static GraphTraversal local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 深度优先遍历
+     * @param graph 紧凑图快照
+     * @param start 起点下标
+     * @param visitor 访问器
+     * @return 访问过的顶点数量
+     */
+    public int dfs(CompactGraph graph, int start, VertexVisitor visitor) {
+        prepare(graph);
+        int visited = 1;
+        stamp[start] = epoch;
+        if (!visitor.visit(start, 0)) {
+            return visited;
+        }
+        int top = 0;
+        stack[0] = start;
+        cursor[0] = graph.edgeStart(start);
+
+        while (top >= 0) {
+            int current = stack[top];
+            int end = graph.edgeEnd(current);
+            int e = cursor[top];
+            // 找到下一个未访问的邻接顶点
+            while (e < end && stamp[graph.target(e)] == epoch) {
+                e++;
+            }
+            if (e == end) {
+                top--;
+                continue;
+            }
+            cursor[top] = e + 1;
+
+            int neighbor = graph.target(e);
+            stamp[neighbor] = epoch;
+            visited++;
+            if (!visitor.visit(neighbor, top + 1)) {
+                break;
+            }
+            top++;
+            stack[top] = neighbor;
+            cursor[top] = graph.edgeStart(neighbor);
+        }
+        return visited;
+    }
+
+    /**
+     * 广度优先遍历
+     * @param graph 紧凑图快照
+     * @param start 起点下标
+     * @param visitor 访问器
+     * @return 访问过的顶点数量
+     */
+    public int bfs(CompactGraph graph, int start, VertexVisitor visitor) {
+        prepare(graph);
+        // 每个顶点最多入队一次，队列长度为 n 时不会回绕覆盖
+        int head = 0;
+        int tail = 0;
+        stamp[start] = epoch;
+        stack[tail] = start;
+        cursor[tail++] = 0;
+
+        while (head < tail) {
+            int current = stack[head];
+            int depth = cursor[head++];
+            if (!visitor.visit(current, depth)) {
+                break;
+            }
+            for (int e = graph.edgeStart(current); e < graph.edgeEnd(current); e++) {
+                int neighbor = graph.target(e);
+                if (stamp[neighbor] != epoch) {
+                    stamp[neighbor] = epoch;
+                    stack[tail] = neighbor;
+                    cursor[tail++] = depth + 1;
+                }
+            }
+        }
+        return head;
+    }
+
+    /**
+     * 顶点在最近一次遍历中是否已被发现
+     * @param vertex 顶点下标
+     * @return 如果已发现返回true
+     */
+    public boolean isVisited(int vertex) {
+        return stamp[vertex] == epoch;
+    }
+
+    /**
+     * 重置访问标记
+     */
+    private void prepare(CompactGraph graph) {
+        int n = graph.getVertexCount();
+        if (stamp.length < n) {
+            stamp = new int[n];
+            stack = new int[n];
+            cursor = new int[n];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+}
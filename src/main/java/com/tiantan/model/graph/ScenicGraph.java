@@ -1,17 +1,30 @@
 package com.tiantan.model.graph;
 
+import com.tiantan.model.algorithm.KShortestPaths;
 import com.tiantan.model.data.ScenicSpot;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * 景区图类 - 用于表示景点之间的连接关系
- * 采用邻接表表示法实现
+ * 采用邻接表表示法实现，供写入方维护；路径算法统一运行在 {@link #freeze()} 发布的不可变快照上。
+ * 快照通过原子引用发布，读取无需加锁；边状态变化时发布结构共享的新版本，
+ * 多项变化可用 {@link #batchUpdate(Runnable)} 合并为一个版本。写入操作之间相互加锁。
  */
 public class ScenicGraph {
     private Map<Integer, Vertex> vertices;  // 顶点集合，键为景点ID
     private List<Edge> edges;               // 边集合
     private boolean isDirected;             // 是否为有向图
+    private final List<EdgeChangeListener> edgeListeners = new CopyOnWriteArrayList<>(); // 边状态监听器
+    private final AtomicReference<CompactGraph> published = new AtomicReference<>(); // 最新快照，结构变化后为null
+    private Map<Edge, Integer> slotOf = new IdentityHashMap<>();   // 边 -> 最新快照中的边槽位
+    private long version;                                          // 最近发布的快照版本号
+    private int batchDepth;                                        // 批量更新的嵌套层数
+    private final List<Edge> pendingEdges = new ArrayList<>();     // 尚未发布的变化边
+    private final Set<Edge> pendingSet = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * 构造函数
@@ -28,11 +41,12 @@ public class ScenicGraph {
      * @param spot 景点
      * @return 如果添加成功返回true，如果已存在返回false
      */
-    public boolean addVertex(ScenicSpot spot) {
+    public synchronized boolean addVertex(ScenicSpot spot) {
         if (vertices.containsKey(spot.getId())) {
             return false;
         }
         vertices.put(spot.getId(), new Vertex(spot));
+        published.set(null);
         return true;
     }
 
@@ -44,7 +58,7 @@ public class ScenicGraph {
      * @param type 路径类型（步行、车行等）
      * @return 如果添加成功返回true，如果顶点不存在返回false
      */
-    public boolean addEdge(int from, int to, double weight, EdgeType type) {
+    public synchronized boolean addEdge(int from, int to, double weight, EdgeType type) {
         Vertex fromVertex = vertices.get(from);
         Vertex toVertex = vertices.get(to);
         
@@ -54,6 +68,7 @@ public class ScenicGraph {
         
         // 创建新边
         Edge edge = new Edge(fromVertex, toVertex, weight, type);
+        edge.attachTo(this);
         edges.add(edge);
         
         // 添加到邻接表
@@ -62,10 +77,12 @@ public class ScenicGraph {
         // 如果是无向图，则添加反向边
         if (!isDirected) {
             Edge reverseEdge = new Edge(toVertex, fromVertex, weight, type);
+            reverseEdge.attachTo(this);
             edges.add(reverseEdge);
             toVertex.addAdjacent(reverseEdge);
         }
         
+        published.set(null);
         return true;
     }
 
@@ -74,7 +91,7 @@ public class ScenicGraph {
      * @param spotId 顶点ID
      * @return 如果删除成功返回true
      */
-    public boolean removeVertex(int spotId) {
+    public synchronized boolean removeVertex(int spotId) {
         Vertex vertex = vertices.remove(spotId);
         if (vertex == null) {
             return false;
@@ -91,6 +108,7 @@ public class ScenicGraph {
             v.removeAdjacent(spotId);
         }
         
+        published.set(null);
         return true;
     }
 
@@ -100,7 +118,7 @@ public class ScenicGraph {
      * @param to 终点ID
      * @return 如果删除成功返回true
      */
-    public boolean removeEdge(int from, int to) {
+    public synchronized boolean removeEdge(int from, int to) {
         Vertex fromVertex = vertices.get(from);
         Vertex toVertex = vertices.get(to);
         
@@ -126,6 +144,7 @@ public class ScenicGraph {
             toVertex.removeAdjacentTo(from);
         }
         
+        published.set(null);
         return removed;
     }
 
@@ -148,10 +167,10 @@ public class ScenicGraph {
 
     /**
      * 获取所有边
-     * @return 边集合
+     * @return 只读的边集合，修改请通过边的设置方法或本图的增删方法
      */
     public List<Edge> getEdges() {
-        return edges;
+        return Collections.unmodifiableList(edges);
     }
 
     /**
@@ -170,40 +189,152 @@ public class ScenicGraph {
         return edges.size();
     }
 
+    /**
+     * 注册边状态监听器，边的权重、拥挤状态或类型变化时会被通知
+     * @param listener 监听器
+     */
+    public void addEdgeChangeListener(EdgeChangeListener listener) {
+        edgeListeners.add(listener);
+    }
+
+    /**
+     * 移除边状态监听器
+     * @param listener 监听器
+     */
+    public void removeEdgeChangeListener(EdgeChangeListener listener) {
+        edgeListeners.remove(listener);
+    }
+
+    /**
+     * 批量更新边状态，期间的所有变化合并发布为一个快照版本，结束后再逐条通知监听器
+     * 批量更新持有写锁，其他写入方需等待；读者在此期间仍看到旧版本
+     * @param updates 更新操作，如逐条设置边的拥挤状态
+     */
+    public void batchUpdate(Runnable updates) {
+        List<Edge> changed = Collections.emptyList();
+        synchronized (this) {
+            batchDepth++;
+            try {
+                updates.run();
+            } finally {
+                if (--batchDepth == 0) {
+                    changed = publishPending();
+                }
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * 边状态已变化：不在批量更新中时立即发布新版本，再通知所有监听器
+     * @param edge 发生变化的边
+     */
+    void fireEdgeChanged(Edge edge) {
+        List<Edge> changed;
+        synchronized (this) {
+            if (pendingSet.add(edge)) {
+                pendingEdges.add(edge);
+            }
+            if (batchDepth > 0) {
+                return;
+            }
+            changed = publishPending();
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * 把待发布的边变化写入新版本快照，结构已变化时留待下次 {@link #freeze()} 整体重建
+     * @return 本次发布的变化边
+     */
+    private List<Edge> publishPending() {
+        List<Edge> changed = new ArrayList<>(pendingEdges);
+        pendingEdges.clear();
+        pendingSet.clear();
+
+        CompactGraph current = published.get();
+        if (current != null && !changed.isEmpty()) {
+            int[] slots = new int[changed.size()];
+            Edge[] live = new Edge[changed.size()];
+            int count = 0;
+            for (Edge edge : changed) {
+                Integer slot = slotOf.get(edge);
+                if (slot != null) {   // 已被删除的边不在快照中
+                    slots[count] = slot;
+                    live[count] = edge;
+                    count++;
+                }
+            }
+            published.set(current.withEdgeUpdates(++version,
+                    Arrays.copyOf(slots, count), Arrays.copyOf(live, count)));
+        }
+        return changed;
+    }
+
+    private void notifyListeners(List<Edge> changed) {
+        for (Edge edge : changed) {
+            for (EdgeChangeListener listener : edgeListeners) {
+                listener.edgeChanged(edge);
+            }
+        }
+    }
+
+    /**
+     * 是否为有向图
+     * @return 如果为有向图返回true
+     */
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    /**
+     * 获取当前图的紧凑只读快照（CSR表示）
+     * 返回最近发布的版本，无需加锁；只有结构发生变化后的第一次调用才会重建。
+     * 快照与本图之后的任何修改相互独立，适合在后台线程上反复执行路径算法
+     * @return 紧凑快照
+     */
+    public CompactGraph freeze() {
+        CompactGraph current = published.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = published.get();
+            if (current == null) {
+                Map<Edge, Integer> slots = new IdentityHashMap<>();
+                current = CompactGraph.of(this, ++version, slots);
+                slotOf = slots;
+                published.set(current);
+            }
+            return current;
+        }
+    }
+
     /**
      * 深度优先遍历
      * @param startId 起始顶点ID
      * @return 遍历结果列表
      */
     public List<ScenicSpot> dfs(int startId) {
-        Vertex start = vertices.get(startId);
-        if (start == null) {
+        if (!vertices.containsKey(startId)) {
             return Collections.emptyList();
         }
         
         List<ScenicSpot> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        
-        // 调用递归DFS
-        dfsHelper(start, visited, result);
-        
+        dfs(startId, result::add);
         return result;
     }
 
     /**
-     * DFS递归辅助函数
+     * 深度优先遍历，逐个回调访问到的景点
+     * @param startId 起始顶点ID
+     * @param visitor 访问器，返回false时结束遍历
      */
-    private void dfsHelper(Vertex vertex, Set<Integer> visited, List<ScenicSpot> result) {
-        int spotId = vertex.getSpot().getId();
-        visited.add(spotId);
-        result.add(vertex.getSpot());
-        
-        // 访问所有邻接点
-        for (Edge edge : vertex.getAdjacent()) {
-            Vertex neighbor = edge.getTo();
-            if (!visited.contains(neighbor.getSpot().getId())) {
-                dfsHelper(neighbor, visited, result);
-            }
+    public void dfs(int startId, Predicate<ScenicSpot> visitor) {
+        CompactGraph snapshot = freeze();
+        int start = snapshot.indexOf(startId);
+        if (start >= 0) {
+            GraphTraversal.local().dfs(snapshot, start, (v, depth) -> visitor.test(snapshot.spotOf(v)));
         }
     }
 
@@ -213,93 +344,50 @@ public class ScenicGraph {
      * @return 遍历结果列表
      */
     public List<ScenicSpot> bfs(int startId) {
-        Vertex start = vertices.get(startId);
-        if (start == null) {
+        if (!vertices.containsKey(startId)) {
             return Collections.emptyList();
         }
         
         List<ScenicSpot> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        Queue<Vertex> queue = new LinkedList<>();
-        
-        // 标记起始顶点为已访问并入队
-        visited.add(startId);
-        queue.offer(start);
-        
-        while (!queue.isEmpty()) {
-            Vertex current = queue.poll();
-            result.add(current.getSpot());
-            
-            // 访问所有邻接点
-            for (Edge edge : current.getAdjacent()) {
-                Vertex neighbor = edge.getTo();
-                int neighborId = neighbor.getSpot().getId();
-                
-                if (!visited.contains(neighborId)) {
-                    visited.add(neighborId);
-                    queue.offer(neighbor);
-                }
-            }
-        }
-        
+        bfs(startId, result::add);
         return result;
     }
+
+    /**
+     * 广度优先遍历，逐个回调访问到的景点
+     * @param startId 起始顶点ID
+     * @param visitor 访问器，返回false时结束遍历
+     */
+    public void bfs(int startId, Predicate<ScenicSpot> visitor) {
+        CompactGraph snapshot = freeze();
+        int start = snapshot.indexOf(startId);
+        if (start >= 0) {
+            GraphTraversal.local().bfs(snapshot, start, (v, depth) -> visitor.test(snapshot.spotOf(v)));
+        }
+    }
     
     /**
-     * 获取两点间所有路径
+     * 获取两点间权重最小的若干条简单路径
+     * 路径总数随图规模指数增长，不再提供不限数量的枚举，调用方必须给出数量上限。
+     * 注意结果顺序与旧版本不同：旧版本按深度优先搜索的发现顺序返回，现在按路径权重从小到大排列。
      * @param fromId 起点ID
      * @param toId 终点ID
-     * @return 所有路径列表
+     * @param maxPaths 最多返回的路径数
+     * @return 路径列表，按基础权重之和升序
+     * @deprecated 使用 {@link KShortestPaths#of(ScenicGraph, int, int, java.util.function.Function, int, double)}
      */
-    public List<List<ScenicSpot>> getAllPaths(int fromId, int toId) {
-        Vertex start = vertices.get(fromId);
-        Vertex end = vertices.get(toId);
-        
-        if (start == null || end == null) {
+    @Deprecated
+    public List<List<ScenicSpot>> getAllPaths(int fromId, int toId, int maxPaths) {
+        if (maxPaths <= 0) {
+            throw new IllegalArgumentException("路径数量上限必须为正数: " + maxPaths);
+        }
+        if (!vertices.containsKey(fromId) || !vertices.containsKey(toId)) {
             return Collections.emptyList();
         }
         
         List<List<ScenicSpot>> allPaths = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        List<ScenicSpot> currentPath = new ArrayList<>();
-        
-        // 开始搜索路径
-        currentPath.add(start.getSpot());
-        visited.add(fromId);
-        
-        findAllPathsDFS(start, end, visited, currentPath, allPaths);
-        
+        KShortestPaths.of(this, fromId, toId, Edge::getWeight, maxPaths, Double.POSITIVE_INFINITY)
+                .forEachRemaining(allPaths::add);
         return allPaths;
     }
-    
-    /**
-     * 查找所有路径的DFS辅助函数
-     */
-    private void findAllPathsDFS(Vertex current, Vertex end, Set<Integer> visited, 
-                               List<ScenicSpot> currentPath, List<List<ScenicSpot>> allPaths) {
-        // 如果到达终点
-        if (current.equals(end)) {
-            allPaths.add(new ArrayList<>(currentPath));
-            return;
-        }
-        
-        // 访问所有邻接点
-        for (Edge edge : current.getAdjacent()) {
-            Vertex neighbor = edge.getTo();
-            int neighborId = neighbor.getSpot().getId();
-            
-            if (!visited.contains(neighborId)) {
-                // 标记已访问
-                visited.add(neighborId);
-                currentPath.add(neighbor.getSpot());
-                
-                // 递归搜索
-                findAllPathsDFS(neighbor, end, visited, currentPath, allPaths);
-                
-                // 回溯
-                visited.remove(neighborId);
-                currentPath.remove(currentPath.size() - 1);
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.tiantan.model.graph;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 时间依赖的边权重
+ * 参数与返回值均为基本类型，搜索中每次松弛都不会装箱或分配对象。
+ * 实现必须满足先进先出：出发越晚，到达时间不会越早。
+ */
+@FunctionalInterface
+public interface TimeDependentWeight {
+
+    /**
+     * 计算在指定时刻进入边的通行时间
+     * @param edge 边
+     * @param departure 出发时刻（从出发当天零点起的秒数，可以超过一天）
+     * @return 通行时间（秒）
+     */
+    double travelTime(Edge edge, double departure);
+
+    /**
+     * 使用边上配置的通行时间曲线
+     * @return 时间依赖权重
+     */
+    static TimeDependentWeight profiles() {
+        return Edge::getTravelTime;
+    }
+
+    /**
+     * 将与时间无关的权重函数包装为时间依赖权重
+     * @param weightFunction 权重函数，返回值视为通行秒数
+     * @return 时间依赖权重
+     */
+    static TimeDependentWeight constant(ToDoubleFunction<Edge> weightFunction) {
+        return (edge, departure) -> weightFunction.applyAsDouble(edge);
+    }
+}
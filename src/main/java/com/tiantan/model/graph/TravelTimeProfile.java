@@ -0,0 +1,135 @@
+package com.tiantan.model.graph;
+
+import java.util.Arrays;
+
+/**
+ * 按一天中时刻变化的分段线性通行时间
+ * 以若干断点（当天秒数, 通行秒数）描述，断点之间线性插值，最后一个断点与次日第一个断点之间按周期衔接。
+ * 断点以 int/float 数组紧凑存储，创建后不可修改。
+ * 构造时检查FIFO性质（斜率不小于-1）：晚出发的人不会比早出发的人先到达，
+ * 这是时间依赖Dijkstra保持正确的前提。
+ */
+public final class TravelTimeProfile {
+    /**
+     * 一天的秒数
+     */
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final int[] times;       // 断点时刻（当天秒数，严格递增）
+    private final float[] values;    // 断点处的通行时间（秒）
+
+    private TravelTimeProfile(int[] times, float[] values) {
+        this.times = times;
+        this.values = values;
+    }
+
+    /**
+     * 创建分段线性通行时间
+     * @param secondsOfDay 断点时刻，严格递增且位于 [0, 86400)
+     * @param travelSeconds 断点处的通行时间（秒），不能为负数
+     * @return 通行时间函数
+     */
+    public static TravelTimeProfile of(int[] secondsOfDay, double[] travelSeconds) {
+        int k = secondsOfDay.length;
+        if (k == 0 || travelSeconds.length != k) {
+            throw new IllegalArgumentException("断点时刻与通行时间数量不一致或为空");
+        }
+        float[] values = new float[k];
+        for (int i = 0; i < k; i++) {
+            if (secondsOfDay[i] < 0 || secondsOfDay[i] >= SECONDS_PER_DAY) {
+                throw new IllegalArgumentException("断点时刻超出一天范围: " + secondsOfDay[i]);
+            }
+            if (i > 0 && secondsOfDay[i] <= secondsOfDay[i - 1]) {
+                throw new IllegalArgumentException("断点时刻必须严格递增: " + secondsOfDay[i]);
+            }
+            if (!(travelSeconds[i] >= 0)) {
+                throw new IllegalArgumentException("通行时间不能为负数: " + travelSeconds[i]);
+            }
+            values[i] = (float) travelSeconds[i];
+        }
+        // FIFO：相邻断点（含跨午夜的一段）之间通行时间的下降速度不能快于时间流逝
+        for (int i = 0; i < k && k > 1; i++) {
+            int next = (i + 1) % k;
+            double span = next > i ? secondsOfDay[next] - secondsOfDay[i]
+                    : secondsOfDay[next] + SECONDS_PER_DAY - secondsOfDay[i];
+            if (values[next] - values[i] < -span) {
+                throw new IllegalArgumentException("通行时间下降过快，违反先进先出: 时刻 " + secondsOfDay[i]);
+            }
+        }
+        return new TravelTimeProfile(secondsOfDay.clone(), values);
+    }
+
+    /**
+     * 创建与时刻无关的通行时间
+     * @param travelSeconds 通行时间（秒）
+     * @return 通行时间函数
+     */
+    public static TravelTimeProfile constant(double travelSeconds) {
+        return of(new int[]{0}, new double[]{travelSeconds});
+    }
+
+    /**
+     * 以基础通行时间乘以各时刻的倍率创建通行时间
+     * @param baseSeconds 基础通行时间（秒）
+     * @param secondsOfDay 断点时刻
+     * @param factors 断点处的倍率，如高峰期1.5
+     * @return 通行时间函数
+     */
+    public static TravelTimeProfile scaled(double baseSeconds, int[] secondsOfDay, double[] factors) {
+        double[] travelSeconds = new double[factors.length];
+        for (int i = 0; i < factors.length; i++) {
+            travelSeconds[i] = baseSeconds * factors[i];
+        }
+        return of(secondsOfDay, travelSeconds);
+    }
+
+    /**
+     * 计算在指定时刻出发的通行时间
+     * @param departure 出发时刻（秒），可以超过一天，按周期取模
+     * @return 通行时间（秒）
+     */
+    public double travelTime(double departure) {
+        int k = times.length;
+        if (k == 1) {
+            return values[0];
+        }
+        double t = departure % SECONDS_PER_DAY;
+        if (t < 0) {
+            t += SECONDS_PER_DAY;
+        }
+
+        // 找到 t 所在的区间 [times[i], times[i+1])，不在任何区间时位于跨午夜的一段
+        int i = Arrays.binarySearch(times, (int) Math.floor(t));
+        if (i < 0) {
+            i = -i - 2;
+        }
+        int left;
+        double leftTime;
+        double rightTime;
+        int right;
+        if (i < 0 || i == k - 1) {
+            left = k - 1;
+            right = 0;
+            leftTime = times[k - 1];
+            rightTime = times[0] + (double) SECONDS_PER_DAY;
+            if (t < times[0]) {
+                t += SECONDS_PER_DAY;
+            }
+        } else {
+            left = i;
+            right = i + 1;
+            leftTime = times[i];
+            rightTime = times[i + 1];
+        }
+        double ratio = (t - leftTime) / (rightTime - leftTime);
+        return values[left] + ratio * (values[right] - values[left]);
+    }
+
+    /**
+     * 获取断点数量
+     * @return 断点数量
+     */
+    public int getBreakpointCount() {
+        return times.length;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tiantan.model.graph;
+
+/**
+ * 图遍历访问器
+ * 遍历过程中每访问一个顶点调用一次，调用方无需先生成完整的结果列表
+ */
+@FunctionalInterface
+public interface VertexVisitor {
+
+    /**
+     * 访问顶点
+     * @param vertex 顶点在紧凑快照中的下标
+     * @param depth 深度优先时为搜索栈深度，广度优先时为距起点的层数；起点为0
+     * @return 返回false时立即结束遍历
+     */
+    boolean visit(int vertex, int depth);
+}
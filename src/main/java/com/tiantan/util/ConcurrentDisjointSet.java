@@ -0,0 +1,75 @@
+package com.tiantan.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 可并发使用的无锁并查集
+ * 父指针保存在AtomicIntegerArray中，合并时用CAS把下标较小的根挂到下标较大的根下，
+ * 固定的挂接方向保证并发合并不会成环；查找时用CAS做路径减半，失败只说明其他线程已经压缩过，可以忽略。
+ * 同一对集合的并发合并中恰好有一次返回true
+ */
+public class ConcurrentDisjointSet {
+    private final AtomicIntegerArray parent;  // 元素 -> 父元素，根的父元素是自身
+
+    // 构造函数，每个元素自成一个集合
+    public ConcurrentDisjointSet(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    // 查找元素所在集合的根（路径减半）
+    public int find(int x) {
+        if (x < 0 || x >= parent.length()) {
+            throw new IndexOutOfBoundsException("索引越界: " + x);
+        }
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(x, p, grandparent);
+            }
+            x = grandparent;
+        }
+    }
+
+    // 合并两个元素所在的集合，已在同一集合时返回false
+    public boolean union(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            int low = Math.min(rootA, rootB);
+            int high = Math.max(rootA, rootB);
+            if (parent.compareAndSet(low, low, high)) {
+                return true;
+            }
+        }
+    }
+
+    // 两个元素是否在同一集合（并发合并进行中时结果可能立即过期）
+    public boolean connected(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return true;
+            }
+            // rootA 仍是根时两者确实不相交
+            if (parent.get(rootA) == rootA) {
+                return false;
+            }
+        }
+    }
+
+    // 获取元素数量
+    public int size() {
+        return parent.length();
+    }
+}
@@ -14,6 +14,7 @@ public class Constants {
     public static final String GRAPH_FILE = "graph.csv";
     public static final String SETTINGS_FILE = "settings.properties";
     public static final String ROUTES_FILE = "routes.json";
+    public static final String CH_FILE = "graph.ch";
     
     // 地图相关常量
     public static final double MAP_DEFAULT_ZOOM = 1.0;
@@ -33,6 +34,11 @@ public class Constants {
     // 路线规划
     public static final int MAX_ROUTE_STOPS = 15;
     public static final int DEFAULT_VISIT_TIME = 30; // 默认游览时间（分钟）
+    public static final double WALKING_SPEED = 70.0; // 中等步速（米/分钟）
+    public static final double WALKING_SPEED_STEP = 0.2; // 步速每差一档相对中等步速的增减比例
+    public static final long ROUTE_PLANNING_TIME_LIMIT_MS = 100; // 时间预算内选取景点的计算时限（毫秒）
+    public static final int TSP_EXACT_MAX_STOPS = 16; // 精确求解路线顺序的最大景点数，超过后使用近似算法
+    public static final int ALL_PAIRS_MAX_SPOTS = 2048; // 全源最短路径表的最大景点数（约占16n²字节），超过后按需计算
     
     // 界面相关
     public static final String[] AVAILABLE_THEMES = {
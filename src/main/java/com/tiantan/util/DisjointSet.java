@@ -0,0 +1,73 @@
+package com.tiantan.util;
+
+/**
+ * 基于int数组的并查集
+ * 查找时路径减半，合并时按集合大小把小树挂到大树下，
+ * 两者结合使单次操作的均摊代价接近常数，且查找是迭代的，不会栈溢出
+ */
+public class DisjointSet {
+    private final int[] parent;  // 元素 -> 父元素，根的父元素是自身
+    private final int[] size;    // 根 -> 集合大小，非根元素的值无意义
+    private int count;           // 当前集合数量
+
+    // 构造函数，每个元素自成一个集合
+    public DisjointSet(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        count = n;
+    }
+
+    // 查找元素所在集合的根（路径减半）
+    public int find(int x) {
+        if (x < 0 || x >= parent.length) {
+            throw new IndexOutOfBoundsException("索引越界: " + x);
+        }
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // 合并两个元素所在的集合，已在同一集合时返回false
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        count--;
+        return true;
+    }
+
+    // 两个元素是否在同一集合
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    // 获取元素所在集合的大小
+    public int setSize(int x) {
+        return size[find(x)];
+    }
+
+    // 获取当前集合数量
+    public int count() {
+        return count;
+    }
+
+    // 获取元素数量
+    public int size() {
+        return parent.length;
+    }
+}
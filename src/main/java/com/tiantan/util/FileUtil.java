@@ -1,8 +1,11 @@
 package com.tiantan.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tiantan.model.algorithm.ContractionHierarchy;
 import com.tiantan.model.data.ScenicSpot;
 import com.tiantan.model.data.SpotList;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
 import com.tiantan.model.graph.EdgeType;
 import com.tiantan.model.graph.ScenicGraph;
 import org.slf4j.Logger;
@@ -16,6 +19,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.ToDoubleFunction;
 
 /**
  * 文件操作工具类
@@ -166,6 +170,50 @@ public class FileUtil {
         }
     }
     
+    /**
+     * 保存收缩层次预处理结果
+     * @param hierarchy 收缩层次
+     * @return 是否保存成功
+     */
+    public static boolean saveContractionHierarchy(ContractionHierarchy hierarchy) {
+        Path filePath = Paths.get(DATA_DIR, Constants.CH_FILE);
+        
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(filePath)))) {
+            hierarchy.writeTo(output);
+            logger.info("成功保存收缩层次, 弧数: {}", hierarchy.getArcCount());
+            return true;
+        } catch (IOException e) {
+            logger.error("保存收缩层次失败", e);
+            return false;
+        }
+    }
+    
+    /**
+     * 加载收缩层次预处理结果
+     * @param graph 与保存时结构相同的紧凑图快照
+     * @param weightFunction 构建时使用的权重计算函数
+     * @return 收缩层次，文件不存在或与当前的图、权重不匹配时返回null
+     */
+    public static ContractionHierarchy loadContractionHierarchy(CompactGraph graph,
+                                                                ToDoubleFunction<Edge> weightFunction) {
+        Path filePath = Paths.get(DATA_DIR, Constants.CH_FILE);
+        
+        if (!Files.exists(filePath)) {
+            return null;
+        }
+        
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(filePath)))) {
+            ContractionHierarchy hierarchy = ContractionHierarchy.readFrom(input, graph, weightFunction);
+            logger.info("成功加载收缩层次, 弧数: {}", hierarchy.getArcCount());
+            return hierarchy;
+        } catch (IOException e) {
+            logger.error("加载收缩层次失败", e);
+            return null;
+        }
+    }
+    
     /**
      * 加载应用程序设置
      * @return 属性对象
@@ -0,0 +1,150 @@
+package com.tiantan.util;
+
+import java.util.Arrays;
+
+/**
+ * 键和值都是基本类型int的开放寻址哈希表
+ * 线性探测，删除时回移后续元素而不留墓碑，查找和修改都不产生任何对象分配。
+ * 容量始终为2的幂，装载因子不超过1/2
+ */
+public class IntIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;  // 默认容量
+    private static final int EMPTY = Integer.MIN_VALUE;  // 空槽位标记，不能作为键
+
+    private int[] keys;          // 槽位 -> 键，空槽位为EMPTY
+    private int[] values;        // 槽位 -> 值
+    private int size;            // 当前键值对数量
+    private final int missing;   // 键不存在时返回的值
+
+    // 构造函数
+    public IntIntHashMap(int missingValue) {
+        this(DEFAULT_CAPACITY, missingValue);
+    }
+
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        missing = missingValue;
+    }
+
+    // 获取键对应的值，不存在时返回构造时指定的缺省值
+    public int get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : missing;
+    }
+
+    // 是否包含键
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    // 写入键值对，返回原来的值，原来不存在时返回缺省值
+    public int put(int key, int value) {
+        checkKey(key);
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int old = values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return missing;
+    }
+
+    // 删除键，返回原来的值，不存在时返回缺省值
+    public int remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return missing;
+        }
+        int old = values[slot];
+        int mask = keys.length - 1;
+        // 回移探测链上的后续元素，填补空出的槽位
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return old;
+    }
+
+    // 获取键值对数量
+    public int size() {
+        return size;
+    }
+
+    // 检查是否为空
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 清空，保留已分配的容量
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // 查找键所在的槽位，不存在时返回-1
+    private int find(int key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("不支持的键: " + key);
+        }
+    }
+
+    // 打散连续的ID，避免线性探测时聚集
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
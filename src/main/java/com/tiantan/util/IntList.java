@@ -0,0 +1,97 @@
+package com.tiantan.util;
+
+import java.util.Arrays;
+
+/**
+ * 基本类型int的动态数组
+ * 避免 List&lt;Integer&gt; 的装箱开销，也可作为显式栈使用
+ */
+public class IntList {
+    private static final int DEFAULT_CAPACITY = 8;  // 默认容量
+
+    private int[] elements;  // 存储元素的数组
+    private int size;        // 当前元素数量
+
+    // 构造函数
+    public IntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntList(int initialCapacity) {
+        elements = new int[Math.max(1, initialCapacity)];
+        size = 0;
+    }
+
+    // 在末尾添加元素
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    // 获取指定位置的元素
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + index);
+        }
+        return elements[index];
+    }
+
+    // 修改指定位置的元素
+    public void set(int index, int value) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + index);
+        }
+        elements[index] = value;
+    }
+
+    // 删除指定位置的元素，用末尾元素填补（不保持顺序）
+    public void swapRemove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + index);
+        }
+        elements[index] = elements[--size];
+    }
+
+    // 作为栈使用：压入元素
+    public void push(int value) {
+        add(value);
+    }
+
+    // 作为栈使用：弹出末尾元素
+    public int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("列表为空");
+        }
+        return elements[--size];
+    }
+
+    // 作为栈使用：查看末尾元素
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("列表为空");
+        }
+        return elements[size - 1];
+    }
+
+    // 获取当前元素数量
+    public int size() {
+        return size;
+    }
+
+    // 检查列表是否为空
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 清空列表（保留容量）
+    public void clear() {
+        size = 0;
+    }
+
+    // 转换为数组
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
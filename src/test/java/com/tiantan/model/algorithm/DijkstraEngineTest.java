@@ -0,0 +1,138 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeType;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * DijkstraEngine 测试：结果与原来基于哈希表的Dijkstra一致，热身后重复计算不再分配内存
+ */
+class DijkstraEngineTest {
+    private static final ToDoubleFunction<Edge> WEIGHT = Edge::getWeight;
+
+    @Test
+    void predecessorsMatchMapBasedDijkstra() {
+        for (long seed = 1; seed <= 20; seed++) {
+            ScenicGraph graph = randomGraph(seed, 300, 1500, seed % 2 == 0);
+            CompactGraph snapshot = graph.freeze();
+            for (int i = 0; i < 5; i++) {
+                int sourceId = snapshot.idOf(i * 37 % snapshot.getVertexCount());
+                Map<Integer, Integer> expected = referenceDijkstra(graph, sourceId);
+
+                DijkstraEngine engine = DijkstraEngine.local();
+                engine.run(snapshot, snapshot.indexOf(sourceId), WEIGHT);
+                for (int v = 0; v < snapshot.getVertexCount(); v++) {
+                    int id = snapshot.idOf(v);
+                    Integer expectedPredecessor = expected.get(id);
+                    int actual = engine.isReached(v) && v != engine.getSource()
+                            ? snapshot.idOf(engine.predecessor(v)) : -1;
+                    assertEquals(expectedPredecessor == null ? -1 : expectedPredecessor, actual,
+                            "seed " + seed + " source " + sourceId + " vertex " + id);
+                }
+                assertEquals(expected, ShortestPath.dijkstra(graph, sourceId, Edge::getWeight));
+            }
+        }
+    }
+
+    @Test
+    void steadyStateRunsDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        CompactGraph snapshot = randomGraph(42, 2000, 10000, false).freeze();
+        int n = snapshot.getVertexCount();
+        DijkstraEngine engine = DijkstraEngine.local();
+        for (int i = 0; i < 2000; i++) {
+            engine.run(snapshot, i % n, WEIGHT);
+            engine.run(snapshot, i % n, (i * 7) % n, WEIGHT);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 500; i++) {
+            engine.run(snapshot, i % n, WEIGHT);
+            engine.run(snapshot, i % n, (i * 7) % n, WEIGHT);
+        }
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+        assertEquals(0, after - before, "稳定状态下仍有内存分配");
+    }
+
+    /**
+     * 随机图，边权带小数以保证最短路径唯一
+     */
+    private static ScenicGraph randomGraph(long seed, int n, int m, boolean directed) {
+        Random random = new Random(seed);
+        ScenicGraph graph = new ScenicGraph(directed);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new ScenicSpot(i * 3 + 1, "景点" + i, "Spot " + i, "", "",
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                    random.nextInt(100), random.nextBoolean(), 0));
+        }
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        for (int k = 0; k < m; k++) {
+            Vertex a = vertices.get(random.nextInt(n));
+            Vertex b = vertices.get(random.nextInt(n));
+            if (a != b) {
+                double weight = a.getSpot().distanceTo(b.getSpot()) * (1 + random.nextDouble());
+                graph.addEdge(a.getSpot().getId(), b.getSpot().getId(), weight, EdgeType.WALKING);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 原先基于哈希表和 PriorityQueue 的Dijkstra实现，作为对照；未到达的顶点前驱为null
+     */
+    private static Map<Integer, Integer> referenceDijkstra(ScenicGraph graph, int sourceId) {
+        Map<Integer, Double> distance = new HashMap<>();
+        Map<Integer, Integer> predecessor = new HashMap<>();
+        Set<Integer> settled = new HashSet<>();
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        for (Vertex vertex : graph.getVertices()) {
+            distance.put(vertex.getSpot().getId(), Double.POSITIVE_INFINITY);
+            predecessor.put(vertex.getSpot().getId(), null);
+        }
+        distance.put(sourceId, 0.0);
+        queue.offer(new double[] {sourceId, 0.0});
+        while (!queue.isEmpty()) {
+            int currentId = (int) queue.poll()[0];
+            if (!settled.add(currentId)) {
+                continue;
+            }
+            for (Edge edge : graph.getVertex(currentId).getAdjacent()) {
+                int neighborId = edge.getTo().getSpot().getId();
+                if (settled.contains(neighborId)) {
+                    continue;
+                }
+                double newDistance = distance.get(currentId) + edge.getWeight();
+                if (newDistance < distance.get(neighborId)) {
+                    distance.put(neighborId, newDistance);
+                    predecessor.put(neighborId, currentId);
+                    queue.offer(new double[] {neighborId, newDistance});
+                }
+            }
+        }
+        return predecessor;
+    }
+}
@@ -0,0 +1,145 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeType;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DistanceMatrix 测试：基于收缩层次的RPHAST结果与逐个起点运行的朴素Dijkstra一致
+ */
+class DistanceMatrixTest {
+    private static final ToDoubleFunction<Edge> WEIGHT = Edge::getWeight;
+    private static final double EPS = 1e-6;
+
+    @Test
+    void hierarchyMatrixMatchesDijkstra() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            ScenicGraph graph = randomGraph(random, 200, 700, seed % 2 == 0);
+            CompactGraph snapshot = graph.freeze();
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(snapshot, WEIGHT);
+
+            int[] sourceIds = randomIds(random, snapshot, 15);
+            int[] targetIds = randomIds(random, snapshot, 25);
+            double[] actual = new double[sourceIds.length * targetIds.length];
+            DistanceMatrix.compute(hierarchy, sourceIds, targetIds, actual);
+
+            double[] plain = new double[actual.length];
+            DistanceMatrix.compute(snapshot, sourceIds, targetIds, WEIGHT, plain);
+            for (int i = 0; i < sourceIds.length; i++) {
+                Map<Integer, Double> expected = referenceDijkstra(graph, sourceIds[i]);
+                for (int j = 0; j < targetIds.length; j++) {
+                    double distance = expected.getOrDefault(targetIds[j], Double.POSITIVE_INFINITY);
+                    String message = "seed " + seed + " " + sourceIds[i] + " -> " + targetIds[j];
+                    assertEquals(distance, actual[i * targetIds.length + j], EPS, message);
+                    assertEquals(distance, plain[i * targetIds.length + j], EPS, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reloadedHierarchyGivesSameMatrix() throws IOException {
+        Random random = new Random(7);
+        ScenicGraph graph = randomGraph(random, 300, 1000, false);
+        CompactGraph snapshot = graph.freeze();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(snapshot, WEIGHT);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hierarchy.writeTo(new DataOutputStream(bytes));
+        ContractionHierarchy reloaded = ContractionHierarchy.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), snapshot, WEIGHT);
+
+        int[] ids = randomIds(random, snapshot, 30);
+        double[] expected = new double[ids.length * ids.length];
+        double[] actual = new double[expected.length];
+        DistanceMatrix.compute(hierarchy, ids, ids, expected);
+        DistanceMatrix.compute(reloaded, ids, ids, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * 随机选取景点ID，其中一个为图中不存在的ID
+     */
+    private static int[] randomIds(Random random, CompactGraph snapshot, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = snapshot.idOf(random.nextInt(snapshot.getVertexCount()));
+        }
+        ids[count - 1] = -1;
+        return ids;
+    }
+
+    /**
+     * 随机图，边数较少时存在不连通的部分
+     */
+    private static ScenicGraph randomGraph(Random random, int n, int m, boolean directed) {
+        ScenicGraph graph = new ScenicGraph(directed);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new ScenicSpot(i * 3 + 1, "景点" + i, "Spot " + i, "", "",
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                    random.nextInt(100), random.nextBoolean(), 0));
+        }
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        for (int k = 0; k < m; k++) {
+            Vertex a = vertices.get(random.nextInt(n));
+            Vertex b = vertices.get(random.nextInt(n));
+            if (a != b) {
+                double weight = a.getSpot().distanceTo(b.getSpot()) * (1 + random.nextDouble());
+                graph.addEdge(a.getSpot().getId(), b.getSpot().getId(), weight, EdgeType.WALKING);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 基于哈希表和 PriorityQueue 的Dijkstra，返回已到达景点的距离
+     */
+    private static Map<Integer, Double> referenceDijkstra(ScenicGraph graph, int sourceId) {
+        Map<Integer, Double> distance = new HashMap<>();
+        if (graph.getVertex(sourceId) == null) {
+            return distance;
+        }
+        Set<Integer> settled = new HashSet<>();
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        distance.put(sourceId, 0.0);
+        queue.offer(new double[] {sourceId, 0.0});
+        while (!queue.isEmpty()) {
+            int currentId = (int) queue.poll()[0];
+            if (!settled.add(currentId)) {
+                continue;
+            }
+            for (Edge edge : graph.getVertex(currentId).getAdjacent()) {
+                int neighborId = edge.getTo().getSpot().getId();
+                double newDistance = distance.get(currentId) + edge.getWeight();
+                if (newDistance < distance.getOrDefault(neighborId, Double.POSITIVE_INFINITY)) {
+                    distance.put(neighborId, newDistance);
+                    queue.offer(new double[] {neighborId, newDistance});
+                }
+            }
+        }
+        return distance;
+    }
+}
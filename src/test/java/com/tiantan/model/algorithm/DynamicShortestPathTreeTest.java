@@ -0,0 +1,125 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeType;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DynamicShortestPathTree 测试：随机改变拥挤状态和边权重后，增量修复的树与从头运行的朴素Dijkstra一致
+ */
+class DynamicShortestPathTreeTest {
+    private static final ToDoubleFunction<Edge> WEIGHT = Edge::getEffectiveWeight;
+    private static final double EPS = 1e-6;
+
+    @Test
+    void repairedTreeMatchesDijkstra() {
+        for (long seed = 1; seed <= 10; seed++) {
+            Random random = new Random(seed);
+            ScenicGraph graph = randomGraph(random, 150, 450, seed % 2 == 0);
+            List<Edge> edges = new ArrayList<>(graph.getEdges());
+            List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+            int sourceId = vertices.get(random.nextInt(vertices.size())).getSpot().getId();
+            DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, WEIGHT, sourceId);
+
+            for (int step = 0; step < 60; step++) {
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                if (random.nextBoolean()) {
+                    edge.setCrowded(!edge.isCrowded());
+                } else {
+                    edge.setWeight(edge.getWeight() * (0.3 + random.nextDouble() * 1.7));
+                }
+                assertTreeMatches(graph, tree, sourceId, "seed " + seed + " step " + step);
+            }
+            tree.dispose();
+        }
+    }
+
+    private static void assertTreeMatches(ScenicGraph graph, DynamicShortestPathTree tree,
+                                          int sourceId, String message) {
+        Map<Integer, Double> expected = referenceDijkstra(graph, sourceId);
+        for (Vertex vertex : graph.getVertices()) {
+            int id = vertex.getSpot().getId();
+            double distance = expected.getOrDefault(id, Double.POSITIVE_INFINITY);
+            assertEquals(distance, tree.distance(id), EPS, message + " vertex " + id);
+
+            ScenicSpot parent = tree.parentOf(id);
+            if (parent == null) {
+                assertTrue(id == sourceId || Double.isInfinite(distance), message + " vertex " + id);
+                continue;
+            }
+            // 前驱必须经由某条边以最短距离到达该景点
+            boolean tight = false;
+            for (Edge edge : graph.getVertex(parent.getId()).getAdjacent()) {
+                if (edge.getTo() == vertex
+                        && Math.abs(tree.distance(parent.getId()) + WEIGHT.applyAsDouble(edge) - distance) < EPS) {
+                    tight = true;
+                }
+            }
+            assertTrue(tight, message + " vertex " + id + " 前驱不在最短路径上");
+        }
+    }
+
+    /**
+     * 随机图，边权带小数以减少等长路径
+     */
+    private static ScenicGraph randomGraph(Random random, int n, int m, boolean directed) {
+        ScenicGraph graph = new ScenicGraph(directed);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new ScenicSpot(i * 3 + 1, "景点" + i, "Spot " + i, "", "",
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                    random.nextInt(100), random.nextBoolean(), 0));
+        }
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        for (int k = 0; k < m; k++) {
+            Vertex a = vertices.get(random.nextInt(n));
+            Vertex b = vertices.get(random.nextInt(n));
+            if (a != b) {
+                double weight = a.getSpot().distanceTo(b.getSpot()) * (1 + random.nextDouble());
+                graph.addEdge(a.getSpot().getId(), b.getSpot().getId(), weight, EdgeType.WALKING);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * 基于哈希表和 PriorityQueue 的Dijkstra，返回已到达景点的距离
+     */
+    private static Map<Integer, Double> referenceDijkstra(ScenicGraph graph, int sourceId) {
+        Map<Integer, Double> distance = new HashMap<>();
+        Set<Integer> settled = new HashSet<>();
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        distance.put(sourceId, 0.0);
+        queue.offer(new double[] {sourceId, 0.0});
+        while (!queue.isEmpty()) {
+            int currentId = (int) queue.poll()[0];
+            if (!settled.add(currentId)) {
+                continue;
+            }
+            for (Edge edge : graph.getVertex(currentId).getAdjacent()) {
+                int neighborId = edge.getTo().getSpot().getId();
+                double newDistance = distance.get(currentId) + WEIGHT.applyAsDouble(edge);
+                if (newDistance < distance.getOrDefault(neighborId, Double.POSITIVE_INFINITY)) {
+                    distance.put(neighborId, newDistance);
+                    queue.offer(new double[] {neighborId, newDistance});
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tiantan.model.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * EditDistance 测试：位并行结果与朴素动态规划一致，覆盖单字与超过64个字符的分块情形
+ */
+class EditDistanceTest {
+    private static final String ALPHABET = "abcd天坛祈年";
+
+    @Test
+    void distanceMatchesDynamicProgramming() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 3000; trial++) {
+            int maxLength = trial % 3 == 0 ? 200 : 70;
+            String a = randomString(random, random.nextInt(maxLength));
+            String b = random.nextBoolean() ? mutate(random, a) : randomString(random, random.nextInt(maxLength));
+            int expected = levenshtein(a, b);
+            String message = "\"" + a + "\" / \"" + b + "\"";
+
+            assertEquals(expected, EditDistance.distance(a, b), message);
+            int k = random.nextInt(expected + 5);
+            assertEquals(Math.min(expected, k + 1), EditDistance.distance(a, b, k), message + " k=" + k);
+            assertEquals(expected <= k, EditDistance.within(a, b, k), message + " k=" + k);
+        }
+    }
+
+    /**
+     * 对字符串做少量随机插入、删除和替换，得到距离较小的字符串对
+     */
+    private static String mutate(Random random, String s) {
+        StringBuilder builder = new StringBuilder(s);
+        int edits = random.nextInt(8);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(builder.length() + 1);
+            int operation = random.nextInt(3);
+            if (operation == 0 || builder.length() == 0) {
+                builder.insert(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            } else if (position < builder.length()) {
+                if (operation == 1) {
+                    builder.deleteCharAt(position);
+                } else {
+                    builder.setCharAt(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = dp[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                dp[i][j] = Math.min(substitute, Math.min(dp[i - 1][j], dp[i][j - 1]) + 1);
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,136 @@
+package com.tiantan.model.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * HeldKarp 测试：小规模时与枚举全排列的结果一致，并行计算的规模与朴素串行动态规划一致
+ */
+class HeldKarpTest {
+    private static final double EPS = 1e-6;
+
+    @Test
+    void matchesBruteForceOnSmallInstances() {
+        for (long seed = 1; seed <= 200; seed++) {
+            Random random = new Random(seed);
+            int n = 1 + random.nextInt(8);
+            double[] distance = randomMatrix(random, n);
+            int start = random.nextInt(n);
+            boolean returnToStart = seed % 2 == 0;
+
+            int[] order = HeldKarp.solve(distance, n, start, returnToStart);
+            assertPermutation(order, n, start);
+            assertEquals(bruteForce(distance, n, start, returnToStart),
+                    HeldKarp.cost(distance, n, order, returnToStart), EPS, "seed " + seed);
+        }
+    }
+
+    @Test
+    void parallelLayersMatchSequentialDp() {
+        for (long seed = 1; seed <= 6; seed++) {
+            Random random = new Random(seed);
+            int n = 13 + random.nextInt(3);
+            double[] distance = randomMatrix(random, n);
+            boolean returnToStart = seed % 2 == 0;
+
+            int[] order = HeldKarp.solve(distance, n, 0, returnToStart);
+            assertPermutation(order, n, 0);
+            assertEquals(sequentialDp(distance, n, returnToStart),
+                    HeldKarp.cost(distance, n, order, returnToStart), EPS, "seed " + seed);
+        }
+    }
+
+    /**
+     * 不对称的随机矩阵，约一成城市对不可达
+     */
+    private static double[] randomMatrix(Random random, int n) {
+        double[] distance = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    distance[i * n + j] = random.nextInt(10) == 0
+                            ? Double.POSITIVE_INFINITY : 1 + random.nextDouble() * 100;
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static void assertPermutation(int[] order, int n, int start) {
+        assertEquals(n, order.length);
+        assertEquals(start, order[0]);
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[n];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, sorted);
+    }
+
+    /**
+     * 枚举起点之后的全部排列
+     */
+    private static double bruteForce(double[] distance, int n, int start, boolean returnToStart) {
+        int[] order = new int[n];
+        order[0] = start;
+        for (int i = 0, k = 1; i < n; i++) {
+            if (i != start) {
+                order[k++] = i;
+            }
+        }
+        return permute(distance, n, order, 1, returnToStart);
+    }
+
+    private static double permute(double[] distance, int n, int[] order, int k, boolean returnToStart) {
+        if (k >= n - 1) {
+            return HeldKarp.cost(distance, n, order, returnToStart);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = k; i < n; i++) {
+            swap(order, k, i);
+            best = Math.min(best, permute(distance, n, order, k + 1, returnToStart));
+            swap(order, k, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] order, int a, int b) {
+        int t = order[a];
+        order[a] = order[b];
+        order[b] = t;
+    }
+
+    /**
+     * 按掩码递增顺序计算的朴素动态规划，起点为0，只返回最优代价
+     */
+    private static double sequentialDp(double[] distance, int n, boolean returnToStart) {
+        double[][] dp = new double[1 << n][n];
+        for (double[] row : dp) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        dp[1][0] = 0;
+        for (int mask = 1; mask < (1 << n); mask += 2) {
+            for (int j = 0; j < n; j++) {
+                if (Double.isInfinite(dp[mask][j])) {
+                    continue;
+                }
+                for (int k = 1; k < n; k++) {
+                    if ((mask & (1 << k)) == 0) {
+                        int next = mask | (1 << k);
+                        dp[next][k] = Math.min(dp[next][k], dp[mask][j] + distance[j * n + k]);
+                    }
+                }
+            }
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int full = (1 << n) - 1;
+        for (int j = 0; j < n; j++) {
+            best = Math.min(best, dp[full][j] + (returnToStart ? distance[j * n] : 0));
+        }
+        return best;
+    }
+}
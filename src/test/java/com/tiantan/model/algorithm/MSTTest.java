@@ -0,0 +1,140 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeType;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MST 测试：Borůvka得到的生成森林与朴素Kruskal的总权重相同，且边集与库中的Kruskal一致
+ */
+class MSTTest {
+    private static final ToDoubleFunction<Edge> WEIGHT = Edge::getEffectiveWeight;
+    private static final double EPS = 1e-6;
+
+    @Test
+    void boruvkaMatchesKruskal() {
+        for (long seed = 1; seed <= 30; seed++) {
+            Random random = new Random(seed);
+            // 整数权重制造大量相同权重；较大的图走并行分支
+            int n = seed % 5 == 0 ? 6000 : 20 + random.nextInt(300);
+            ScenicGraph graph = randomGraph(random, n, n * 3);
+            for (Edge edge : graph.getEdges()) {
+                edge.setCrowded(random.nextInt(4) == 0);
+            }
+            CompactGraph snapshot = graph.freeze();
+
+            List<Edge> forest = MST.boruvka(snapshot, WEIGHT);
+            int[] parent = new int[snapshot.getVertexCount()];
+            double expectedWeight = referenceKruskal(graph, parent);
+            int components = 0;
+            for (int v = 0; v < parent.length; v++) {
+                components += find(parent, v) == v ? 1 : 0;
+            }
+
+            String message = "seed " + seed;
+            assertEquals(snapshot.getVertexCount() - components, forest.size(), message);
+            assertEquals(expectedWeight, totalWeight(forest), EPS * n, message);
+            assertAcyclic(snapshot, forest, message);
+            assertEquals(keys(MST.kruskal(snapshot, WEIGHT)), keys(forest), message);
+        }
+    }
+
+    private static double totalWeight(List<Edge> edges) {
+        double total = 0.0;
+        for (Edge edge : edges) {
+            total += WEIGHT.applyAsDouble(edge);
+        }
+        return total;
+    }
+
+    private static void assertAcyclic(CompactGraph snapshot, List<Edge> edges, String message) {
+        int[] parent = new int[snapshot.getVertexCount()];
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        for (Edge edge : edges) {
+            int a = find(parent, snapshot.indexOf(edge.getFrom().getSpot().getId()));
+            int b = find(parent, snapshot.indexOf(edge.getTo().getSpot().getId()));
+            assertTrue(a != b, message + " 生成森林中有环");
+            parent[a] = b;
+        }
+    }
+
+    /**
+     * 无向边的规范化表示，按字典序排列
+     */
+    private static List<String> keys(List<Edge> edges) {
+        List<String> keys = new ArrayList<>();
+        for (Edge edge : edges) {
+            int a = edge.getFrom().getSpot().getId();
+            int b = edge.getTo().getSpot().getId();
+            keys.add(Math.min(a, b) + "-" + Math.max(a, b) + ":" + WEIGHT.applyAsDouble(edge));
+        }
+        keys.sort(Comparator.naturalOrder());
+        return keys;
+    }
+
+    /**
+     * 对边列表排序后逐条尝试合并的Kruskal，parent 返回按快照下标的并查集，结果为总权重
+     */
+    private static double referenceKruskal(ScenicGraph graph, int[] parent) {
+        CompactGraph snapshot = graph.freeze();
+        for (int v = 0; v < parent.length; v++) {
+            parent[v] = v;
+        }
+        List<Edge> edges = new ArrayList<>(graph.getEdges());
+        edges.sort(Comparator.comparingDouble(WEIGHT));
+        double total = 0.0;
+        for (Edge edge : edges) {
+            int a = find(parent, snapshot.indexOf(edge.getFrom().getSpot().getId()));
+            int b = find(parent, snapshot.indexOf(edge.getTo().getSpot().getId()));
+            if (a != b) {
+                parent[a] = b;
+                total += WEIGHT.applyAsDouble(edge);
+            }
+        }
+        return total;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * 随机无向图，边数较少时存在多个连通分量
+     */
+    private static ScenicGraph randomGraph(Random random, int n, int m) {
+        ScenicGraph graph = new ScenicGraph(false);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new ScenicSpot(i * 3 + 1, "景点" + i, "Spot " + i, "", "",
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                    random.nextInt(100), random.nextBoolean(), 0));
+        }
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        for (int k = 0; k < m / 2; k++) {
+            Vertex a = vertices.get(random.nextInt(n));
+            Vertex b = vertices.get(random.nextInt(n));
+            if (a != b) {
+                graph.addEdge(a.getSpot().getId(), b.getSpot().getId(), 1 + random.nextInt(20), EdgeType.WALKING);
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,122 @@
+package com.tiantan.model.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OrienteeringPlanner 测试：小规模时得分与深度优先枚举的最优解一致，大规模时路线始终满足预算
+ */
+class OrienteeringPlannerTest {
+    private static final double EPS = 1e-6;
+
+    @Test
+    void exactPlanMatchesBruteForce() {
+        for (long seed = 1; seed <= 150; seed++) {
+            Random random = new Random(seed);
+            int n = 2 + random.nextInt(8);
+            OrienteeringPlanner planner = randomPlanner(random, n);
+            int start = random.nextInt(n);
+            int end = seed % 3 == 0 ? start : random.nextInt(n);
+            double budget = 60 + random.nextDouble() * 300;
+
+            int[] route = planner.plan(start, end, budget, 1000);
+            assertValid(route, n, start, end);
+            double best = bruteForce(planner, n, start, end, budget);
+            if (best >= 0) {
+                assertTrue(planner.duration(route) <= budget + EPS, "seed " + seed);
+                assertEquals(best, planner.score(route), EPS, "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void heuristicPlanStaysWithinBudget() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Random random = new Random(seed);
+            int n = 40;
+            OrienteeringPlanner planner = randomPlanner(random, n);
+            int start = random.nextInt(n);
+            int end = seed % 2 == 0 ? start : (start + 1) % n;
+            double budget = 200 + random.nextDouble() * 200;
+
+            int[] route = planner.plan(start, end, budget, 200);
+            assertValid(route, n, start, end);
+            assertTrue(planner.duration(route) <= budget + EPS, "seed " + seed);
+            assertTrue(planner.score(route) > planner.score(new int[] {start, end}),
+                    "seed " + seed);
+        }
+    }
+
+    /**
+     * 平面上的随机点，路程时间取欧氏距离，满足三角不等式
+     */
+    private static OrienteeringPlanner randomPlanner(Random random, int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] visitTime = new double[n];
+        double[] prize = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 100;
+            y[i] = random.nextDouble() * 100;
+            visitTime[i] = 5 + random.nextInt(30);
+            prize[i] = random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(10);
+        }
+        double[] travelTime = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                travelTime[i * n + j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        return new OrienteeringPlanner(travelTime, visitTime, prize);
+    }
+
+    private static void assertValid(int[] route, int n, int start, int end) {
+        assertEquals(start, route[0]);
+        assertEquals(end, route[route.length - 1]);
+        Set<Integer> seen = new HashSet<>();
+        int inner = start == end ? route.length - 1 : route.length;
+        for (int i = 0; i < inner; i++) {
+            assertTrue(route[i] >= 0 && route[i] < n);
+            assertTrue(seen.add(route[i]), "景点重复出现: " + route[i]);
+        }
+    }
+
+    /**
+     * 深度优先枚举所有访问顺序，返回满足预算的最高得分；起点直达终点也超出预算时返回-1。
+     * 路程时间满足三角不等式，前缀直达终点已超出预算时可以剪枝
+     */
+    private static double bruteForce(OrienteeringPlanner planner, int n, int start, int end, double budget) {
+        int[] route = new int[n + 1];
+        route[0] = start;
+        boolean[] used = new boolean[n];
+        used[start] = true;
+        used[end] = true;
+        return search(planner, n, end, budget, route, 1, used);
+    }
+
+    private static double search(OrienteeringPlanner planner, int n, int end, double budget,
+                                 int[] route, int length, boolean[] used) {
+        route[length] = end;
+        int[] closed = Arrays.copyOf(route, length + 1);
+        if (planner.duration(closed) > budget + EPS) {
+            return -1;
+        }
+        double best = planner.score(closed);
+        for (int c = 0; c < n; c++) {
+            if (!used[c]) {
+                used[c] = true;
+                route[length] = c;
+                best = Math.max(best, search(planner, n, end, budget, route, length + 1, used));
+                used[c] = false;
+            }
+        }
+        return best;
+    }
+}
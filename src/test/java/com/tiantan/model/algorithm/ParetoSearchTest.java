@@ -0,0 +1,144 @@
+package com.tiantan.model.algorithm;
+
+import com.tiantan.model.data.ScenicSpot;
+import com.tiantan.model.graph.CompactGraph;
+import com.tiantan.model.graph.Edge;
+import com.tiantan.model.graph.EdgeType;
+import com.tiantan.model.graph.ScenicGraph;
+import com.tiantan.model.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ParetoSearch 测试：前沿与枚举全部简单路径后筛选出的非支配代价向量一致
+ */
+class ParetoSearchTest {
+
+    @Test
+    void frontMatchesBruteForce() {
+        for (long seed = 1; seed <= 100; seed++) {
+            Random random = new Random(seed);
+            int n = 3 + random.nextInt(6);
+            ScenicGraph graph = randomGraph(random, n, n * 3);
+            CompactGraph snapshot = graph.freeze();
+            int sourceId = snapshot.idOf(random.nextInt(n));
+            int targetId = snapshot.idOf(random.nextInt(n));
+
+            List<ParetoSearch.ParetoPath> front = ParetoSearch.local()
+                    .search(snapshot, snapshot.indexOf(sourceId), snapshot.indexOf(targetId));
+            Set<String> actual = new TreeSet<>();
+            for (ParetoSearch.ParetoPath path : front) {
+                assertEquals(sourceId, path.getSpots().get(0).getId());
+                assertEquals(targetId, path.getSpots().get(path.getSpots().size() - 1).getId());
+                actual.add(key(new double[] {path.getDistance(), path.getCrowdedDistance(),
+                        path.getStairs(), path.getBarriers()}));
+            }
+            assertEquals(actual.size(), front.size(), "seed " + seed + " 前沿含有重复的代价向量");
+            assertEquals(bruteForceFront(graph, sourceId, targetId), actual, "seed " + seed);
+        }
+    }
+
+    /**
+     * 随机有向图，部分边拥挤、部分边为台阶，部分景点无障碍设施缺失
+     */
+    private static ScenicGraph randomGraph(Random random, int n, int m) {
+        ScenicGraph graph = new ScenicGraph(true);
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new ScenicSpot(i * 3 + 1, "景点" + i, "Spot " + i, "", "",
+                    random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                    random.nextInt(100), random.nextInt(3) != 0, 0));
+        }
+        List<Vertex> vertices = new ArrayList<>(graph.getVertices());
+        Set<Long> pairs = new HashSet<>();
+        for (int k = 0; k < m; k++) {
+            Vertex a = vertices.get(random.nextInt(n));
+            Vertex b = vertices.get(random.nextInt(n));
+            int fromId = a.getSpot().getId();
+            int toId = b.getSpot().getId();
+            if (a != b && pairs.add((long) fromId << 32 | toId)) {
+                EdgeType type = random.nextInt(4) == 0 ? EdgeType.STAIRS : EdgeType.WALKING;
+                graph.addEdge(fromId, toId, 10 + random.nextInt(90) + random.nextDouble(), type);
+            }
+        }
+        for (Edge edge : graph.getEdges()) {
+            edge.setCrowded(random.nextInt(3) == 0);
+        }
+        return graph;
+    }
+
+    /**
+     * 深度优先枚举所有简单路径，返回互不相同的非支配代价向量
+     */
+    private static Set<String> bruteForceFront(ScenicGraph graph, int sourceId, int targetId) {
+        List<double[]> costs = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        visited.add(sourceId);
+        enumerate(graph, sourceId, targetId, new double[ParetoSearch.CRITERIA], visited, costs);
+
+        Set<String> front = new TreeSet<>();
+        for (double[] candidate : costs) {
+            boolean dominated = false;
+            for (double[] other : costs) {
+                if (dominates(other, candidate)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                front.add(key(candidate));
+            }
+        }
+        return front;
+    }
+
+    private static void enumerate(ScenicGraph graph, int currentId, int targetId, double[] cost,
+                                  Set<Integer> visited, List<double[]> costs) {
+        if (currentId == targetId) {
+            costs.add(cost.clone());
+            return;
+        }
+        for (Edge edge : graph.getVertex(currentId).getAdjacent()) {
+            int nextId = edge.getTo().getSpot().getId();
+            if (!visited.add(nextId)) {
+                continue;
+            }
+            double[] extended = cost.clone();
+            extended[ParetoSearch.DISTANCE] += edge.getWeight();
+            extended[ParetoSearch.CROWDING] += edge.isCrowded() ? edge.getWeight() : 0.0;
+            extended[ParetoSearch.STAIRS] += edge.getType() == EdgeType.STAIRS ? 1 : 0;
+            extended[ParetoSearch.BARRIERS] += edge.getTo().getSpot().isAccessible() ? 0 : 1;
+            enumerate(graph, nextId, targetId, extended, visited, costs);
+            visited.remove(nextId);
+        }
+    }
+
+    private static boolean dominates(double[] a, double[] b) {
+        boolean strict = false;
+        for (int c = 0; c < ParetoSearch.CRITERIA; c++) {
+            if (a[c] > b[c] + 1e-9) {
+                return false;
+            }
+            strict |= a[c] < b[c] - 1e-9;
+        }
+        return strict;
+    }
+
+    /**
+     * 代价向量的规范化表示，消除浮点累加顺序带来的误差
+     */
+    private static String key(double[] cost) {
+        StringBuilder builder = new StringBuilder();
+        for (double value : cost) {
+            builder.append(String.format("%.6f", value)).append(' ');
+        }
+        return builder.toString();
+    }
+}
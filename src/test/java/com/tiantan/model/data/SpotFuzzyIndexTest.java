@@ -0,0 +1,140 @@
+package com.tiantan.model.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SpotFuzzyIndex 测试：在列表随机变化的过程中，查询结果与对每个名称运行动态规划编辑距离的结果一致
+ */
+class SpotFuzzyIndexTest {
+    private static final String CHINESE = "天坛祈年殿回音壁圜丘";
+    private static final String ENGLISH = "abcdeHALL";
+    private static final String[] CATEGORIES = {"建筑", "园林"};
+
+    @Test
+    void searchMatchesDynamicProgramming() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            SpotList list = new SpotList();
+            List<ScenicSpot> live = new ArrayList<>();
+            int nextId = 1;
+            for (int i = 0; i < 200; i++) {
+                ScenicSpot spot = randomSpot(random, nextId++);
+                list.add(spot);
+                live.add(spot);
+            }
+            SpotFuzzyIndex index = new SpotFuzzyIndex(list);
+
+            for (int step = 0; step < 300; step++) {
+                int operation = random.nextInt(8);
+                if (step == 150) {
+                    // 一次删除大部分景点，留下大量没有景点的名称，触发重建
+                    while (list.size() > 30) {
+                        ScenicSpot removed = list.get(random.nextInt(list.size()));
+                        list.remove(removed);
+                        live.remove(removed);
+                    }
+                } else if (operation == 0) {
+                    ScenicSpot spot = randomSpot(random, nextId++);
+                    list.add(spot);
+                    live.add(spot);
+                } else if (operation == 1 && !list.isEmpty()) {
+                    ScenicSpot removed = list.get(random.nextInt(list.size()));
+                    list.remove(removed);
+                    live.remove(removed);
+                }
+
+                boolean english = random.nextBoolean();
+                String query = english ? word(random, ENGLISH, 1 + random.nextInt(6))
+                        : word(random, CHINESE, 1 + random.nextInt(4));
+                int maxDistance = random.nextInt(4);
+                int limit = random.nextInt(15);
+                String category = random.nextInt(3) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+                boolean accessibleOnly = random.nextInt(4) == 0;
+
+                List<ScenicSpot> expected = bruteForce(live, query, maxDistance, limit, english,
+                        category, accessibleOnly);
+                assertEquals(expected, index.search(query, maxDistance, limit, english, category, accessibleOnly),
+                        "seed " + seed + " step " + step + " \"" + query + "\" k=" + maxDistance);
+            }
+            index.dispose();
+        }
+    }
+
+    /**
+     * 对每个景点名称计算完整的编辑距离，再按距离、热门程度、ID排序
+     */
+    private static List<ScenicSpot> bruteForce(List<ScenicSpot> spots, String query, int maxDistance, int limit,
+                                               boolean english, String category, boolean accessibleOnly) {
+        String normalized = query.toLowerCase();
+        List<ScenicSpot> matched = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+        for (ScenicSpot spot : spots) {
+            if ((category != null && !category.equals(spot.getCategory()))
+                    || (accessibleOnly && !spot.isAccessible())) {
+                continue;
+            }
+            int distance = levenshtein(normalized, spot.getName(english).toLowerCase());
+            if (distance <= maxDistance) {
+                matched.add(spot);
+                distances.add(distance);
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < matched.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingInt(distances::get)
+                .thenComparing(i -> -matched.get(i).getPopularity())
+                .thenComparing(i -> matched.get(i).getId()));
+        List<ScenicSpot> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, order.size()); i++) {
+            result.add(matched.get(order.get(i)));
+        }
+        return result;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * 同名景点较多的随机景点，热门程度取值范围小以产生并列
+     */
+    private static ScenicSpot randomSpot(Random random, int id) {
+        return new ScenicSpot(id, word(random, CHINESE, 1 + random.nextInt(4)),
+                word(random, ENGLISH, 1 + random.nextInt(6)), "", "",
+                random.nextDouble() * 1000, random.nextDouble() * 1000,
+                CATEGORIES[random.nextInt(CATEGORIES.length)], 30, "",
+                random.nextInt(5), random.nextBoolean(), 0);
+    }
+
+    private static String word(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
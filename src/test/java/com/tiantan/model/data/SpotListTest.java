@@ -0,0 +1,103 @@
+package com.tiantan.model.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * SpotList 测试：随机增删改、排序和修改ID后，按ID查找的结果与线性扫描一致
+ */
+class SpotListTest {
+    private static final int ID_RANGE = 40;   // ID取值范围较小，制造大量重复ID
+
+    @Test
+    void idIndexMatchesLinearScan() {
+        for (long seed = 1; seed <= 50; seed++) {
+            Random random = new Random(seed);
+            SpotList list = new SpotList(2);
+            List<ScenicSpot> expected = new ArrayList<>();
+
+            for (int step = 0; step < 400; step++) {
+                int operation = random.nextInt(10);
+                if (operation < 3 || expected.isEmpty()) {
+                    ScenicSpot spot = randomSpot(random);
+                    list.add(spot);
+                    expected.add(spot);
+                } else if (operation == 3) {
+                    int index = random.nextInt(expected.size() + 1);
+                    ScenicSpot spot = randomSpot(random);
+                    list.insert(index, spot);
+                    expected.add(index, spot);
+                } else if (operation == 4) {
+                    int index = random.nextInt(expected.size());
+                    list.removeAt(index);
+                    expected.remove(index);
+                } else if (operation == 5) {
+                    ScenicSpot spot = randomSpot(random);
+                    int index = linearIndexOfId(expected, spot.getId());
+                    list.remove(spot);
+                    if (index >= 0) {
+                        expected.remove(index);
+                    }
+                } else if (operation == 6) {
+                    int index = random.nextInt(expected.size());
+                    ScenicSpot spot = randomSpot(random);
+                    list.set(index, spot);
+                    expected.set(index, spot);
+                } else if (operation == 7) {
+                    // 在列表外修改ID后重建索引
+                    expected.get(random.nextInt(expected.size())).setId(1 + random.nextInt(ID_RANGE));
+                    list.reindex();
+                } else if (operation == 8) {
+                    Comparator<ScenicSpot> byPopularity = Comparator.comparingInt(ScenicSpot::getPopularity);
+                    list.sort(byPopularity);
+                    expected.clear();
+                    for (ScenicSpot spot : list) {
+                        expected.add(spot);
+                    }
+                } else if (random.nextInt(20) == 0) {
+                    list.clear();
+                    expected.clear();
+                }
+                assertMatches(list, expected, "seed " + seed + " step " + step);
+            }
+        }
+    }
+
+    private static void assertMatches(SpotList list, List<ScenicSpot> expected, String message) {
+        assertEquals(expected.size(), list.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), list.get(i), message);
+        }
+        for (int id = 0; id <= ID_RANGE + 1; id++) {
+            int index = linearIndexOfId(expected, id);
+            assertEquals(index, list.indexOfId(id), message + " id " + id);
+            assertSame(index < 0 ? null : expected.get(index), list.getById(id), message + " id " + id);
+        }
+        for (ScenicSpot spot : expected) {
+            assertEquals(linearIndexOfId(expected, spot.getId()), list.indexOf(spot), message);
+        }
+    }
+
+    private static int linearIndexOfId(List<ScenicSpot> spots, int id) {
+        for (int i = 0; i < spots.size(); i++) {
+            if (spots.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ScenicSpot randomSpot(Random random) {
+        int id = 1 + random.nextInt(ID_RANGE);
+        return new ScenicSpot(id, "景点" + id, "Spot " + id, "", "",
+                random.nextDouble() * 1000, random.nextDouble() * 1000, "建筑", 30, "",
+                random.nextInt(100), random.nextBoolean(), 0);
+    }
+}
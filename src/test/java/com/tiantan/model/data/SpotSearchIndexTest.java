@@ -0,0 +1,192 @@
+package com.tiantan.model.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SpotSearchIndex 测试：在列表随机变化的过程中，三种匹配方式的结果与逐个景点扫描文本一致
+ */
+class SpotSearchIndexTest {
+    private static final String CHINESE = "天坛祈年殿回音壁圜丘斋宫皇穹宇";
+    private static final String[] ENGLISH = {"Temple", "hall", "of", "Prayer", "echo", "wall",
+            "altar", "heaven", "good", "harvests", "circular", "mound", "a1", "x"};
+    private static final String[] CATEGORIES = {"建筑", "园林", "祭坛"};
+
+    @Test
+    void queriesMatchLinearScan() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            SpotList list = new SpotList();
+            List<ScenicSpot> indexed = new ArrayList<>();   // 按加入索引的先后顺序
+            int nextId = 1;
+            for (int i = 0; i < 300; i++) {
+                ScenicSpot spot = randomSpot(random, nextId++);
+                list.add(spot);
+                indexed.add(spot);
+            }
+            SpotSearchIndex index = new SpotSearchIndex(list);
+
+            for (int step = 0; step < 300; step++) {
+                int operation = random.nextInt(10);
+                if (step == 150) {
+                    // 一次删除大部分景点，触发索引压缩
+                    while (list.size() > 40) {
+                        ScenicSpot removed = list.get(random.nextInt(list.size()));
+                        list.remove(removed);
+                        indexed.remove(removed);
+                    }
+                } else if (operation == 0) {
+                    ScenicSpot spot = randomSpot(random, nextId++);
+                    list.add(spot);
+                    indexed.add(spot);
+                } else if (operation == 1 && !list.isEmpty()) {
+                    ScenicSpot removed = list.get(random.nextInt(list.size()));
+                    list.remove(removed);
+                    indexed.remove(removed);
+                } else if (operation == 2 && !list.isEmpty()) {
+                    int position = random.nextInt(list.size());
+                    ScenicSpot old = list.get(position);
+                    ScenicSpot spot = randomSpot(random, nextId++);
+                    list.set(position, spot);
+                    indexed.remove(old);
+                    indexed.add(spot);
+                }
+
+                String query = randomQuery(random, indexed);
+                SpotSearchIndex.MatchMode mode = SpotSearchIndex.MatchMode.values()[random.nextInt(3)];
+                Set<SpotSearchIndex.Field> fields = randomFields(random);
+                String category = random.nextInt(3) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+                boolean accessibleOnly = random.nextInt(4) == 0;
+
+                List<ScenicSpot> expected = new ArrayList<>();
+                for (ScenicSpot spot : indexed) {
+                    if ((category == null || category.equals(spot.getCategory()))
+                            && (!accessibleOnly || spot.isAccessible())
+                            && matches(spot, query, mode, fields)) {
+                        expected.add(spot);
+                    }
+                }
+                assertEquals(expected, index.search(query, mode, fields, category, accessibleOnly),
+                        "seed " + seed + " step " + step + " " + mode + " \"" + query + "\" " + fields);
+            }
+            index.dispose();
+        }
+    }
+
+    /**
+     * 朴素匹配：PHRASE 在某一字段的小写文本上做 contains，ALL/ANY 逐个词元比较
+     */
+    private static boolean matches(ScenicSpot spot, String query, SpotSearchIndex.MatchMode mode,
+                                   Set<SpotSearchIndex.Field> fields) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return true;
+        }
+        if (mode == SpotSearchIndex.MatchMode.PHRASE) {
+            for (SpotSearchIndex.Field field : fields) {
+                if (text(spot, field).toLowerCase(Locale.ROOT).contains(normalized)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        List<String> tokens = SpotSearchIndex.tokenize(normalized);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        for (String token : tokens) {
+            boolean found = false;
+            for (SpotSearchIndex.Field field : fields) {
+                found |= SpotSearchIndex.tokenize(text(spot, field)).contains(token);
+            }
+            if (mode == SpotSearchIndex.MatchMode.ANY && found) {
+                return true;
+            }
+            if (mode == SpotSearchIndex.MatchMode.ALL && !found) {
+                return false;
+            }
+        }
+        return mode == SpotSearchIndex.MatchMode.ALL;
+    }
+
+    private static String text(ScenicSpot spot, SpotSearchIndex.Field field) {
+        switch (field) {
+            case NAME_ZH:
+                return spot.getNameZh();
+            case NAME_EN:
+                return spot.getNameEn();
+            case DESCRIPTION_ZH:
+                return spot.getDescriptionZh();
+            case DESCRIPTION_EN:
+            default:
+                return spot.getDescriptionEn();
+        }
+    }
+
+    /**
+     * 一半取自某个景点某字段的子串（保证有命中），一半由词表随机拼接
+     */
+    private static String randomQuery(Random random, List<ScenicSpot> spots) {
+        if (!spots.isEmpty() && random.nextBoolean()) {
+            ScenicSpot spot = spots.get(random.nextInt(spots.size()));
+            String text = text(spot, SpotSearchIndex.Field.values()[random.nextInt(4)]);
+            if (!text.isEmpty()) {
+                int start = random.nextInt(text.length());
+                int end = Math.min(text.length(), start + 1 + random.nextInt(8));
+                return text.substring(start, end);
+            }
+        }
+        return random.nextBoolean() ? chinese(random, 1 + random.nextInt(3)) : english(random, 1 + random.nextInt(3));
+    }
+
+    private static Set<SpotSearchIndex.Field> randomFields(Random random) {
+        Set<SpotSearchIndex.Field> fields = EnumSet.noneOf(SpotSearchIndex.Field.class);
+        for (SpotSearchIndex.Field field : SpotSearchIndex.Field.values()) {
+            if (random.nextBoolean()) {
+                fields.add(field);
+            }
+        }
+        return fields.isEmpty() ? EnumSet.allOf(SpotSearchIndex.Field.class) : fields;
+    }
+
+    private static ScenicSpot randomSpot(Random random, int id) {
+        return new ScenicSpot(id, chinese(random, 2 + random.nextInt(4)), english(random, 1 + random.nextInt(3)),
+                chinese(random, 5 + random.nextInt(20)) + "，" + chinese(random, 3),
+                english(random, 4 + random.nextInt(10)) + ". " + english(random, 2),
+                random.nextDouble() * 1000, random.nextDouble() * 1000,
+                CATEGORIES[random.nextInt(CATEGORIES.length)], 30, "",
+                random.nextInt(100), random.nextBoolean(), 0);
+    }
+
+    /**
+     * 从小字表中随机取字，前几个字出现得更频繁，使倒排表长短悬殊
+     */
+    private static String chinese(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int bound = 1 + random.nextInt(CHINESE.length());
+            builder.append(CHINESE.charAt(random.nextInt(bound)));
+        }
+        return builder.toString();
+    }
+
+    private static String english(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            int bound = 1 + random.nextInt(ENGLISH.length);
+            builder.append(ENGLISH[random.nextInt(bound)]);
+        }
+        return builder.toString();
+    }
+}